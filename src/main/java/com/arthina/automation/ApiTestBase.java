@@ -0,0 +1,178 @@
+package com.arthina.automation;
+
+import com.arthina.automation.api.ApiConnections;
+import com.arthina.automation.api.ApiRecorder;
+import com.arthina.automation.api.ApiRecordings;
+import com.arthina.automation.api.ApiStubServer;
+import com.arthina.automation.api.ApiTimingFilter;
+import com.arthina.automation.api.ApiToken;
+import com.arthina.automation.api.ApiTokenCache;
+import com.arthina.automation.load.LoadProfile;
+import com.arthina.automation.load.LoadRun;
+import com.arthina.automation.load.LoadRunner;
+import com.arthina.automation.reporter.ExtentTestManager;
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.testng.IHookCallBack;
+import org.testng.IHookable;
+import org.testng.ITestResult;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.Optional;
+import org.testng.annotations.Parameters;
+
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Base class of API tests: all requests share one keep-alive connection pool and a base spec (base URI, JSON,
+ * timing log), auth tokens are fetched once and shared until they expire. The report and test lifecycle are the
+ * ones of {@link TestBase}, typically run with isWebAutomation=false. Safe to use from parallel tests.
+ * With loadUsers > 0 every passing test is then run again as load by the virtual users of its {@link LoadProfile},
+ * the latency percentiles and throughput go to the report of the test.
+ * apiStubMode=RECORD stores the exchanges with the service in apiStubDir, REPLAY serves them from a local
+ * {@link ApiStubServer} that replaces the base URI, so the same tests run without the service.
+ */
+@Slf4j
+public abstract class ApiTestBase extends TestBase implements IHookable {
+    private static final ApiTokenCache tokens = new ApiTokenCache();
+    private static volatile ApiConnections connections;
+    private static volatile RequestSpecification baseSpec;
+    private static volatile ApiRecordings recordings;
+    private static volatile ApiStubServer stubServer;
+
+    @Parameters({"apiBaseUri", "apiMaxConnections", "apiConnectTimeoutMillis", "apiReadTimeoutMillis", "loadUsers",
+            "apiStubMode", "apiStubDir"})
+    @BeforeSuite
+    public void initApi(@Optional("") final String apiBaseUri,
+                        @Optional("20") final String apiMaxConnections,
+                        @Optional("5000") final String apiConnectTimeoutMillis,
+                        @Optional("30000") final String apiReadTimeoutMillis,
+                        @Optional("0") final String loadUsers,
+                        @Optional("OFF") final String apiStubMode,
+                        @Optional("src/test/resources/api-stubs") final String apiStubDir) {
+        // every virtual user needs a connection of its own, else the users queue on the pool instead of the server
+        final int maxConnections = Math.max(Integer.parseInt(apiMaxConnections), Integer.parseInt(loadUsers));
+        connections = new ApiConnections(maxConnections,
+                Duration.ofMillis(Long.parseLong(apiConnectTimeoutMillis)), Duration.ofMillis(Long.parseLong(apiReadTimeoutMillis)));
+        RequestSpecBuilder builder = new RequestSpecBuilder()
+                .setConfig(connections.config())
+                .setContentType(ContentType.JSON)
+                .setAccept(ContentType.JSON)
+                .addFilter(new ApiTimingFilter());
+        String baseUri = apiBaseUri;
+        final ApiStubServer.Mode stubMode = ApiStubServer.Mode.valueOf(apiStubMode);
+        if (stubMode != ApiStubServer.Mode.OFF) {
+            recordings = ApiRecordings.open(Paths.get(apiStubDir));
+        }
+        if (stubMode == ApiStubServer.Mode.RECORD) {
+            ApiRecorder recorder = new ApiRecorder(recordings);
+            builder.setConfig(recorder.config(connections.config())).addFilter(recorder);
+        } else if (stubMode == ApiStubServer.Mode.REPLAY) {
+            stubServer = ApiStubServer.start(recordings);
+            // the recorded paths include the base path of the service
+            baseUri = stubServer.getBaseUri() + (StringUtils.isBlank(apiBaseUri) ? "" : URI.create(apiBaseUri).getRawPath());
+        }
+        if (StringUtils.isNotBlank(baseUri)) {
+            builder.setBaseUri(baseUri);
+        }
+        baseSpec = builder.build();
+        log.info("API requests go to {} over at most {} pooled connections", StringUtils.defaultIfBlank(baseUri, "(no base URI)"), maxConnections);
+    }
+
+    /**
+     * Registers how to obtain the token used by {@link #given(String)}. Typically called from a {@code @BeforeClass}.
+     */
+    public static void registerToken(final String name, Supplier<ApiToken> fetch) {
+        tokens.register(name, fetch);
+    }
+
+    /**
+     * Drops a cached token, e.g. after a 401, the next request fetches a new one.
+     */
+    public static void invalidateToken(final String name) {
+        tokens.invalidate(name);
+    }
+
+    /**
+     * Request on the shared base spec, add the path, body and own specs to it.
+     */
+    protected RequestSpecification given() {
+        return RestAssured.given().spec(baseSpec());
+    }
+
+    /**
+     * Request authenticated with the bearer token registered as tokenName.
+     */
+    protected RequestSpecification given(final String tokenName) {
+        return given().auth().oauth2(tokens.get(tokenName));
+    }
+
+    /**
+     * The base spec, to build further shared specs on, e.g. {@code new RequestSpecBuilder().addRequestSpecification(baseSpec())}.
+     */
+    protected static RequestSpecification baseSpec() {
+        if (baseSpec == null) {
+            throw new IllegalStateException("API base spec not initialized, the suite did not run ApiTestBase.initApi");
+        }
+        return baseSpec;
+    }
+
+    /**
+     * Runs the test once as usual and, in load mode, again from the virtual users when it passed.
+     * A run breaking the limits of the profile fails the test.
+     */
+    @Override
+    public void run(IHookCallBack callBack, ITestResult testResult) {
+        callBack.runTestMethod(testResult);
+        Map<String, String> parameters = testResult.getTestContext().getCurrentXmlTest().getAllParameters();
+        final LoadProfile profile = LoadProfile.of(parameters);
+        if (!profile.isEnabled() || testResult.getThrowable() != null) {
+            return;
+        }
+        final Method method = testResult.getMethod().getConstructorOrMethod().getMethod();
+        final Object[] arguments = testResult.getParameters();
+        try {
+            LoadRun run = LoadRunner.run(testResult.getMethod().getQualifiedName(), profile, () -> method.invoke(this, arguments));
+            ExtentTestManager.logInfo("Load {}", run);
+            run.getRequests().forEach((request, histogram) -> ExtentTestManager.logInfo("Load {}: {}", request, histogram));
+            ExtentTestManager.setSystemInfo("Load " + run.getName(), String.format("%.1f/s, p50 %d ms, p95 %d ms, p99 %d ms, %d errors",
+                    run.getThroughput(), run.getIterations().getPercentile(50).toMillis(), run.getIterations().getPercentile(95).toMillis(),
+                    run.getIterations().getPercentile(99).toMillis(), run.getErrors()));
+            profile.check(run).ifPresent(violation -> {
+                testResult.setThrowable(new AssertionError(violation, run.getFirstError()));
+                testResult.setStatus(ITestResult.FAILURE);
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            testResult.setThrowable(e);
+            testResult.setStatus(ITestResult.FAILURE);
+        }
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void closeApi() {
+        if (stubServer != null) {
+            ExtentTestManager.setSystemInfo("API stub server", stubServer.statistics());
+            stubServer.stop();
+            stubServer = null;
+        } else if (recordings != null) {
+            ExtentTestManager.setSystemInfo("API recordings", recordings.getRecordedCount() + " exchanges recorded to " + recordings.getDirectory());
+            recordings.save();
+        }
+        recordings = null;
+        if (connections != null) {
+            ExtentTestManager.setSystemInfo("API connections", connections.statistics());
+            connections.shutdown();
+            connections = null;
+        }
+    }
+}
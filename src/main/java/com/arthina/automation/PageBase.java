@@ -1,5 +1,17 @@
 package com.arthina.automation;
 
+import com.arthina.automation.driver.NetworkFilter;
+import com.arthina.automation.driver.NetworkSession;
+import com.arthina.automation.page.CachingElementLocatorFactory;
+import com.arthina.automation.page.ElementSnapshot;
+import com.arthina.automation.page.FormData;
+import com.arthina.automation.page.FormFiller;
+import com.arthina.automation.page.NetworkRules;
+import com.arthina.automation.page.PageMetadata;
+import com.arthina.automation.page.PageReady;
+import com.arthina.automation.page.PageSettleEngine;
+import com.arthina.automation.page.ReadinessProbe;
+import com.arthina.automation.page.WaitEngine;
 import com.arthina.automation.reporter.ExtentTestManager;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -7,14 +19,14 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.PageFactory;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
 
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -22,23 +34,71 @@ import java.util.stream.Collectors;
 public class PageBase {
 
     protected WebDriver driver;
-    protected WebDriverWait wait;
+    protected WaitEngine wait;
+    protected PageSettleEngine settleEngine;
+    protected FormFiller formFiller;
+    protected CachingElementLocatorFactory elementLocatorFactory;
 
     public PageBase(WebDriver driver) {
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(20));
-        this.wait.until(d -> ((JavascriptExecutor)d).executeScript("return document.readyState;").toString().equals("complete"));
-        PageFactory.initElements(driver, this);
-        //PageFactory.initElements(new AjaxElementLocatorFactory(driver, 20), this);
+        this.wait = new WaitEngine(driver);
+        this.settleEngine = new PageSettleEngine(driver);
+        this.formFiller = new FormFiller(driver);
+        this.elementLocatorFactory = new CachingElementLocatorFactory(driver, getClass());
+        PageMetadata.of(getClass()).bind(this, elementLocatorFactory);
+        this.applyNetworkFilter();
+        this.ensurePageReadyState();
+    }
+
+    /**
+     * Readiness probe of this page, by default the one declared with {@link PageReady} on the page class.
+     * Called from the constructor, so overrides must not rely on fields of the subclass.
+     */
+    protected ReadinessProbe readinessProbe() {
+        return ReadinessProbe.forPage(getClass());
+    }
+
+    /**
+     * Network filter while this page is in use: the suite filter adjusted by {@link NetworkRules} on the page class.
+     * Called from the constructor, so overrides must not rely on fields of the subclass.
+     */
+    protected NetworkFilter networkFilter() {
+        NetworkFilter filter = NetworkFilter.getSuiteFilter();
+        NetworkRules rules = getClass().getAnnotation(NetworkRules.class);
+        if (rules != null) {
+            filter = filter.block(Arrays.asList(rules.block())).allow(Arrays.asList(rules.allow()));
+        }
+        return filter;
+    }
+
+    /**
+     * Navigates to the given url and returns as soon as the page is usable.
+     */
+    public void open(final String url) {
+        this.applyNetworkFilter();
+        driver.get(url);
+        elementLocatorFactory.invalidateAll();
+        this.ensurePageReadyState();
+        ExtentTestManager.logInfo("Opened the WebPage: {}", url);
     }
 
     public void waitForElementVisible(WebElement element, long maxWaitinMillis){
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofMillis(maxWaitinMillis));
-        wait.until(webDriver -> ExpectedConditions.visibilityOf(element));
+        wait.until("visible", ExpectedConditions.visibilityOf(element), Duration.ofMillis(maxWaitinMillis));
+    }
+
+    /**
+     * @return true when the element is visible within the default wait timeout, false otherwise
+     */
+    public boolean isVisible(WebElement element) {
+        return isVisible(element, WaitEngine.getDefaultTimeout());
+    }
+
+    public boolean isVisible(WebElement element, Duration timeout) {
+        return wait.isMet("visible", ExpectedConditions.visibilityOf(element), timeout);
     }
 
     public void waitTillVisible(WebElement element, final String expectedText) {
-        wait.until(webDriver -> ExpectedConditions.textToBePresentInElement(element, expectedText));
+        wait.until("text-present", ExpectedConditions.textToBePresentInElement(element, expectedText));
     }
 
 //	@Deprecated
@@ -46,12 +106,33 @@ public class PageBase {
 //		wait.until(ExpectedConditions.textToBePresentInElementLocated(elementBy, expectedText));
 //	}
 
-    public void waitTillAllVisible(List<WebElement> elements) {
-        wait.until(webDriver -> ExpectedConditions.visibilityOfAllElements(elements));
+    /**
+     * Waits until every element is visible, checking the whole set with one script call per poll.
+     * @return the snapshot of the visible elements
+     */
+    public ElementSnapshot waitTillAllVisible(List<WebElement> elements) {
+        return wait.until("all-visible", webDriver -> {
+            ElementSnapshot snapshot = snapshot(elements);
+            return snapshot.allVisible() ? snapshot : null;
+        });
     }
 
     public void waitTillVisible(WebElement... element) {
-        wait.until(webDriver -> ExpectedConditions.visibilityOfAllElements(element));
+        waitTillAllVisible(Arrays.asList(element));
+    }
+
+    /**
+     * Reads text, value, visibility, selection and the given attributes of all elements in one round trip.
+     */
+    public ElementSnapshot snapshot(List<WebElement> elements, String... attributes) {
+        return ElementSnapshot.of(driver, elements, attributes);
+    }
+
+    /**
+     * Reads all options of a select element in one round trip.
+     */
+    public ElementSnapshot snapshotOptions(WebElement selectElement, String... attributes) {
+        return ElementSnapshot.optionsOf(driver, selectElement, attributes);
     }
 
 //	@Deprecated
@@ -74,16 +155,17 @@ public class PageBase {
 
     public void refreshPage(){
         driver.navigate().refresh();
+        elementLocatorFactory.invalidateAll();
         this.ensurePageReadyState();
-        ExtentTestManager.logInfo("Refreshed the WebPage & Loaded the Elements : "+ getPageTitle());
+        ExtentTestManager.logInfo(() -> "Refreshed the WebPage & Loaded the Elements : "+ getPageTitle());
     }
 
     public void click(WebElement element, final String elementName){
-        waitForElementVisible(element, 100);
-        if (element.isDisplayed()){
+        if (isVisible(element)){
+            settleEngine.arm();
             element.click();
-            ExtentTestManager.logInfo("Clicked the element: " + elementName);
-            sleep(3000);
+            ExtentTestManager.logInfo("Clicked the element: {}", elementName);
+            waitForPageToSettle();
         }else{
             ExtentTestManager.logFatal("The element " + elementName + " is Not Visible");
         }
@@ -100,9 +182,18 @@ public class PageBase {
 //	}
 
     public void gotoPreviousPage(){
-        driver.navigate().back();;
+        driver.navigate().back();
+        elementLocatorFactory.invalidateAll();
         this.ensurePageReadyState();
-        ExtentTestManager.logInfo("Navigated back to the Previous Page : " +getPageTitle());
+        ExtentTestManager.logInfo(() -> "Navigated back to the Previous Page : " +getPageTitle());
+    }
+
+    /**
+     * Waits until no request, DOM mutation or animation is in flight on the page, see {@link PageSettleEngine}.
+     */
+    public void waitForPageToSettle() {
+        final Duration took = settleEngine.settle();
+        ExtentTestManager.logDebug("Page settled in {} ms", took.toMillis());
     }
 
     public Boolean hasActiveFocus(WebElement webElement){
@@ -125,63 +216,67 @@ public class PageBase {
         return driver.getCurrentUrl();
     }
 
-    private void ensurePageReadyState() {
-        // TODO Auto-generated method stub
+    private void applyNetworkFilter() {
+        NetworkFilter filter = networkFilter();
+        NetworkSession session = filter.isEmpty() ? NetworkSession.of(driver) : NetworkSession.forDriver(driver);
+        if (session != null) {
+            session.apply(filter);
+        }
+    }
 
+    /**
+     * Waits for the {@link #readinessProbe()} of this page, the driver itself only waits for DOMContentLoaded (eager strategy).
+     */
+    protected void ensurePageReadyState() {
+        PageReady pageReady = getClass().getAnnotation(PageReady.class);
+        final long timeoutMillis = pageReady != null ? pageReady.timeoutMillis() : 20000;
+        ReadinessProbe probe = readinessProbe();
+        wait.until("page-ready", probe::isReady, Duration.ofMillis(timeoutMillis));
     }
 
     public void waitForElementToBeClickable(WebElement element, long maxWaitTimeInMillis) {
-        WebDriverWait clickElementWait = new WebDriverWait(driver, Duration.ofMillis(maxWaitTimeInMillis));
-        clickElementWait.until(webDriver -> ExpectedConditions.elementToBeClickable(element));
+        wait.until("clickable", ExpectedConditions.elementToBeClickable(element), Duration.ofMillis(maxWaitTimeInMillis));
     }
 
     @Deprecated
     public void waitForElementToBeClickable(By elementBy, long maxWaitTimeInMillis) {
-        WebDriverWait clickElementWait = new WebDriverWait(driver, Duration.ofMillis(maxWaitTimeInMillis));
-        clickElementWait.until(webDriver -> ExpectedConditions.elementToBeClickable(elementBy));
+        wait.until("clickable", ExpectedConditions.elementToBeClickable(elementBy), Duration.ofMillis(maxWaitTimeInMillis));
     }
 
     public void uploadFile(WebElement element, final String filePath) {
 //		waitTillVisible(element);
         if (StringUtils.isNotEmpty(filePath)) {
             element.sendKeys(filePath);
-            ExtentTestManager.logInfo("Trying to Upload File [" + filePath + "] on element:" + element.toString());
+            ExtentTestManager.logInfo("Trying to Upload File [{}] on element:{}", filePath, element);
         }
         else {
-            ExtentTestManager.logInfo("Skipping File upload as value [" + filePath + "] is EMPTY/NULL for element:" + element.toString());
-            log.debug("Given value: [{}] for Element:{} is NULL/EMPTY" , filePath, element.toString());
+            ExtentTestManager.logInfo("Skipping File upload as value [{}] is EMPTY/NULL for element:{}", filePath, element);
+            log.debug("Given value: [{}] for Element:{} is NULL/EMPTY" , filePath, element);
         }
     }
 
     public void verifyDropdownValues(WebElement element, String... values) {
-        Select givenSelect = new Select(element);
-        List<WebElement> options = givenSelect.getOptions();
+        List<String> options = snapshotOptions(element).texts();
 
         for (int i=0; i< options.size(); i++) {
-            Assert.assertEquals(options.get(i).getText(), values[i]);
+            Assert.assertEquals(options.get(i), values[i]);
         }
     }
 
     @Deprecated
     public void verifyDropdownValues(By elementBy, String... values) {
-        Select givenSelect = new Select(driver.findElement(elementBy));
-        List<WebElement> options = givenSelect.getOptions();
-
-        for (int i=0; i< options.size(); i++) {
-            Assert.assertEquals(options.get(i).getText(), values[i]);
-        }
+        verifyDropdownValues(driver.findElement(elementBy), values);
     }
 
     public void setSelectOptionBasedOnDisplayText(WebElement element, final String value) {
         try {
-            Select selectOptionDdl = new Select(element);
             if (StringUtils.isNotEmpty(value)) {
-                selectOptionDdl.selectByVisibleText(value);
-                ExtentTestManager.logInfo("Trying to set the display Text [" + value + "] on Drodpwn element:" + element.toString());
+                fillForm(new FormData().set(element, value));
+                ExtentTestManager.logInfo("Trying to set the display Text [{}] on Drodpwn element:{}", value, element);
             }
             else {
-                ExtentTestManager.logInfo("Skipping Dropdown Select as value [" + value + "] is EMPTY/NULL for element:" + element.toString());
-                log.debug("Given value: [{}] for Element:{} is NULL/EMPTY" , value, element.toString());
+                ExtentTestManager.logInfo("Skipping Dropdown Select as value [{}] is EMPTY/NULL for element:{}", value, element);
+                log.debug("Given value: [{}] for Element:{} is NULL/EMPTY" , value, element);
             }
         }
         catch(Exception e) {
@@ -196,11 +291,11 @@ public class PageBase {
             Select selectOptionDdl = new Select(driver.findElement(elementBy));
             if (StringUtils.isNotEmpty(value)) {
                 selectOptionDdl.selectByVisibleText(value);
-                ExtentTestManager.logInfo("Display Text [" + value + "] set on Drodpwn element:" + elementBy.toString());
+                ExtentTestManager.logInfo("Display Text [{}] set on Drodpwn element:{}", value, elementBy);
             }
             else {
-                ExtentTestManager.logInfo("Skipping Dropdown Select as value [" + value + "] is EMPTY/NULL for element:" + elementBy.toString());
-                log.debug("Given value: [{}] for Element:{} is NULL/EMPTY" , value, elementBy.toString());
+                ExtentTestManager.logInfo("Skipping Dropdown Select as value [{}] is EMPTY/NULL for element:{}", value, elementBy);
+                log.debug("Given value: [{}] for Element:{} is NULL/EMPTY" , value, elementBy);
             }
         }
         catch(Exception e) {
@@ -220,19 +315,44 @@ public class PageBase {
     }
 
     public void setSelectMultipleOptionsBasedOnDisplayText(WebElement element, final List<String> values) {
-        Select selectOptionDdl = new Select(element);
-        selectOptionDdl.deselectAll();
-        values.stream()
+        List<String> displayTexts = values.stream()
                 .filter(value -> {
                     if (StringUtils.isNotBlank(value)) {
                         return true;
                     }
                     else {
-                        log.debug("Given value: [{}] for Element:{} is NULL/EMPTY" , value, element.toString());
+                        log.debug("Given value: [{}] for Element:{} is NULL/EMPTY" , value, element);
                         return false;
                     }
                 })
-                .forEach(value -> selectOptionDdl.selectByVisibleText(value));
+                .collect(Collectors.toList());
+        fillForm(new FormData().select(element, displayTexts));
+    }
+
+    /**
+     * Fills the whole form in one script call (text inputs, selects, checkboxes), firing input/change events,
+     * then types the fields added with {@link FormData#type} using real keystrokes.
+     * Fails the test when a field does not hold the requested value afterwards.
+     */
+    public void fillForm(FormData formData) {
+        List<FormFiller.FieldResult> failures = formFiller.fill(formData).stream()
+                .filter(result -> !result.isOk())
+                .collect(Collectors.toList());
+        if (!failures.isEmpty()) {
+            ExtentTestManager.logFail("Form fill failed for: " + failures);
+            Assert.fail("Form fill failed for: " + failures);
+        }
+        formData.getFields().stream()
+                .filter(FormData.Field::isTyped)
+                .forEach(field -> writeText((WebElement) field.getTarget(), field.getValues().get(0)));
+        ExtentTestManager.logInfo("Filled the form fields: {}", formData.getFields());
+    }
+
+    /**
+     * @param values field (WebElement or By) to value (String, Boolean for checkboxes, List of texts for multi selects)
+     */
+    public void fillForm(Map<?, ?> values) {
+        fillForm(FormData.of(values));
     }
 
 
@@ -244,20 +364,18 @@ public class PageBase {
      * @param text
      */
     public void writeText(WebElement element, final String text) {
-        waitForElementVisible(element, 10);
-        //waitTillVisible(element);
         if (StringUtils.isNotEmpty(text)) {
-            if (element.isDisplayed()) {
+            if (isVisible(element)) {
                 element.clear();
                 element.sendKeys(StringUtils.trim(text));
-                ExtentTestManager.logInfo("Writing value [" + StringUtils.trim(text) + "] on element:" + element.toString() + " as " + element.getText());
+                ExtentTestManager.logInfo(() -> "Writing value [" + StringUtils.trim(text) + "] on element:" + element + " as " + element.getText());
             }
             else {
-                ExtentTestManager.logFatal("The element " + element.toString() + " is Not Visible");
+                ExtentTestManager.logFatal("The element " + element + " is Not Visible");
             }
         }
         else {
-            ExtentTestManager.logDebug("Skip NULL/EMPTY value to write on element:" + element.toString());
+            ExtentTestManager.logDebug("Skip NULL/EMPTY value to write on element:{}", element);
         }
     }
 
@@ -292,43 +410,42 @@ public class PageBase {
      */
     public void selectDropdown(WebElement element, final String displayText) {
         waitTillVisible(element);
-        Select dropdown = new Select(element);
-        dropdown.selectByVisibleText(displayText);
+        fillForm(new FormData().set(element, displayText));
     }
 
     public String getSelectedValue(WebElement element) {
         waitTillVisible(element);
-        Select dropdown = new Select(element);
-        return dropdown.getAllSelectedOptions().stream().map(option -> option.getText()).collect(Collectors.joining(","));
+        return snapshotOptions(element).selected().stream().map(ElementSnapshot.ElementState::getText).collect(Collectors.joining(","));
     }
 
     public void verifyPageTitle(final String expectedText) {
-        wait.until(webDriver -> ExpectedConditions.titleContains(expectedText));
+        wait.until("title-contains", ExpectedConditions.titleContains(expectedText));
     }
 
     public void assertEquals(WebElement element, final String expectedText) {
         final String actualText = readText(element);
-        ExtentTestManager.logInfo("Validating the Actual: " + actualText + " equals Expected: " + expectedText + " for the element: " + element.toString());
+        ExtentTestManager.logInfo("Validating the Actual: {} equals Expected: {} for the element: {}", actualText, expectedText, element);
         Assert.assertEquals(actualText, expectedText);
     }
 
     public void assertContains(WebElement element, final String expectedText) {
         final String actualText = readText(element);
-        ExtentTestManager.logInfo("Validating the Actual: " + actualText + " conatins Expected: " + expectedText + " for teh element: " + element.toString());
+        ExtentTestManager.logInfo("Validating the Actual: {} conatins Expected: {} for teh element: {}", actualText, expectedText, element);
         Assert.assertTrue(actualText.contains(expectedText));
     }
 
     public void assertLists(List<WebElement> elements, final List<String> expectedList) {
-        waitTillAllVisible(elements);
+        List<String> actualList = waitTillAllVisible(elements).texts();
         for(int i=0; i < expectedList.size(); i++) {
-            assertEquals(elements.get(i), expectedList.get(i));
+            ExtentTestManager.logInfo("Validating the Actual: {} equals Expected: {} for the element: {}", actualList.get(i), expectedList.get(i), elements.get(i));
+            Assert.assertEquals(actualList.get(i), expectedList.get(i));
         }
     }
 
     public void assertMultiple(final List<String> expectedList, WebElement... elements) {
-        waitTillVisible(elements);
+        List<String> actualList = waitTillAllVisible(Arrays.asList(elements)).texts();
         for(int i=0; i < elements.length; i++) {
-            Assert.assertEquals(elements[i].getText(), expectedList.get(i));
+            Assert.assertEquals(actualList.get(i), expectedList.get(i));
         }
     }
 
@@ -1,14 +1,30 @@
 package com.arthina.automation;
 
+import com.arthina.automation.data.ExcelSheets;
+import com.arthina.automation.driver.BrowserContexts;
+import com.arthina.automation.driver.DriverBinaryCache;
+import com.arthina.automation.driver.DriverPool;
+import com.arthina.automation.driver.NetworkFilter;
+import com.arthina.automation.driver.NetworkSession;
+import com.arthina.automation.driver.SessionStateCache;
+import com.arthina.automation.page.CachingElementLocatorFactory;
+import com.arthina.automation.page.LatencyStats;
+import com.arthina.automation.page.PageSettleEngine;
+import com.arthina.automation.page.WaitEngine;
 import com.arthina.automation.reporter.ExtentTestManager;
-import io.github.bonigarcia.wdm.WebDriverManager;
+import com.arthina.automation.reporter.ExtentTestManager.ReportMode;
+import com.arthina.automation.reporter.ReportFlusher.FlushPolicy;
+import com.arthina.automation.reporter.ScreenshotPipeline;
+import com.aventstack.extentreports.Status;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.openqa.selenium.PageLoadStrategy;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.ie.InternetExplorerDriver;
@@ -16,53 +32,153 @@ import org.openqa.selenium.opera.OperaDriver;
 import org.openqa.selenium.safari.SafariDriver;
 import org.testng.Assert;
 import org.testng.ITestContext;
+import org.testng.ITestResult;
+import org.testng.Reporter;
 import org.testng.annotations.*;
+import org.testng.xml.XmlSuite;
 
 import java.io.File;
 import java.lang.reflect.Method;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 @Slf4j
 public class TestBase {
-    private WebDriver driver;
-    private boolean isWebTesting = Boolean.TRUE;
+    private static DriverPool driverPool;
+    private static BrowserContexts browserContexts;
+    private static ScreenshotPipeline screenshotPipeline;
+    private static final SessionStateCache sessionStates = new SessionStateCache();
+    private static final String DRIVER_START = "driver-start";
+    private static final Map<String, Duration> startupPhases = new LinkedHashMap<>();
+    private static boolean isWebTesting = Boolean.TRUE;
     private String browserType;
     protected String downloadDir;
     private boolean headlessOption = Boolean.TRUE;
-    private boolean imagesAsBase64Option = Boolean.TRUE;
+    private boolean imagesAsBase64Option = Boolean.FALSE;
+    private PageLoadStrategy pageLoadStrategy = PageLoadStrategy.EAGER;
 
+    /**
+     * Returns the WebDriver leased to the current thread, leasing one from the suite pool on first use.
+     * The lease is handed back to the pool after the test method completes.
+     */
     public WebDriver getDriver() {
-        return this.driver;
+        if (driverPool == null) {
+            return null;
+        }
+        WebDriver driver = driverPool.acquire();
+        ITestResult currentResult = Reporter.getCurrentTestResult();
+        if (currentResult != null) {
+            currentResult.setAttribute("driver", driver);
+        }
+        return driver;
+    }
+
+    /**
+     * Registers how to log in as a role, see {@link #openAs(String, String)}. Typically called from a {@code @BeforeClass}.
+     * @param login logs in through the UI, e.g. with the login page object
+     * @param isLoggedIn tells if the current page is shown logged in as the role, used to detect expired sessions
+     * @param sessionCookies names of the cookies carrying the login, the shared state is refreshed when the first expires
+     */
+    public static void registerLogin(final String role, Consumer<WebDriver> login, Predicate<WebDriver> isLoggedIn, String... sessionCookies) {
+        sessionStates.register(role, login, isLoggedIn, sessionCookies);
+    }
+
+    /**
+     * Opens the url logged in as the role in the driver of the current test. The role logs in through the UI once
+     * per suite, other drivers get its cookies and local/session storage injected instead.
+     */
+    public WebDriver openAs(final String role, final String url) {
+        WebDriver driver = getDriver();
+        sessionStates.open(driver, role, url);
+        ExtentTestManager.logInfo("Opened {} as {}", url, role);
+        return driver;
     }
 
-    @Parameters({"isWebAutomation", "browser", "isHeadless", "imageAsBase64", "downloadDir"})
+    @Parameters({"isWebAutomation", "browser", "isHeadless", "imageAsBase64", "downloadDir", "driverPoolSize", "driverMaxUses",
+            "reportMode", "reportFlushPolicy", "reportFlushEveryTests", "reportFlushIntervalSeconds", "reportLevel",
+            "settleIdleMillis", "settleTimeoutMillis", "pageLoadStrategy",
+            "waitTimeoutSeconds", "screenshotMaxWidth", "screenshotQuality", "screenshotQueueSize", "driverCacheDir", "prewarmDrivers",
+            "sessionMaxAgeMinutes", "contextsPerBrowser", "networkBlockedUrls", "networkStubs", "networkCacheDisabled"})
     @BeforeSuite
     public void initSuite(ITestContext testContext,
                           @Optional("true") String isWebAutomation,
                           @Optional("Chrome") final String browser,
                           @Optional("true") final String headlessOption,
-                          @Optional("true") final String imageAsBase64,
-                          @Optional("./src/test/resources/ToDownload") final String downloadDir) {
-        this.isWebTesting = Boolean.valueOf(isWebAutomation);
+                          @Optional("false") final String imageAsBase64,
+                          @Optional("./src/test/resources/ToDownload") final String downloadDir,
+                          @Optional("0") final String driverPoolSize,
+                          @Optional("50") final String driverMaxUses,
+                          @Optional("HTML") final String reportMode,
+                          @Optional("INTERVAL") final String reportFlushPolicy,
+                          @Optional("25") final String reportFlushEveryTests,
+                          @Optional("30") final String reportFlushIntervalSeconds,
+                          @Optional("INFO") final String reportLevel,
+                          @Optional("300") final String settleIdleMillis,
+                          @Optional("10000") final String settleTimeoutMillis,
+                          @Optional("eager") final String pageLoadStrategy,
+                          @Optional("20") final String waitTimeoutSeconds,
+                          @Optional("1280") final String screenshotMaxWidth,
+                          @Optional("0.75") final String screenshotQuality,
+                          @Optional("32") final String screenshotQueueSize,
+                          @Optional("") final String driverCacheDir,
+                          @Optional("true") final String prewarmDrivers,
+                          @Optional("30") final String sessionMaxAgeMinutes,
+                          @Optional("1") final String contextsPerBrowser,
+                          @Optional("") final String networkBlockedUrls,
+                          @Optional("") final String networkStubs,
+                          @Optional("false") final String networkCacheDisabled) {
+        isWebTesting = Boolean.valueOf(isWebAutomation);
         this.headlessOption = Boolean.valueOf(headlessOption);
         this.imagesAsBase64Option = Boolean.valueOf(imageAsBase64);
         this.browserType = browser;
+        this.pageLoadStrategy = PageLoadStrategy.fromString(pageLoadStrategy);
         final String otherHeader = isWebTesting ? "-" + browserType : "";
 
         this.downloadDir = downloadDir;
         if (isWebTesting) {
-            try {
-                setDriver(this.browserType, this.headlessOption, downloadDir);
-                testContext.setAttribute("driver", this.driver);
-                testContext.setAttribute("imageAsBase64", imagesAsBase64Option);
-            } catch (Exception e) {
-                log.error("Error: {}", e.getMessage(), e);
+            PageSettleEngine.configure(Duration.ofMillis(Long.parseLong(settleIdleMillis)),
+                    Duration.ofMillis(Long.parseLong(settleTimeoutMillis)), Duration.ofMillis(50));
+            WaitEngine.configure(Duration.ofSeconds(Long.parseLong(waitTimeoutSeconds)), Duration.ofMillis(25), Duration.ofMillis(500));
+            final long binaryStart = System.nanoTime();
+            new DriverBinaryCache(StringUtils.isBlank(driverCacheDir) ? DriverBinaryCache.defaultDirectory() : Paths.get(driverCacheDir))
+                    .resolve(browserType);
+            startupPhases.put("driver binary", Duration.ofNanos(System.nanoTime() - binaryStart));
+
+            final int poolSize = resolvePoolSize(testContext, Integer.parseInt(driverPoolSize));
+            log.info("Initializing WebDriver pool of size {} for {}", poolSize, browserType);
+            NetworkFilter.configure(NetworkFilter.parse(networkBlockedUrls, networkStubs, Boolean.parseBoolean(networkCacheDisabled)));
+            final int contexts = Integer.parseInt(contextsPerBrowser);
+            if (contexts > 1 && ("Chrome".equals(browserType) || "Edge".equals(browserType))) {
+                log.info("Sharing each {} process between {} browser contexts", browserType, contexts);
+                browserContexts = new BrowserContexts(() -> timedDriverStart(this.browserType, this.headlessOption, downloadDir), contexts);
+                driverPool = new DriverPool(() -> PageSettleEngine.instrumentNewDocuments(NetworkSession.install(browserContexts.newContext())),
+                        poolSize, Integer.parseInt(driverMaxUses));
+            } else {
+                driverPool = new DriverPool(() -> PageSettleEngine.instrumentNewDocuments(NetworkSession.install(
+                        timedDriverStart(this.browserType, this.headlessOption, downloadDir))),
+                        poolSize, Integer.parseInt(driverMaxUses));
+            }
+            if (Boolean.parseBoolean(prewarmDrivers)) {
+                driverPool.prewarm(poolSize);
             }
+            testContext.setAttribute("driverPool", driverPool);
+            sessionStates.setMaxAge(Duration.ofMinutes(Long.parseLong(sessionMaxAgeMinutes)));
+            screenshotPipeline = ScreenshotPipeline.forReport(Integer.parseInt(screenshotMaxWidth),
+                    Float.parseFloat(screenshotQuality), Integer.parseInt(screenshotQueueSize), imagesAsBase64Option);
+            testContext.setAttribute("screenshotPipeline", screenshotPipeline);
         }
 
-        ExtentTestManager.startReport(testContext.getSuite().getName() + otherHeader);
+        final long reportStart = System.nanoTime();
+        ExtentTestManager.setReportLevel(Status.valueOf(reportLevel));
+        ExtentTestManager.startReport(testContext.getSuite().getName() + otherHeader, ReportMode.valueOf(reportMode),
+                FlushPolicy.valueOf(reportFlushPolicy), Integer.parseInt(reportFlushEveryTests),
+                Duration.ofSeconds(Long.parseLong(reportFlushIntervalSeconds)));
+        startupPhases.put("report", Duration.ofNanos(System.nanoTime() - reportStart));
     }
 
     @BeforeClass
@@ -81,22 +197,97 @@ public class TestBase {
     }
 
     @AfterMethod
-    public void stopReport() {
-        log.info("Extent Reporter getting flushed..");
+    public void stopReport(ITestResult result) {
+        logNetworkStats(result);
+        log.info("Extent test getting closed..");
         ExtentTestManager.endTest();
     }
 
-    @AfterSuite
+    /**
+     * Logs the network filter counters of the driver the test used. The driver is taken from the result, TestNG runs
+     * {@link #releaseDriver()} first so the pool no longer knows it.
+     */
+    protected void logNetworkStats(ITestResult result) {
+        final Object driver = result.getAttribute("driver");
+        NetworkSession networkSession = driver instanceof WebDriver ? NetworkSession.of((WebDriver) driver) : null;
+        if (networkSession != null) {
+            ExtentTestManager.logInfo("Network filter: {}", networkSession.takeStats());
+        }
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void releaseDriver() {
+        if (driverPool != null) {
+            driverPool.release();
+        }
+    }
+
+    @AfterSuite(alwaysRun = true)
     public void tearDown() {
+        LatencyStats.logAll();
+        if (screenshotPipeline != null) {
+            screenshotPipeline.close();
+        }
+        final LatencyStats driverStarts = LatencyStats.of(DRIVER_START);
+        if (driverStarts.getCount() > 0) {
+            startupPhases.put("browser (mean of " + driverStarts.getCount() + ")", driverStarts.getMean());
+        }
+        startupPhases.forEach((phase, took) -> {
+            log.info("Startup {} took {} ms", phase, took.toMillis());
+            ExtentTestManager.setSystemInfo("Startup " + phase, took.toMillis() + " ms");
+        });
+        if (ExcelSheets.getParses() > 0) {
+            log.info("Excel data {}", ExcelSheets.statistics());
+            ExtentTestManager.setSystemInfo("Excel data", ExcelSheets.statistics());
+        }
         if (isWebTesting) {
-            log.info("Web Driver getting cleaned up..");
-            this.driver.quit();
-            log.info("Web Driver cleaned up successfully.");
+            log.info("Element cache {}", CachingElementLocatorFactory.statistics());
+            ExtentTestManager.setSystemInfo("Element cache", CachingElementLocatorFactory.statistics());
+            if (!NetworkFilter.getSuiteFilter().isEmpty()) {
+                log.info("Network filter {}", NetworkSession.suiteStatistics());
+                ExtentTestManager.setSystemInfo("Network filter", NetworkSession.suiteStatistics());
+            }
+        }
+        log.info("Extent Reporter getting flushed..");
+        ExtentTestManager.endReport();
+        if (isWebTesting && driverPool != null) {
+            log.info("Web Driver pool getting cleaned up..");
+            driverPool.shutdown();
+            if (browserContexts != null) {
+                browserContexts.shutdown();
+            }
+            log.info("Web Driver pool cleaned up successfully.");
         }
     }
 
+    /**
+     * Pool size defaults to the suite thread-count when the suite runs in parallel, otherwise a single driver.
+     */
+    private int resolvePoolSize(ITestContext testContext, final int configuredSize) {
+        if (configuredSize > 0) {
+            return configuredSize;
+        }
+        XmlSuite xmlSuite = testContext.getSuite().getXmlSuite();
+        if (xmlSuite.getParallel() == null || XmlSuite.ParallelMode.NONE.equals(xmlSuite.getParallel())) {
+            return 1;
+        }
+        return Math.max(1, xmlSuite.getThreadCount());
+    }
+
+    private WebDriver timedDriverStart(String browserType, final boolean headlessOption, String downloadDir) {
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            WebDriver driver = createDriver(browserType, headlessOption, downloadDir);
+            failed = false;
+            return driver;
+        } finally {
+            LatencyStats.of(DRIVER_START).record(Duration.ofNanos(System.nanoTime() - start), failed);
+        }
+    }
 
-    private void setDriver(String browserType, final boolean headlessOption, String downloadDir) {
+    private WebDriver createDriver(String browserType, final boolean headlessOption, String downloadDir) {
+        WebDriver driver;
         switch (browserType) {
             case "Chrome":
                 driver = initChromeDriver(headlessOption, downloadDir);
@@ -108,28 +299,29 @@ public class TestBase {
                 driver = initSafariDriver();
                 break;
             case "InternetExplorer":
-                WebDriverManager.iedriver().setup();
                 driver = new InternetExplorerDriver();
                 break;
             case "Opera":
-                WebDriverManager.operadriver().setup();
                 driver = new OperaDriver();
                 //TO-DO
                 break;
             case "Edge":
-                WebDriverManager.edgedriver().setup();
-                driver = new EdgeDriver();
+                EdgeOptions edgeOptions = new EdgeOptions();
+                edgeOptions.setPageLoadStrategy(pageLoadStrategy);
+                driver = new EdgeDriver(edgeOptions);
                 //TO-DO
                 break;
             default:
                 log.info("given browser:{} is invalid, Launching Chrome as browser of choice..", browserType);
                 driver = initChromeDriver(headlessOption, downloadDir);
         }
+        return driver;
     }
 
     private WebDriver initChromeDriver(final boolean headlessOption, final String downloadDir) {
         ChromeOptions options =  new ChromeOptions();
         options.setHeadless(headlessOption);
+        options.setPageLoadStrategy(pageLoadStrategy);
         if (StringUtils.isNotBlank(downloadDir)) {
             log.info("Launching google chrome with download Dir: {}", downloadDir);
             File folder = new File(downloadDir);
@@ -140,13 +332,11 @@ public class TestBase {
         }
 
         log.info("Launching google chrome with new profile..");
-        WebDriverManager.chromedriver().setup();
 
         WebDriver driver = new ChromeDriver(options);
         driver.manage().window().maximize();
         driver.manage().deleteAllCookies();
         driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(10));
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
 
         return driver;
     }
@@ -155,14 +345,13 @@ public class TestBase {
         log.info("Launching Firefox browser..");
         FirefoxOptions options = new FirefoxOptions();
         options.setHeadless(headlessOption);
+        options.setPageLoadStrategy(pageLoadStrategy);
         options.setAcceptInsecureCerts(true);
         options.setCapability("marionette", true);
-        WebDriverManager.firefoxdriver().setup();
         WebDriver driver = new FirefoxDriver(options);
         driver.manage().window().maximize();
         driver.manage().deleteAllCookies();
         driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(10));
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
 
         return driver;
     }
@@ -174,18 +363,17 @@ public class TestBase {
         driver.manage().window().maximize();
         driver.manage().deleteAllCookies();
         driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(10));
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
 
         return driver;
     }
 
     protected void assertContains(final String actualObj, final String expectedObj) {
-        ExtentTestManager.logInfo("Validating the Actual: " + actualObj + " contains Expected: " + expectedObj);
+        ExtentTestManager.logInfo("Validating the Actual: {} contains Expected: {}", actualObj, expectedObj);
         Assert.assertTrue(actualObj.contains(expectedObj));
     }
 
     protected void assertContainsAll(final String actualObj, final String... expectedObj) {
-        ExtentTestManager.logInfo("Validating the Actual: " + actualObj + " contains Expected: " + expectedObj);
+        ExtentTestManager.logInfo("Validating the Actual: {} contains Expected: {}", actualObj, expectedObj);
         for(int i=0; i< expectedObj.length; i++) {
             Assert.assertTrue(actualObj.contains(expectedObj[i]), expectedObj[i]);
         }
@@ -194,7 +382,7 @@ public class TestBase {
     protected void assertEquals(final Object actualObj, final Object expectedObj) {
         try {
             Assert.assertEquals(actualObj, expectedObj);
-            ExtentTestManager.logInfo("Validated the Actual: " + actualObj + " equals Expected: " + expectedObj);
+            ExtentTestManager.logInfo("Validated the Actual: {} equals Expected: {}", actualObj, expectedObj);
         }
         catch(AssertionError ae) {
             ExtentTestManager.logFail("Failed on Validating [Actual: " + actualObj + " equals Expected: " + expectedObj + "], Failure: " + ae.getMessage());
@@ -203,7 +391,7 @@ public class TestBase {
     }
 
     protected void assertNotNull(Object actualValue) {
-        ExtentTestManager.logInfo("Validating the " + actualValue + "is NOT NULL");
+        ExtentTestManager.logInfo("Validating the {}is NOT NULL", actualValue);
         Assert.assertNotNull(actualValue);
     }
 }
@@ -0,0 +1,62 @@
+package com.arthina.automation.api;
+
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.CoreConnectionPNames;
+import org.apache.http.pool.PoolStats;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keep-alive connection pool shared by all REST Assured requests of the suite.
+ * REST Assured builds on the (deprecated) {@code AbstractHttpClient} and configures the client per request, so each
+ * request gets its own light client object while the connections come from, and go back to, this pool.
+ */
+@Slf4j
+@SuppressWarnings("deprecation")
+public class ApiConnections {
+    private final PoolingClientConnectionManager connectionManager;
+    private final RestAssuredConfig config;
+
+    public ApiConnections(final int maxConnections, Duration connectTimeout, Duration readTimeout) {
+        connectionManager = new PoolingClientConnectionManager(SchemeRegistryFactory.createSystemDefault());
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        config = RestAssuredConfig.config().httpClient(HttpClientConfig.httpClientConfig()
+                .httpClientFactory(() -> new DefaultHttpClient(connectionManager))
+                .setParam(CoreConnectionPNames.CONNECTION_TIMEOUT, (int) connectTimeout.toMillis())
+                .setParam(CoreConnectionPNames.SO_TIMEOUT, (int) readTimeout.toMillis()));
+    }
+
+    /** REST Assured config using the pool, for the base specs. */
+    public RestAssuredConfig config() {
+        return config;
+    }
+
+    public PoolStats getStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    public String statistics() {
+        PoolStats stats = getStats();
+        return String.format("%d connections open (%d idle), max %d", stats.getLeased() + stats.getAvailable(),
+                stats.getAvailable(), stats.getMax());
+    }
+
+    /**
+     * Closes the pooled connections idle for longer than the given time, e.g. before the server would drop them.
+     */
+    public void closeIdle(Duration idle) {
+        connectionManager.closeIdleConnections(idle.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        log.info("API connection pool: {}", statistics());
+        connectionManager.shutdown();
+    }
+}
@@ -0,0 +1,136 @@
+package com.arthina.automation.api;
+
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.HttpClient;
+import org.apache.http.entity.BufferedHttpEntity;
+import org.apache.http.impl.client.AbstractHttpClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Records every request and its response into {@link ApiRecordings}, for {@link ApiStubServer} to replay them.
+ * The request body is matched by the bytes the client sends, which only the HTTP client sees (the filters run before
+ * REST Assured encodes form and multipart parameters), so the requests have to use {@link #config(RestAssuredConfig)}.
+ */
+public class ApiRecorder implements Filter {
+    /**
+     * Connection level headers, the stub server sets its own. The body is stored decoded, so a recorded
+     * Content-Encoding would make clients decompress plain bytes.
+     */
+    static final Set<String> SKIPPED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        SKIPPED_HEADERS.addAll(Arrays.asList("Connection", "Content-Encoding", "Content-Length", "Date", "Keep-Alive", "Transfer-Encoding"));
+    }
+
+    private final ApiRecordings recordings;
+    /** The request of the filter running on this thread, REST Assured sends it on the same thread. */
+    private final ThreadLocal<SentBody> sending = new ThreadLocal<>();
+
+    public ApiRecorder(ApiRecordings recordings) {
+        this.recordings = recordings;
+    }
+
+    /**
+     * @return the config with clients that hand the request body they send to this recorder
+     */
+    public RestAssuredConfig config(RestAssuredConfig config) {
+        final HttpClientConfig httpClientConfig = config.getHttpClientConfig();
+        final HttpRequestInterceptor interceptor = (request, context) -> {
+            SentBody sent = sending.get();
+            if (sent != null) {
+                sent.capture(request);
+            }
+        };
+        return config.httpClient(httpClientConfig.httpClientFactory(() -> {
+            HttpClient client = httpClientConfig.httpClientInstance();
+            if (client instanceof AbstractHttpClient) {
+                ((AbstractHttpClient) client).addRequestInterceptor(interceptor);
+            }
+            return client;
+        }));
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext context) {
+        final SentBody sent = new SentBody();
+        final Response response;
+        sending.set(sent);
+        try {
+            response = context.next(requestSpec, responseSpec);
+        } finally {
+            sending.remove();
+        }
+        final URI uri = URI.create(requestSpec.getURI());
+        final byte[] body = response.asByteArray();
+        List<String[]> headers = new ArrayList<>();
+        for (Header header : response.getHeaders()) {
+            if (!SKIPPED_HEADERS.contains(header.getName())) {
+                headers.add(new String[]{header.getName(), header.getValue()});
+            }
+        }
+        recordings.add(new ApiRecording(requestSpec.getMethod(), uri.getRawPath(), ApiRecordings.normalizeQuery(uri.getRawQuery()),
+                sent.captured ? ApiRecordings.bodyHash(sent.contentType, sent.body) : ApiRecordings.bodyHash(requestBody(requestSpec)),
+                response.getStatusCode(), headers, ApiRecordings.sha256(body), body));
+        return response;
+    }
+
+    /**
+     * The body of the specification, for requests sent without {@link #config(RestAssuredConfig)}: misses form and
+     * multipart parameters and assumes UTF-8.
+     */
+    private static byte[] requestBody(FilterableRequestSpecification requestSpec) {
+        final Object body = requestSpec.getBody();
+        if (body == null) {
+            return null;
+        }
+        return body instanceof byte[] ? (byte[]) body : body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copy of the entity the client sends, encoded in the charset of its content type; the stub server hashes the
+     * same bytes when they arrive.
+     */
+    private static final class SentBody {
+        private boolean captured;
+        private String contentType;
+        private byte[] body;
+
+        private void capture(HttpRequest request) throws IOException {
+            captured = true;
+            if (!(request instanceof HttpEntityEnclosingRequest) || ((HttpEntityEnclosingRequest) request).getEntity() == null) {
+                return;
+            }
+            final HttpEntityEnclosingRequest enclosing = (HttpEntityEnclosingRequest) request;
+            HttpEntity entity = enclosing.getEntity();
+            if (!entity.isRepeatable()) {
+                entity = new BufferedHttpEntity(entity);
+                enclosing.setEntity(entity);
+            }
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            entity.writeTo(bytes);
+            final org.apache.http.Header type = entity.getContentType() != null ? entity.getContentType() : request.getFirstHeader("Content-Type");
+            contentType = type == null ? null : type.getValue();
+            body = bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.arthina.automation.api;
+
+import java.util.List;
+
+/**
+ * One recorded request/response pair, a line of the index of {@link ApiRecordings}. The request is kept as its match
+ * key parts, the response body as the hash of its file in the store.
+ */
+public final class ApiRecording {
+    private final String method;
+    private final String path;
+    private final String query;
+    private final String bodyHash;
+    private final int status;
+    private final List<String[]> headers;
+    private final String responseHash;
+    private transient byte[] responseBody;
+
+    public ApiRecording(String method, String path, String query, String bodyHash, final int status,
+                        List<String[]> headers, String responseHash, byte[] responseBody) {
+        this.method = method;
+        this.path = path;
+        this.query = query;
+        this.bodyHash = bodyHash;
+        this.status = status;
+        this.headers = headers;
+        this.responseHash = responseHash;
+        this.responseBody = responseBody;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /** Sorted parameters, empty without query. */
+    public String getQuery() {
+        return query;
+    }
+
+    /** SHA-256 of the request body, empty without body. */
+    public String getBodyHash() {
+        return bodyHash;
+    }
+
+    public String getKey() {
+        return ApiRecordings.key(method, path, query, bodyHash);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /** Response headers as name/value pairs, without the connection level ones. */
+    public List<String[]> getHeaders() {
+        return headers;
+    }
+
+    public String getResponseHash() {
+        return responseHash;
+    }
+
+    public byte[] getResponseBody() {
+        return responseBody;
+    }
+
+    void setResponseBody(byte[] responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + path + (query.isEmpty() ? "" : "?" + query) + " -> " + status;
+    }
+}
@@ -0,0 +1,185 @@
+package com.arthina.automation.api;
+
+import com.google.gson.Gson;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * On-disk store of recorded API exchanges: {@code index.jsonl} holds one {@link ApiRecording} per line, the response
+ * bodies are stored once per content as {@code bodies/<sha256>}. Loaded, the index is a hash map from the match key
+ * (method, path, sorted query, request body hash) to the responses in recording order, so a lookup costs one hash of
+ * the request body. A key recorded several times, e.g. a GET before and after a POST, replays its responses in that
+ * order and then keeps answering with the last one.
+ */
+@Slf4j
+public final class ApiRecordings {
+    private static final Gson GSON = new Gson();
+    private static final String INDEX = "index.jsonl";
+    private static final String BODIES = "bodies";
+    private static final Pattern BOUNDARY = Pattern.compile("boundary=\"?([^\";]+)", Pattern.CASE_INSENSITIVE);
+
+    private final Path directory;
+    private final Map<String, List<ApiRecording>> recordings = new LinkedHashMap<>();
+    private final Map<String, List<ApiRecording>> recorded = new LinkedHashMap<>();
+    private final Map<String, AtomicInteger> cursors = new ConcurrentHashMap<>();
+
+    private ApiRecordings(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Loads the store in the directory, empty when there is none yet.
+     */
+    public static ApiRecordings open(Path directory) {
+        ApiRecordings store = new ApiRecordings(directory);
+        final Path index = directory.resolve(INDEX);
+        if (!Files.exists(index)) {
+            return store;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                ApiRecording recording = GSON.fromJson(line, ApiRecording.class);
+                recording.setResponseBody(Files.readAllBytes(directory.resolve(BODIES).resolve(recording.getResponseHash())));
+                store.recordings.computeIfAbsent(recording.getKey(), key -> new ArrayList<>()).add(recording);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the API recordings in " + directory, e);
+        }
+        log.info("Loaded {} API recordings from {}", store.size(), directory);
+        return store;
+    }
+
+    public static String key(String method, String path, String query, String bodyHash) {
+        return method + " " + path + "?" + query + "#" + bodyHash;
+    }
+
+    /**
+     * @param rawQuery query string as sent, null without query
+     * @return the parameters sorted, so their order does not matter for matching
+     */
+    public static String normalizeQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return "";
+        }
+        return Arrays.stream(rawQuery.split("&")).sorted().collect(Collectors.joining("&"));
+    }
+
+    /** SHA-256 of a request body, empty for none. */
+    public static String bodyHash(byte[] body) {
+        return body == null || body.length == 0 ? "" : sha256(body);
+    }
+
+    /**
+     * Hash of the body as sent with the content type; the boundary of a multipart body is random per request,
+     * so it is left out and a replayed upload matches its recording.
+     */
+    public static String bodyHash(String contentType, byte[] body) {
+        final Matcher boundary = contentType == null || body == null ? null : BOUNDARY.matcher(contentType);
+        if (boundary == null || !boundary.find()) {
+            return bodyHash(body);
+        }
+        // ISO-8859-1 maps every byte to one char and back
+        return bodyHash(new String(body, StandardCharsets.ISO_8859_1).replace(boundary.group(1), "").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Adds an exchange of this recording run; the keys recorded in this run replace their older recordings on save.
+     */
+    public synchronized void add(ApiRecording recording) {
+        recorded.computeIfAbsent(recording.getKey(), key -> new ArrayList<>()).add(recording);
+    }
+
+    /**
+     * @return the next response recorded for the key, null when it was never recorded
+     */
+    public ApiRecording next(String key) {
+        final List<ApiRecording> responses = recordings.get(key);
+        if (responses == null) {
+            return null;
+        }
+        final int position = cursors.computeIfAbsent(key, ignored -> new AtomicInteger()).getAndIncrement();
+        return responses.get(Math.min(position, responses.size() - 1));
+    }
+
+    public synchronized int size() {
+        return recordings.values().stream().mapToInt(List::size).sum();
+    }
+
+    public synchronized int getRecordedCount() {
+        return recorded.values().stream().mapToInt(List::size).sum();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Writes the exchanges recorded in this run into the store, the index is replaced atomically.
+     */
+    public synchronized void save() {
+        if (recorded.isEmpty()) {
+            return;
+        }
+        recordings.putAll(recorded);
+        recorded.clear();
+        cursors.clear();
+        try {
+            final Path bodies = Files.createDirectories(directory.resolve(BODIES));
+            final Path index = directory.resolve(INDEX);
+            final Path partial = Files.createTempFile(directory, INDEX, ".part");
+            try (BufferedWriter writer = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+                for (List<ApiRecording> responses : recordings.values()) {
+                    for (ApiRecording recording : responses) {
+                        final Path body = bodies.resolve(recording.getResponseHash());
+                        if (!Files.exists(body)) {
+                            Files.write(body, recording.getResponseBody());
+                        }
+                        writer.write(GSON.toJson(recording));
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(partial, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to save the API recordings in " + directory, e);
+        }
+        log.info("Saved {} API recordings to {}", size(), directory);
+    }
+
+    static String sha256(final byte[] content) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            final StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
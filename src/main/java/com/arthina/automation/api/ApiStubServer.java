@@ -0,0 +1,127 @@
+package com.arthina.automation.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded loopback HTTP server answering with the responses of {@link ApiRecordings}, so API suites run without the
+ * real service. A request without recording gets a 501 naming its key and is logged.
+ */
+@Slf4j
+public class ApiStubServer {
+    private static final int NOT_RECORDED = 501;
+
+    public enum Mode {
+        /** Requests go to the base URI. */
+        OFF,
+        /** Requests go to the base URI, the exchanges are stored in the recordings. */
+        RECORD,
+        /** Requests go to a stub server replaying the recordings. */
+        REPLAY
+    }
+
+    private final ApiRecordings recordings;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private ApiStubServer(ApiRecordings recordings) throws IOException {
+        this.recordings = recordings;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        final AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "api-stub-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+    }
+
+    public static ApiStubServer start(ApiRecordings recordings) {
+        try {
+            ApiStubServer stubServer = new ApiStubServer(recordings);
+            stubServer.server.start();
+            log.info("Replaying {} API recordings of {} on {}", recordings.size(), recordings.getDirectory(), stubServer.getBaseUri());
+            return stubServer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to start the API stub server", e);
+        }
+    }
+
+    /**
+     * @return http://127.0.0.1:port, to be used as base URI instead of the recorded service
+     */
+    public String getBaseUri() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public String statistics() {
+        return String.format("%d recordings, %d requests answered, %d not recorded", recordings.size(), hits.get(), misses.get());
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        log.info("API stub server: {}", statistics());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            final byte[] requestBody;
+            try (InputStream in = exchange.getRequestBody()) {
+                requestBody = in.readAllBytes();
+            }
+            final URI uri = exchange.getRequestURI();
+            final String key = ApiRecordings.key(exchange.getRequestMethod(), uri.getRawPath(),
+                    ApiRecordings.normalizeQuery(uri.getRawQuery()), ApiRecordings.bodyHash(exchange.getRequestHeaders().getFirst("Content-Type"), requestBody));
+            final ApiRecording recording = recordings.next(key);
+            if (recording == null) {
+                misses.incrementAndGet();
+                log.warn("No API recording for {}", key);
+                respond(exchange, NOT_RECORDED, ("No recording for " + key).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            hits.incrementAndGet();
+            for (String[] header : recording.getHeaders()) {
+                exchange.getResponseHeaders().add(header[0], header[1]);
+            }
+            respond(exchange, recording.getStatus(), recording.getResponseBody());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, final int status, byte[] body) throws IOException {
+        // a length of -1 tells the server there is no body, 0 would mean chunked
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
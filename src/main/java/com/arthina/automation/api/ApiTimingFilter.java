@@ -0,0 +1,54 @@
+package com.arthina.automation.api;
+
+import com.arthina.automation.load.LoadRun;
+import com.arthina.automation.page.LatencyStats;
+import com.arthina.automation.reporter.ExtentTestManager;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.apache.commons.lang3.StringUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Logs method, path, status, time and response size of every request to the report of the running test and
+ * records the time in {@link LatencyStats} ("api GET", ...). Bodies, headers and query strings are not logged,
+ * they tend to be large or to hold credentials. The time includes reading the body: the filter reads it so the
+ * connection goes back to the pool, REST Assured would otherwise keep it until the body is accessed.
+ * Requests of load runs go into the histograms of the {@link LoadRun} instead of the report.
+ */
+public class ApiTimingFilter implements Filter {
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext context) {
+        final long start = System.nanoTime();
+        Response response;
+        try {
+            response = context.next(requestSpec, responseSpec);
+        } catch (RuntimeException e) {
+            final Duration took = Duration.ofNanos(System.nanoTime() - start);
+            LatencyStats.of("api " + requestSpec.getMethod()).record(took, true);
+            ExtentTestManager.logInfo("{} {} failed after {} ms: {}", requestSpec.getMethod(), path(requestSpec), took.toMillis(), e.toString());
+            throw e;
+        }
+        // reading the body hands the connection back to the pool, also when the test only checks the status
+        final int size = response.asByteArray().length;
+        final Duration took = Duration.ofNanos(System.nanoTime() - start);
+        LatencyStats.of("api " + requestSpec.getMethod()).record(took, false);
+        Optional<LoadRun> loadRun = LoadRun.current();
+        if (loadRun.isPresent()) {
+            loadRun.get().recordRequest(requestSpec.getMethod() + " " + requestSpec.getUserDefinedPath(), took);
+            return response;
+        }
+        ExtentTestManager.logInfo("{} {} -> {} in {} ms ({} bytes)", requestSpec.getMethod(), path(requestSpec), response.getStatusCode(),
+                took.toMillis(), size);
+        return response;
+    }
+
+    private static String path(FilterableRequestSpecification requestSpec) {
+        return StringUtils.substringBefore(requestSpec.getURI(), "?");
+    }
+}
@@ -0,0 +1,42 @@
+package com.arthina.automation.api;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * An auth token and the time it stops being valid.
+ */
+public final class ApiToken {
+    private final String value;
+    private final Instant expiresAt;
+
+    public ApiToken(String value, Instant expiresAt) {
+        this.value = value;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @param timeToLive lifetime as announced by the server, e.g. the expires_in of an OAuth response
+     */
+    public static ApiToken of(String value, Duration timeToLive) {
+        return new ApiToken(value, Instant.now().plus(timeToLive));
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    /** Expired, or expiring within the margin. */
+    public boolean expiresWithin(Duration margin) {
+        return Instant.now().plus(margin).isAfter(expiresAt);
+    }
+
+    @Override
+    public String toString() {
+        return "token expiring at " + expiresAt;
+    }
+}
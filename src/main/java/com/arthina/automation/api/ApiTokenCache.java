@@ -0,0 +1,66 @@
+package com.arthina.automation.api;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fetches an auth token once per name and shares it between all tests and threads until shortly before it expires.
+ * Threads asking for a token that is being fetched wait for that fetch instead of starting their own.
+ */
+@Slf4j
+public class ApiTokenCache {
+    private final Map<String, Supplier<ApiToken>> fetchers = new ConcurrentHashMap<>();
+    private final Map<String, ApiToken> tokens = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+    private volatile Duration refreshMargin = Duration.ofSeconds(30);
+
+    /**
+     * @param fetch obtains a new token, e.g. with a login request
+     */
+    public void register(final String name, Supplier<ApiToken> fetch) {
+        fetchers.put(name, fetch);
+        tokens.remove(name);
+    }
+
+    /** Tokens are fetched again this long before they expire. */
+    public void setRefreshMargin(Duration refreshMargin) {
+        this.refreshMargin = refreshMargin;
+    }
+
+    public String get(final String name) {
+        ApiToken token = tokens.get(name);
+        if (token != null && !token.expiresWithin(refreshMargin)) {
+            return token.getValue();
+        }
+        Supplier<ApiToken> fetch = fetchers.get(name);
+        if (fetch == null) {
+            throw new IllegalArgumentException("No token registered as " + name);
+        }
+        ReentrantLock lock = locks.computeIfAbsent(name, key -> new ReentrantLock());
+        lock.lock();
+        try {
+            token = tokens.get(name);
+            if (token == null || token.expiresWithin(refreshMargin)) {
+                final long start = System.nanoTime();
+                token = fetch.get();
+                tokens.put(name, token);
+                log.info("Fetched {} {} in {} ms", name, token, (System.nanoTime() - start) / 1_000_000);
+            }
+            return token.getValue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the token, e.g. after the server rejected it, the next request fetches a new one.
+     */
+    public void invalidate(final String name) {
+        tokens.remove(name);
+    }
+}
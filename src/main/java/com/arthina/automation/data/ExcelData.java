@@ -0,0 +1,24 @@
+package com.arthina.automation.data;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sheet feeding a test method through {@link ExcelDataProvider}: the first non empty row holds the column names,
+ * every further non empty row becomes one invocation with an {@link ExcelRow} and its name.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ExcelData {
+
+    /** Path of the .xlsx file, relative to the working directory. */
+    String file();
+
+    /** Name of the sheet, empty for the first sheet. */
+    String sheet() default "";
+
+    /** Column naming the invocation in the report, rows without it are named by their row number. */
+    String nameColumn() default "TestName";
+}
@@ -0,0 +1,59 @@
+package com.arthina.automation.data;
+
+import org.apache.commons.lang3.StringUtils;
+import org.testng.annotations.DataProvider;
+
+import java.lang.reflect.Method;
+import java.nio.file.Paths;
+import java.util.Iterator;
+
+/**
+ * Data providers for test methods annotated with {@link ExcelData}. Each invocation gets the {@link ExcelRow} and its
+ * name (TestBase names the report entry after it), rows are handed out while the sheet is still being parsed:
+ * <pre>
+ * &#64;Test(dataProvider = ExcelDataProvider.EXCEL, dataProviderClass = ExcelDataProvider.class)
+ * &#64;ExcelData(file = "src/test/resources/data/users.xlsx", sheet = "Users")
+ * public void createsUser(ExcelRow row, String name) { ... }
+ * </pre>
+ * {@link #EXCEL_PARALLEL} runs the rows on the data provider threads of the suite (data-provider-thread-count).
+ */
+public final class ExcelDataProvider {
+    public static final String EXCEL = "excel";
+    public static final String EXCEL_PARALLEL = "excelParallel";
+
+    private ExcelDataProvider() {
+    }
+
+    @DataProvider(name = EXCEL)
+    public static Iterator<Object[]> rows(Method method) {
+        return invocations(method);
+    }
+
+    @DataProvider(name = EXCEL_PARALLEL, parallel = true)
+    public static Iterator<Object[]> parallelRows(Method method) {
+        return invocations(method);
+    }
+
+    static Iterator<Object[]> invocations(Method method) {
+        ExcelData excelData = method.getAnnotation(ExcelData.class);
+        if (excelData == null) {
+            throw new IllegalStateException(method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                    + " uses the Excel data provider without @" + ExcelData.class.getSimpleName());
+        }
+        final Iterator<ExcelRow> rows = ExcelSheets.rows(Paths.get(excelData.file()), excelData.sheet());
+        final String nameColumn = excelData.nameColumn();
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                ExcelRow row = rows.next();
+                final String name = row.hasColumn(nameColumn) ? row.getString(nameColumn) : null;
+                return new Object[]{row, StringUtils.defaultIfBlank(name, "row" + row.getRowNumber())};
+            }
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package com.arthina.automation.data;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One data row of a sheet with typed access by column name. Numbers are kept as their plain value
+ * (not as displayed in Excel) and dates as ISO-8601, so the getters do not depend on cell formats or locale.
+ * Empty cells are null.
+ */
+public final class ExcelRow {
+    private final Map<String, Integer> columns;
+    private final int rowNumber;
+    private final String[] values;
+
+    ExcelRow(Map<String, Integer> columns, final int rowNumber, String[] values) {
+        this.columns = columns;
+        this.rowNumber = rowNumber;
+        this.values = values;
+    }
+
+    /** Row number as shown in Excel (1 based). */
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    public boolean hasColumn(final String column) {
+        return columns.containsKey(column);
+    }
+
+    /** The column exists and the cell is not empty. */
+    public boolean has(final String column) {
+        return columns.containsKey(column) && StringUtils.isNotEmpty(value(column));
+    }
+
+    public String getString(final String column) {
+        return value(column);
+    }
+
+    public Integer getInt(final String column) {
+        final BigDecimal value = getDecimal(column);
+        return value == null ? null : value.intValueExact();
+    }
+
+    public Long getLong(final String column) {
+        final BigDecimal value = getDecimal(column);
+        return value == null ? null : value.longValueExact();
+    }
+
+    public Double getDouble(final String column) {
+        final BigDecimal value = getDecimal(column);
+        return value == null ? null : value.doubleValue();
+    }
+
+    public BigDecimal getDecimal(final String column) {
+        final String value = value(column);
+        try {
+            return StringUtils.isBlank(value) ? null : new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(describe(column) + " is not a number: " + value, e);
+        }
+    }
+
+    /** TRUE/FALSE cells, or the text true/yes/y/1 (any case). */
+    public Boolean getBoolean(final String column) {
+        final String value = value(column);
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+        final String text = value.trim().toLowerCase();
+        return "true".equals(text) || "yes".equals(text) || "y".equals(text) || "1".equals(text);
+    }
+
+    public LocalDate getDate(final String column) {
+        final String value = value(column);
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+        return value.contains("T") ? getDateTime(column).toLocalDate() : LocalDate.parse(value.trim());
+    }
+
+    public LocalDateTime getDateTime(final String column) {
+        final String value = value(column);
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+        return value.contains("T") ? LocalDateTime.parse(value.trim()) : LocalDate.parse(value.trim()).atStartOfDay();
+    }
+
+    /** Column name to value, in column order. */
+    public Map<String, String> toMap() {
+        Map<String, String> map = new LinkedHashMap<>();
+        columns.forEach((column, index) -> map.put(column, index < values.length ? values[index] : null));
+        return Collections.unmodifiableMap(map);
+    }
+
+    private String value(final String column) {
+        final Integer index = columns.get(column);
+        if (index == null) {
+            throw new IllegalArgumentException("No column '" + column + "', the sheet has " + columns.keySet());
+        }
+        return index < values.length ? values[index] : null;
+    }
+
+    private String describe(final String column) {
+        return "Column '" + column + "' of row " + rowNumber;
+    }
+
+    @Override
+    public String toString() {
+        return "row " + rowNumber + " " + Arrays.toString(values);
+    }
+}
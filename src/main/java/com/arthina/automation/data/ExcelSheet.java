@@ -0,0 +1,180 @@
+package com.arthina.automation.data;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Rows of one sheet, parsed with the streaming SAX reader of POI (only the current row and the shared strings
+ * are held by the parser) and appended as they are read. Iterators hand out the rows already parsed and wait
+ * for the parser when they get ahead of it, so the first invocation does not wait for the whole file.
+ */
+final class ExcelSheet {
+    private final Path file;
+    private final String sheetName;
+    private final List<ExcelRow> rows = new ArrayList<>();
+    private boolean complete;
+    private RuntimeException failure;
+
+    ExcelSheet(Path file, String sheetName) {
+        this.file = file;
+        this.sheetName = sheetName;
+    }
+
+    /**
+     * Parses the sheet, the rows become visible to the iterators while parsing.
+     */
+    void parse() {
+        try (OPCPackage excelPackage = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(excelPackage);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    if (StringUtils.isEmpty(sheetName) || sheetName.equals(sheets.getSheetName())) {
+                        XMLReader parser = XMLHelper.newXMLReader();
+                        parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(),
+                                new ReadOnlySharedStringsTable(excelPackage), new RowCollector(), new PlainValueFormatter(), false));
+                        parser.parse(new InputSource(sheet));
+                        finish(null);
+                        return;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("No sheet '" + sheetName + "' in " + file);
+        } catch (RuntimeException e) {
+            finish(e);
+        } catch (Exception e) {
+            finish(new IllegalStateException("Unable to read " + describe(), e));
+        }
+    }
+
+    Iterator<ExcelRow> iterator() {
+        return new Iterator<ExcelRow>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return awaitRow(next);
+            }
+
+            @Override
+            public ExcelRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                synchronized (ExcelSheet.this) {
+                    return rows.get(next++);
+                }
+            }
+        };
+    }
+
+    synchronized int size() {
+        return rows.size();
+    }
+
+    String describe() {
+        return file + (StringUtils.isEmpty(sheetName) ? "" : " [" + sheetName + "]");
+    }
+
+    private synchronized boolean awaitRow(final int index) {
+        while (index >= rows.size() && !complete) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while reading " + describe(), e);
+            }
+        }
+        if (index < rows.size()) {
+            return true;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return false;
+    }
+
+    private synchronized void add(ExcelRow row) {
+        rows.add(row);
+        notifyAll();
+    }
+
+    private synchronized void finish(RuntimeException parseFailure) {
+        failure = parseFailure;
+        complete = true;
+        notifyAll();
+    }
+
+    /**
+     * Turns the cells of each row into an {@link ExcelRow}, the first non empty row into the column names.
+     */
+    private final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final List<String> cells = new ArrayList<>();
+        private Map<String, Integer> columns;
+
+        @Override
+        public void startRow(final int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            final int column = cellReference == null ? cells.size() : new CellReference(cellReference).getCol();
+            while (cells.size() <= column) {
+                cells.add(null);
+            }
+            cells.set(column, StringUtils.isEmpty(formattedValue) ? null : formattedValue);
+        }
+
+        @Override
+        public void endRow(final int rowNum) {
+            if (cells.stream().allMatch(StringUtils::isBlank)) {
+                return;
+            }
+            if (columns == null) {
+                Map<String, Integer> names = new LinkedHashMap<>();
+                for (int i = 0; i < cells.size(); i++) {
+                    names.put(StringUtils.defaultIfBlank(StringUtils.trim(cells.get(i)), "Column" + (i + 1)), i);
+                }
+                columns = Collections.unmodifiableMap(names);
+                return;
+            }
+            add(new ExcelRow(columns, rowNum + 1, cells.toArray(new String[0])));
+        }
+    }
+
+    /**
+     * Plain numbers and ISO-8601 dates instead of the display format of the cell.
+     */
+    private static final class PlainValueFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(final double value, final int formatIndex, String formatString, final boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value, use1904Windowing).toString();
+            }
+            return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.arthina.automation.data;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Run wide cache of parsed sheets keyed by the SHA-256 of the file content and the sheet name, so classes reading
+ * the same data (even through another path or copy) parse it once, and an edited file is read again.
+ * The first reader starts the parse on a background thread and iterates while it runs.
+ */
+@Slf4j
+public final class ExcelSheets {
+    private static final Map<String, ExcelSheet> SHEETS = new ConcurrentHashMap<>();
+    /** Content hash per path, size and modification time, so the file is hashed once per version. */
+    private static final Map<String, String> HASHES = new ConcurrentHashMap<>();
+    private static final ExecutorService PARSER = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "excel-parser");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final LongAdder PARSES = new LongAdder();
+    private static final LongAdder HITS = new LongAdder();
+
+    private ExcelSheets() {
+    }
+
+    /**
+     * Rows of the sheet (empty name = first sheet), parsed at most once per content.
+     */
+    public static Iterator<ExcelRow> rows(Path file, String sheetName) {
+        final String key = contentHash(file) + "/" + sheetName;
+        ExcelSheet cached = SHEETS.get(key);
+        if (cached != null) {
+            HITS.increment();
+            return cached.iterator();
+        }
+        ExcelSheet sheet = new ExcelSheet(file, sheetName);
+        cached = SHEETS.putIfAbsent(key, sheet);
+        if (cached != null) {
+            HITS.increment();
+            return cached.iterator();
+        }
+        PARSES.increment();
+        log.info("Reading {}", sheet.describe());
+        final long start = System.nanoTime();
+        PARSER.execute(() -> {
+            sheet.parse();
+            log.info("Read {} rows of {} in {} ms", sheet.size(), sheet.describe(), (System.nanoTime() - start) / 1_000_000);
+        });
+        return sheet.iterator();
+    }
+
+    public static void clear() {
+        SHEETS.clear();
+        HASHES.clear();
+    }
+
+    public static long getParses() {
+        return PARSES.sum();
+    }
+
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    public static String statistics() {
+        return String.format("%d sheets parsed, %d served from cache", getParses(), getHits());
+    }
+
+    private static String contentHash(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            final String version = file.toAbsolutePath().normalize() + "|" + attributes.size() + "|" + attributes.lastModifiedTime().toMillis();
+            return HASHES.computeIfAbsent(version, ignored -> sha256(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read data file " + file, e);
+        }
+    }
+
+    private static String sha256(Path file) {
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), MessageDigest.getInstance("SHA-256"))) {
+            final byte[] buffer = new byte[64 * 1024];
+            while (in.read(buffer) >= 0) {
+                // digest while reading
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : ((DigestInputStream) in).getMessageDigest().digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read data file " + file, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
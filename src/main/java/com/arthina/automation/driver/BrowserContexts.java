@@ -0,0 +1,368 @@
+package com.arthina.automation.driver;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ClassUtils;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs several isolated browser contexts (own cookies, storage and cache, like incognito windows) in one Chromium
+ * process, created through the DevTools Target domain. {@link #newContext()} returns a WebDriver bound to one
+ * context, so it can serve as the factory of the {@link DriverPool}: every test thread then leases a context
+ * instead of a whole browser.
+ *
+ * All contexts of a browser share its WebDriver session, so commands are serialized per browser and each one
+ * first switches to the window of its context when another context was used in between. A frame selected with
+ * switchTo() is therefore only kept as long as no other context uses the same browser.
+ *
+ * Page loads are the exception: get() and navigate().to() are sent over a DevTools session of the context's own
+ * target ({@link TargetSessions}) and wait for the page without holding the browser, so the other contexts keep
+ * running their commands meanwhile. Everything else, including script and implicit waits, runs one at a time:
+ * N contexts of one browser get about the command throughput of a single driver, but about the page load
+ * throughput of N drivers (measured in BrowserContextsTest, 4 contexts of one browser against 4 browsers:
+ * 1/4 of the commands per second, about the same page loads per second). Besides that it saves the startup time and
+ * memory of the browser processes. Drivers without a DevTools connection load pages in the shared session too.
+ */
+@Slf4j
+public class BrowserContexts {
+    private static final long LOAD_POLL_MILLIS = 50;
+    private static final String READY_STATE = "document.readyState";
+
+    private final Supplier<WebDriver> browserFactory;
+    private final int contextsPerBrowser;
+    private final Function<WebDriver, TargetSessions> sessionsFactory;
+    private final List<SharedBrowser> browsers = new ArrayList<>();
+
+    /**
+     * @param browserFactory starts a Chromium based browser (Chrome, Edge), i.e. a driver implementing {@link HasCdp}
+     */
+    public BrowserContexts(Supplier<WebDriver> browserFactory, final int contextsPerBrowser) {
+        this(browserFactory, contextsPerBrowser, TargetSessions::open);
+    }
+
+    BrowserContexts(Supplier<WebDriver> browserFactory, final int contextsPerBrowser, Function<WebDriver, TargetSessions> sessionsFactory) {
+        this.browserFactory = browserFactory;
+        this.contextsPerBrowser = contextsPerBrowser;
+        this.sessionsFactory = sessionsFactory;
+    }
+
+    /**
+     * Creates a new context in a browser with a free slot, starting another browser when all are full.
+     * Quitting the returned driver disposes the context only.
+     *
+     * A browser that fails to create a context gets no new ones; it is quit once its leased contexts are disposed.
+     */
+    public synchronized WebDriver newContext() {
+        SharedBrowser browser = browsers.stream().filter(candidate -> !candidate.retired && candidate.contexts.get() < contextsPerBrowser)
+                .findFirst().orElse(null);
+        if (browser != null) {
+            try {
+                return browser.newContext();
+            } catch (WebDriverException e) {
+                log.warn("Shared browser failed to create a context, no new contexts will use it: {}", e.getMessage());
+                browser.retired = true;
+                release(browser);
+            }
+        }
+        browser = new SharedBrowser(browserFactory.get());
+        browsers.add(browser);
+        log.info("Started shared browser {} for up to {} contexts, their commands except page loads run one at a time", browsers.size(), contextsPerBrowser);
+        return browser.newContext();
+    }
+
+    /**
+     * @return the running browsers, including those that get no new contexts but still have leased ones
+     */
+    public synchronized int browserCount() {
+        return browsers.size();
+    }
+
+    /**
+     * Quits all browsers, call after the driver pool was shut down.
+     */
+    public synchronized void shutdown() {
+        browsers.forEach(SharedBrowser::quit);
+        browsers.clear();
+    }
+
+    /**
+     * Quits a browser that gets no new contexts once its last leased context is disposed.
+     */
+    private synchronized void release(SharedBrowser browser) {
+        if (browser.retired && browser.contexts.get() == 0 && browsers.remove(browser)) {
+            log.info("Quitting shared browser after its last context was disposed");
+            browser.quit();
+        }
+    }
+
+    /**
+     * @return true for drivers returned by {@link #newContext()}
+     */
+    public static boolean isContext(Object driver) {
+        return driver != null && Proxy.isProxyClass(driver.getClass()) && Proxy.getInvocationHandler(driver) instanceof ContextDriverHandler;
+    }
+
+    private static Object proxy(Object target, InvocationHandler handler, Class<?>... extraInterfaces) {
+        List<Class<?>> interfaces = new ArrayList<>(ClassUtils.getAllInterfaces(target.getClass()));
+        for (Class<?> extra : extraInterfaces) {
+            if (!interfaces.contains(extra)) {
+                interfaces.add(extra);
+            }
+        }
+        return Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces.toArray(new Class<?>[0]), handler);
+    }
+
+    private final class SharedBrowser {
+        private final WebDriver driver;
+        private final TargetSessions sessions;
+        private final ReentrantLock lock = new ReentrantLock();
+        private String activeWindow;
+        private final AtomicInteger contexts = new AtomicInteger();
+        /** Set when the browser failed, guarded by the BrowserContexts monitor. */
+        private boolean retired;
+
+        private SharedBrowser(WebDriver driver) {
+            this.driver = driver;
+            this.sessions = openSessions(driver);
+        }
+
+        private TargetSessions openSessions(WebDriver driver) {
+            try {
+                return sessionsFactory.apply(driver);
+            } catch (WebDriverException e) {
+                log.warn("No DevTools connection to the shared browser, its contexts load pages one at a time: {}", e.getMessage());
+                return null;
+            }
+        }
+
+        private WebDriver newContext() {
+            lock.lock();
+            try {
+                HasCdp cdp = (HasCdp) driver;
+                Map<String, Object> context = cdp.executeCdpCommand("Target.createBrowserContext", new HashMap<>());
+                final String contextId = (String) context.get("browserContextId");
+                Map<String, Object> targetParameters = new HashMap<>();
+                targetParameters.put("url", "about:blank");
+                targetParameters.put("browserContextId", contextId);
+                final String targetId = (String) cdp.executeCdpCommand("Target.createTarget", targetParameters).get("targetId");
+                // the window handles of chromedriver are the DevTools target ids (older versions prefix them)
+                final String windowHandle = driver.getWindowHandles().stream().filter(handle -> handle.endsWith(targetId))
+                        .findFirst().orElseThrow(() -> new WebDriverException("No window for browser context target " + targetId));
+                contexts.incrementAndGet();
+                log.debug("Created browser context {} with window {}", contextId, windowHandle);
+                return (WebDriver) proxy(driver, new ContextDriverHandler(this, contextId, targetId, windowHandle));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void dispose(final String contextId, final String targetId, final String windowHandle) {
+            if (sessions != null) {
+                sessions.detach(targetId);
+            }
+            lock.lock();
+            try {
+                Map<String, Object> parameters = new HashMap<>();
+                parameters.put("browserContextId", contextId);
+                ((HasCdp) driver).executeCdpCommand("Target.disposeBrowserContext", parameters);
+            } catch (WebDriverException e) {
+                log.debug("Disposing browser context {} failed: {}", contextId, e.getMessage());
+            } finally {
+                if (windowHandle.equals(activeWindow)) {
+                    activeWindow = null;
+                }
+                contexts.decrementAndGet();
+                lock.unlock();
+            }
+            log.debug("Disposed browser context {}, {} left in its browser", contextId, contexts.get());
+            release(this);
+        }
+
+        /**
+         * Loads the page in the target over its own DevTools session and waits, like the default page load strategy,
+         * until the document is complete, without holding the browser.
+         */
+        private void navigate(final String targetId, final String url) {
+            final Duration timeout;
+            lock.lock();
+            try {
+                timeout = driver.manage().timeouts().getPageLoadTimeout();
+            } finally {
+                lock.unlock();
+            }
+            final Map<String, Object> navigation = sessions.send(targetId, "Page.navigate", parameters("url", url), timeout);
+            if (navigation.get("errorText") != null) {
+                throw new WebDriverException("Navigation to " + url + " failed: " + navigation.get("errorText"));
+            }
+            final long deadline = System.nanoTime() + timeout.toNanos();
+            while (!"complete".equals(readyState(targetId, timeout))) {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new TimeoutException("Page " + url + " did not load within " + timeout);
+                }
+                try {
+                    Thread.sleep(LOAD_POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new WebDriverException("Interrupted while loading " + url, e);
+                }
+            }
+        }
+
+        private Object readyState(final String targetId, Duration timeout) {
+            Map<String, Object> parameters = parameters("expression", READY_STATE);
+            parameters.put("returnByValue", true);
+            final Object result = sessions.send(targetId, "Runtime.evaluate", parameters, timeout).get("result");
+            return result instanceof Map ? ((Map<?, ?>) result).get("value") : null;
+        }
+
+        private void activate(final String windowHandle) {
+            if (!windowHandle.equals(activeWindow)) {
+                driver.switchTo().window(windowHandle);
+                activeWindow = windowHandle;
+            }
+        }
+
+        private void quit() {
+            if (sessions != null) {
+                sessions.close();
+            }
+            try {
+                driver.quit();
+            } catch (WebDriverException e) {
+                log.warn("Error while quitting shared browser: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static Map<String, Object> parameters(final String name, Object value) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(name, value);
+        return parameters;
+    }
+
+    /**
+     * Runs every call on the target (driver, element, navigation, options...) with the browser locked
+     * and the window of the context active, wrapping returned WebDriver objects the same way.
+     * Page loads go to the DevTools session of the context target instead when the browser has one.
+     */
+    private static class BoundHandler implements InvocationHandler {
+        protected final SharedBrowser browser;
+        protected final String targetId;
+        protected final String windowHandle;
+        private final Object target;
+
+        BoundHandler(SharedBrowser browser, String targetId, String windowHandle, Object target) {
+            this.browser = browser;
+            this.targetId = targetId;
+            this.windowHandle = windowHandle;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "hashCode":
+                    return target.hashCode();
+                case "equals":
+                    return target.equals(unwrap(args[0]));
+                case "toString":
+                    return target.toString();
+                case "getWrappedElement":
+                    if (target instanceof WebElement) {
+                        return target;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            if (browser.sessions != null && isPageLoad(method)) {
+                browser.navigate(targetId, String.valueOf(args[0]));
+                return null;
+            }
+            // one session per browser: the command of this context waits for those of the other contexts
+            browser.lock.lock();
+            try {
+                browser.activate(windowHandle);
+                final Object result = method.invoke(target, args);
+                if (target instanceof WebDriver.TargetLocator && ("window".equals(method.getName()) || "newWindow".equals(method.getName()))) {
+                    browser.activeWindow = null;
+                }
+                return wrap(result);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                browser.lock.unlock();
+            }
+        }
+
+        private boolean isPageLoad(Method method) {
+            return target instanceof WebDriver && "get".equals(method.getName())
+                    || target instanceof WebDriver.Navigation && "to".equals(method.getName());
+        }
+
+        private Object wrap(Object result) {
+            if (result instanceof List) {
+                List<Object> wrapped = new ArrayList<>();
+                for (Object item : (List<?>) result) {
+                    wrapped.add(wrap(item));
+                }
+                return wrapped;
+            }
+            if (result instanceof WebElement) {
+                return proxy(result, new BoundHandler(browser, targetId, windowHandle, result), WrapsElement.class);
+            }
+            if (result instanceof WebDriver.Options || result instanceof WebDriver.Navigation || result instanceof WebDriver.TargetLocator
+                    || result instanceof WebDriver.Timeouts || result instanceof WebDriver.Window) {
+                return proxy(result, new BoundHandler(browser, targetId, windowHandle, result));
+            }
+            return result;
+        }
+
+        private static Object unwrap(Object other) {
+            return other instanceof WrapsElement ? ((WrapsElement) other).getWrappedElement() : other;
+        }
+    }
+
+    private static final class ContextDriverHandler extends BoundHandler {
+        private final String contextId;
+        private final AtomicBoolean disposed = new AtomicBoolean();
+
+        ContextDriverHandler(SharedBrowser browser, String contextId, String targetId, String windowHandle) {
+            super(browser, targetId, windowHandle, browser.driver);
+            this.contextId = contextId;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("quit".equals(method.getName()) || "close".equals(method.getName())) {
+                if (disposed.compareAndSet(false, true)) {
+                    browser.dispose(contextId, targetId, windowHandle);
+                }
+                return null;
+            }
+            if ("toString".equals(method.getName())) {
+                return "BrowserContext " + contextId + " of " + browser.driver;
+            }
+            return super.invoke(proxy, method, args);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.arthina.automation.driver;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import io.github.bonigarcia.wdm.config.Config;
+import io.github.bonigarcia.wdm.online.HttpClient;
+import io.github.bonigarcia.wdm.versions.VersionDetector;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local cache of driver binaries keyed by browser and browser major version:
+ * {@code <cacheDir>/<browser>/<majorVersion>/<driver binary>}.
+ * The installed browser version is detected locally (registry, file version or browser binary), so a cache hit
+ * needs no network at all.
+ * Only on a miss WebDriverManager resolves (and possibly downloads) the driver, which is then copied into the cache.
+ * Air-gapped agents can be provisioned by placing the driver binaries into the cache directory up front.
+ */
+@Slf4j
+public class DriverBinaryCache {
+    private static final Pattern VERSION = Pattern.compile("(\\d+)\\.\\d+");
+
+    private final Path cacheDirectory;
+
+    public DriverBinaryCache(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Cache directory used when none is configured.
+     */
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".cache", "arthina", "drivers");
+    }
+
+    /**
+     * Points Selenium to the driver binary of the installed browser.
+     * @return the driver binary, empty for browsers that need no separate driver binary (Safari)
+     */
+    public Optional<Path> resolve(final String browser) {
+        Browser type = Browser.of(browser);
+        if (type == null) {
+            return Optional.empty();
+        }
+        final String majorVersion = detectMajorVersion(type);
+        if (majorVersion == null) {
+            log.warn("Unable to detect the installed {} version, resolving the driver with WebDriverManager", browser);
+            WebDriverManager manager = type.manager.get();
+            manager.setup();
+            return Optional.of(Paths.get(manager.getDownloadedDriverPath()));
+        }
+        return Optional.of(resolve(type, majorVersion));
+    }
+
+    Path resolve(Browser type, final String majorVersion) {
+        final Path cached = cacheDirectory.resolve(type.name()).resolve(majorVersion).resolve(type.binaryName());
+        if (Files.isExecutable(cached)) {
+            log.info("Using cached {} for {} {}: {}", type.binaryName(), type, majorVersion, cached);
+        } else {
+            log.info("No cached driver for {} {} in {}, resolving it with WebDriverManager", type, majorVersion, cacheDirectory);
+            WebDriverManager manager = type.manager.get().browserVersion(majorVersion);
+            manager.setup();
+            store(Paths.get(manager.getDownloadedDriverPath()), cached);
+        }
+        System.setProperty(type.driverProperty, cached.toString());
+        return cached;
+    }
+
+    private void store(Path downloaded, Path cached) {
+        try {
+            Files.createDirectories(cached.getParent());
+            final Path partial = Files.createTempFile(cached.getParent(), cached.getFileName().toString(), ".part");
+            Files.copy(downloaded, partial, StandardCopyOption.REPLACE_EXISTING);
+            partial.toFile().setExecutable(true);
+            Files.move(partial, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to cache driver binary " + downloaded + " as " + cached, e);
+        }
+    }
+
+    /**
+     * Asks the system for the installed browser version the way WebDriverManager does: the registry or the file
+     * version on Windows (where {@code chrome.exe --version} prints nothing), the browser binary elsewhere. Its bundled
+     * commands database is used first, so a detected version needs no network.
+     */
+    private String detectMajorVersion(Browser type) {
+        WebDriverManager manager = type.manager.get();
+        final Config config = manager.config().setCommandsPropertiesOnlineFirst(false);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            return new VersionDetector(config, httpClient)
+                    .getBrowserVersionFromTheShell(manager.getDriverManagerType().getBrowserNameLowerCase())
+                    .map(DriverBinaryCache::majorVersion)
+                    .orElse(null);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Unable to detect the {} version: {}", type, e.getMessage());
+            return null;
+        }
+    }
+
+    static String majorVersion(final String versionOutput) {
+        Matcher matcher = VERSION.matcher(versionOutput);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    enum Browser {
+        Chrome("webdriver.chrome.driver", "chromedriver", WebDriverManager::chromedriver),
+        Firefox("webdriver.gecko.driver", "geckodriver", WebDriverManager::firefoxdriver),
+        Edge("webdriver.edge.driver", "msedgedriver", WebDriverManager::edgedriver),
+        InternetExplorer("webdriver.ie.driver", "IEDriverServer", WebDriverManager::iedriver),
+        Opera("webdriver.opera.driver", "operadriver", WebDriverManager::operadriver);
+
+        private final String driverProperty;
+        private final String binary;
+        private final Supplier<WebDriverManager> manager;
+
+        Browser(String driverProperty, String binary, Supplier<WebDriverManager> manager) {
+            this.driverProperty = driverProperty;
+            this.binary = binary;
+            this.manager = manager;
+        }
+
+        /**
+         * @return the browser, Chrome for unknown names (like the driver creation does), null for Safari
+         */
+        static Browser of(final String browser) {
+            if ("Safari".equals(browser)) {
+                return null;
+            }
+            return Arrays.stream(values()).filter(type -> type.name().equals(browser)).findFirst().orElse(Chrome);
+        }
+
+        String binaryName() {
+            return System.getProperty("os.name").toLowerCase().contains("win") ? binary + ".exe" : binary;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.arthina.automation.driver;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool of WebDriver sessions shared by the suite. Each test thread leases one driver at a time,
+ * the lease is kept for the thread until {@link #release()} is called (normally after every test method).
+ * Idle drivers are health checked before reuse and recycled after {@code maxUses} leases.
+ * {@link #prewarm(int)} starts browsers in the background, so suite setup does not wait for them.
+ */
+@Slf4j
+public class DriverPool {
+    private static final Duration DEFAULT_ACQUIRE_TIMEOUT = Duration.ofMinutes(5);
+
+    private final Supplier<WebDriver> driverFactory;
+    private final int maxUses;
+    private final Duration acquireTimeout;
+    private final int poolSize;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledDriver> idleDrivers = new LinkedBlockingDeque<>();
+    private final Set<PooledDriver> allDrivers = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<PooledDriver> lease = new ThreadLocal<>();
+    private final Queue<CompletableFuture<PooledDriver>> warmingDrivers = new ConcurrentLinkedQueue<>();
+    private volatile boolean shutdown;
+
+    public DriverPool(Supplier<WebDriver> driverFactory, final int poolSize, final int maxUses) {
+        this(driverFactory, poolSize, maxUses, DEFAULT_ACQUIRE_TIMEOUT);
+    }
+
+    public DriverPool(Supplier<WebDriver> driverFactory, final int poolSize, final int maxUses, Duration acquireTimeout) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Driver pool size must be at least 1 but was " + poolSize);
+        }
+        this.driverFactory = driverFactory;
+        this.maxUses = maxUses;
+        this.acquireTimeout = acquireTimeout;
+        this.poolSize = poolSize;
+        this.permits = new Semaphore(poolSize, true);
+    }
+
+    /**
+     * Returns the driver leased by the current thread, leasing one from the pool if the thread has none yet.
+     */
+    public WebDriver acquire() {
+        PooledDriver current = lease.get();
+        if (current != null) {
+            return current.driver;
+        }
+        if (shutdown) {
+            throw new IllegalStateException("Driver pool is already shut down");
+        }
+
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("No WebDriver available in the pool after " + acquireTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a WebDriver", e);
+        }
+
+        try {
+            PooledDriver pooled = takeHealthyIdle();
+            if (pooled == null) {
+                pooled = takeWarmed();
+            }
+            if (pooled == null) {
+                pooled = createDriver();
+            }
+            pooled.uses++;
+            lease.set(pooled);
+            return pooled.driver;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts up to {@code count} drivers (at most the pool size) on background threads. Acquiring threads take
+     * a started driver, waiting for one that is still starting, before starting another one themselves.
+     */
+    public void prewarm(final int count) {
+        final int drivers = Math.min(count, poolSize);
+        if (drivers < 1) {
+            return;
+        }
+        final AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService starter = Executors.newFixedThreadPool(drivers, runnable -> {
+            Thread thread = new Thread(runnable, "driver-prewarm-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < drivers; i++) {
+            warmingDrivers.add(CompletableFuture.supplyAsync(this::createDriver, starter));
+        }
+        starter.shutdown();
+        log.info("Starting {} WebDriver session(s) in the background", drivers);
+    }
+
+    /**
+     * Returns the driver leased by the current thread, or null when the thread holds no lease.
+     */
+    public WebDriver current() {
+        PooledDriver current = lease.get();
+        return current == null ? null : current.driver;
+    }
+
+    /**
+     * Hands the current thread's driver back to the pool. Drivers that reached their use limit are quit.
+     */
+    public void release() {
+        PooledDriver current = lease.get();
+        if (current == null) {
+            return;
+        }
+        lease.remove();
+        try {
+            if (shutdown || (maxUses > 0 && current.uses >= maxUses)) {
+                log.debug("Recycling WebDriver after {} use(s)", current.uses);
+                discard(current);
+            } else {
+                idleDrivers.offerFirst(current);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Quits every driver created by this pool, leased or idle.
+     */
+    public void shutdown() {
+        shutdown = true;
+        CompletableFuture<PooledDriver> warming;
+        while ((warming = warmingDrivers.poll()) != null) {
+            awaitWarmed(warming);
+        }
+        idleDrivers.clear();
+        allDrivers.forEach(this::quitQuietly);
+        allDrivers.clear();
+        lease.remove();
+    }
+
+    public int size() {
+        return allDrivers.size();
+    }
+
+    private PooledDriver takeHealthyIdle() {
+        PooledDriver pooled;
+        while ((pooled = idleDrivers.pollFirst()) != null) {
+            if (isHealthy(pooled.driver)) {
+                return pooled;
+            }
+            log.warn("Discarding unhealthy WebDriver session from pool");
+            discard(pooled);
+        }
+        return null;
+    }
+
+    private PooledDriver takeWarmed() {
+        CompletableFuture<PooledDriver> warming;
+        while ((warming = warmingDrivers.poll()) != null) {
+            PooledDriver pooled = awaitWarmed(warming);
+            if (pooled != null && isHealthy(pooled.driver)) {
+                return pooled;
+            }
+            if (pooled != null) {
+                discard(pooled);
+            }
+        }
+        return null;
+    }
+
+    private PooledDriver awaitWarmed(CompletableFuture<PooledDriver> warming) {
+        try {
+            return warming.join();
+        } catch (CompletionException | CancellationException e) {
+            log.warn("Background WebDriver start failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private PooledDriver createDriver() {
+        PooledDriver pooled = new PooledDriver(driverFactory.get());
+        allDrivers.add(pooled);
+        log.info("Created new WebDriver session, pool now holds {} driver(s)", allDrivers.size());
+        return pooled;
+    }
+
+    private boolean isHealthy(WebDriver driver) {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (WebDriverException e) {
+            log.debug("WebDriver health check failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void discard(PooledDriver pooled) {
+        allDrivers.remove(pooled);
+        quitQuietly(pooled);
+    }
+
+    private void quitQuietly(PooledDriver pooled) {
+        try {
+            pooled.driver.quit();
+        } catch (WebDriverException e) {
+            log.warn("Error while quitting WebDriver: {}", e.getMessage());
+        }
+    }
+
+    private static final class PooledDriver {
+        private final WebDriver driver;
+        private int uses;
+
+        private PooledDriver(WebDriver driver) {
+            this.driver = driver;
+        }
+    }
+}
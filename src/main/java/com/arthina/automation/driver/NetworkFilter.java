@@ -0,0 +1,171 @@
+package com.arthina.automation.driver;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable network rules applied to Chromium drivers by {@link NetworkSession}: URL patterns to block
+ * (e.g. analytics, fonts, chat widgets), URL patterns answered with a canned response instead of the network,
+ * and whether the browser cache may be used. Patterns use {@code *} as wildcard, like DevTools does.
+ */
+public final class NetworkFilter {
+    private static final NetworkFilter NONE = new NetworkFilter(Collections.emptyList(), Collections.emptyList(), false);
+    private static volatile NetworkFilter suiteFilter = NONE;
+
+    private final List<String> blockedUrls;
+    private final List<Stub> stubs;
+    private final boolean cacheDisabled;
+
+    private NetworkFilter(List<String> blockedUrls, List<Stub> stubs, boolean cacheDisabled) {
+        this.blockedUrls = Collections.unmodifiableList(blockedUrls);
+        this.stubs = Collections.unmodifiableList(stubs);
+        this.cacheDisabled = cacheDisabled;
+    }
+
+    public static NetworkFilter none() {
+        return NONE;
+    }
+
+    /**
+     * @param blockedUrls patterns separated by commas or whitespace
+     * @param stubs entries separated by whitespace, each {@code pattern=contentType[:body]}
+     */
+    public static NetworkFilter parse(final String blockedUrls, final String stubs, final boolean cacheDisabled) {
+        List<Stub> parsedStubs = new ArrayList<>();
+        for (String entry : StringUtils.split(StringUtils.defaultString(stubs))) {
+            final String pattern = StringUtils.substringBefore(entry, "=");
+            final String response = StringUtils.substringAfter(entry, "=");
+            if (StringUtils.isBlank(pattern) || StringUtils.isBlank(response)) {
+                throw new IllegalArgumentException("Network stub must be pattern=contentType[:body] but was " + entry);
+            }
+            parsedStubs.add(new Stub(pattern, StringUtils.substringBefore(response, ":"), StringUtils.substringAfter(response, ":")));
+        }
+        return new NetworkFilter(Arrays.asList(StringUtils.split(StringUtils.defaultString(blockedUrls), ", \t\r\n")), parsedStubs, cacheDisabled);
+    }
+
+    /** Filter of the suite, the default for every page. */
+    public static NetworkFilter getSuiteFilter() {
+        return suiteFilter;
+    }
+
+    public static void configure(NetworkFilter filter) {
+        suiteFilter = filter;
+    }
+
+    /**
+     * @return this filter with the given patterns blocked as well
+     */
+    public NetworkFilter block(Collection<String> patterns) {
+        List<String> blocked = new ArrayList<>(blockedUrls);
+        patterns.stream().filter(pattern -> !blocked.contains(pattern)).forEach(blocked::add);
+        return new NetworkFilter(blocked, stubs, cacheDisabled);
+    }
+
+    /**
+     * @return this filter without the given block patterns, e.g. for a page that asserts on images
+     */
+    public NetworkFilter allow(Collection<String> patterns) {
+        List<String> blocked = new ArrayList<>(blockedUrls);
+        blocked.removeAll(patterns);
+        return new NetworkFilter(blocked, stubs, cacheDisabled);
+    }
+
+    public boolean isEmpty() {
+        return blockedUrls.isEmpty() && stubs.isEmpty() && !cacheDisabled;
+    }
+
+    public List<String> getBlockedUrls() {
+        return blockedUrls;
+    }
+
+    public List<Stub> getStubs() {
+        return stubs;
+    }
+
+    public boolean isCacheDisabled() {
+        return cacheDisabled;
+    }
+
+    /**
+     * @return the first stub matching the url, null when the request should go to the network
+     */
+    public Stub stubFor(final String url) {
+        return stubs.stream().filter(stub -> stub.matches(url)).findFirst().orElse(null);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof NetworkFilter)) {
+            return false;
+        }
+        NetworkFilter that = (NetworkFilter) other;
+        return cacheDisabled == that.cacheDisabled && blockedUrls.equals(that.blockedUrls) && stubs.equals(that.stubs);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(blockedUrls, stubs, cacheDisabled);
+    }
+
+    @Override
+    public String toString() {
+        return "blocked=" + blockedUrls + " stubs=" + stubs + (cacheDisabled ? " cache disabled" : "");
+    }
+
+    public static final class Stub {
+        private final String urlPattern;
+        private final String contentType;
+        private final String body;
+        private final Pattern regex;
+
+        Stub(String urlPattern, String contentType, String body) {
+            this.urlPattern = urlPattern;
+            this.contentType = contentType;
+            this.body = body;
+            this.regex = Pattern.compile(Arrays.stream(urlPattern.split("\\*", -1)).map(Pattern::quote)
+                    .reduce((left, right) -> left + ".*" + right).orElse(""));
+        }
+
+        public String getUrlPattern() {
+            return urlPattern;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        boolean matches(final String url) {
+            return regex.matcher(url).matches();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Stub && urlPattern.equals(((Stub) other).urlPattern)
+                    && contentType.equals(((Stub) other).contentType) && body.equals(((Stub) other).body);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(urlPattern, contentType, body);
+        }
+
+        @Override
+        public String toString() {
+            return urlPattern + "=" + contentType;
+        }
+    }
+}
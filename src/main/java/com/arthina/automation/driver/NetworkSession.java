@@ -0,0 +1,224 @@
+package com.arthina.automation.driver;
+
+import com.google.common.collect.MapMaker;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a {@link NetworkFilter} to a Chromium driver through DevTools and counts what it avoided.
+ * Blocking uses {@code Network.setBlockedURLs}, stubs answer paused requests with {@code Fetch.fulfillRequest}
+ * before they reach the network. A driver with its own browser gets a DevTools session with request counters
+ * and stubs; a context of a shared browser (see {@link BrowserContexts}) only gets the block list and cache settings.
+ *
+ * Bytes of blocked requests are never transferred, so they cannot be measured; the counters report the bytes
+ * that were loaded, to compare against an unfiltered run.
+ */
+@Slf4j
+public class NetworkSession {
+    private static final Map<WebDriver, NetworkSession> SESSIONS = new MapMaker().weakKeys().makeMap();
+    private static final Event<Map<String, Object>> REQUEST_WILL_BE_SENT = event("Network.requestWillBeSent");
+    private static final Event<Map<String, Object>> LOADING_FINISHED = event("Network.loadingFinished");
+    private static final Event<Map<String, Object>> LOADING_FAILED = event("Network.loadingFailed");
+    private static final Event<Map<String, Object>> REQUEST_PAUSED = event("Fetch.requestPaused");
+    private static final LongAdder SUITE_REQUESTS = new LongAdder();
+    private static final LongAdder SUITE_AVOIDED = new LongAdder();
+    private static final LongAdder SUITE_BYTES = new LongAdder();
+
+    private final WebDriver driver;
+    private final DevTools devTools;
+    private volatile NetworkFilter applied = NetworkFilter.none();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong stubbed = new AtomicLong();
+    private final AtomicLong bytesLoaded = new AtomicLong();
+
+    private NetworkSession(WebDriver driver, DevTools devTools) {
+        this.driver = driver;
+        this.devTools = devTools;
+    }
+
+    /**
+     * Applies the suite filter to a newly created driver, a no-op for drivers without DevTools or an empty filter.
+     * @return the driver
+     */
+    public static WebDriver install(WebDriver driver) {
+        final NetworkFilter filter = NetworkFilter.getSuiteFilter();
+        if (!filter.isEmpty()) {
+            NetworkSession session = forDriver(driver);
+            if (session != null) {
+                session.apply(filter);
+            }
+        }
+        return driver;
+    }
+
+    /**
+     * @return the session of the driver, null when it was never filtered
+     */
+    public static NetworkSession of(WebDriver driver) {
+        return driver == null ? null : SESSIONS.get(driver);
+    }
+
+    /**
+     * @return the session of the driver, created on first use, null for drivers without DevTools (e.g. Firefox)
+     */
+    public static NetworkSession forDriver(WebDriver driver) {
+        if (!(driver instanceof HasCdp)) {
+            return null;
+        }
+        return SESSIONS.computeIfAbsent(driver, NetworkSession::open);
+    }
+
+    private static NetworkSession open(WebDriver driver) {
+        if (BrowserContexts.isContext(driver) || !(driver instanceof HasDevTools)) {
+            return new NetworkSession(driver, null);
+        }
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        NetworkSession session = new NetworkSession(driver, devTools);
+        devTools.addListener(REQUEST_WILL_BE_SENT, params -> session.requests.incrementAndGet());
+        devTools.addListener(LOADING_FINISHED, params -> session.bytesLoaded.addAndGet(((Number) params.get("encodedDataLength")).longValue()));
+        devTools.addListener(LOADING_FAILED, params -> {
+            if (params.get("blockedReason") != null) {
+                session.blocked.incrementAndGet();
+            }
+        });
+        devTools.addListener(REQUEST_PAUSED, session::onRequestPaused);
+        return session;
+    }
+
+    /**
+     * Switches the driver to the given filter, without any DevTools call when it is already applied.
+     */
+    public void apply(NetworkFilter filter) {
+        if (filter.equals(applied)) {
+            return;
+        }
+        send("Network.enable", Collections.emptyMap());
+        send("Network.setBlockedURLs", Collections.singletonMap("urls", filter.getBlockedUrls()));
+        send("Network.setCacheDisabled", Collections.singletonMap("cacheDisabled", filter.isCacheDisabled()));
+        if (devTools != null) {
+            if (filter.getStubs().isEmpty()) {
+                send("Fetch.disable", Collections.emptyMap());
+            } else {
+                List<Map<String, Object>> patterns = filter.getStubs().stream()
+                        .map(stub -> Collections.<String, Object>singletonMap("urlPattern", stub.getUrlPattern()))
+                        .collect(Collectors.toList());
+                send("Fetch.enable", Collections.singletonMap("patterns", patterns));
+            }
+        } else if (!filter.getStubs().isEmpty()) {
+            log.warn("Network stubs need a dedicated browser, ignoring {} for a shared browser context", filter.getStubs());
+        }
+        applied = filter;
+        log.debug("Applied network filter {}", filter);
+    }
+
+    public NetworkFilter getApplied() {
+        return applied;
+    }
+
+    /**
+     * Counters since the previous call, added to the suite totals.
+     */
+    public Stats takeStats() {
+        Stats stats = new Stats(requests.getAndSet(0), blocked.getAndSet(0), stubbed.getAndSet(0), bytesLoaded.getAndSet(0));
+        SUITE_REQUESTS.add(stats.requests);
+        SUITE_AVOIDED.add(stats.getAvoided());
+        SUITE_BYTES.add(stats.bytesLoaded);
+        return stats;
+    }
+
+    public static String suiteStatistics() {
+        return String.format("%d requests avoided of %d, %d KB loaded", SUITE_AVOIDED.sum(), SUITE_REQUESTS.sum(), SUITE_BYTES.sum() / 1024);
+    }
+
+    private void onRequestPaused(Map<String, Object> params) {
+        final String requestId = (String) params.get("requestId");
+        @SuppressWarnings("unchecked")
+        final String url = (String) ((Map<String, Object>) params.get("request")).get("url");
+        NetworkFilter.Stub stub = applied.stubFor(url);
+        Map<String, Object> response = new HashMap<>();
+        response.put("requestId", requestId);
+        if (stub == null) {
+            send("Fetch.continueRequest", response);
+            return;
+        }
+        response.put("responseCode", 200);
+        Map<String, Object> contentType = new HashMap<>();
+        contentType.put("name", "Content-Type");
+        contentType.put("value", stub.getContentType());
+        response.put("responseHeaders", Collections.singletonList(contentType));
+        response.put("body", Base64.getEncoder().encodeToString(stub.getBody().getBytes(StandardCharsets.UTF_8)));
+        send("Fetch.fulfillRequest", response);
+        stubbed.incrementAndGet();
+    }
+
+    private void send(final String method, Map<String, ?> params) {
+        if (devTools != null) {
+            devTools.send(new Command<Void>(method, new HashMap<>(params)));
+        } else {
+            ((HasCdp) driver).executeCdpCommand(method, new HashMap<>(params));
+        }
+    }
+
+    private static Event<Map<String, Object>> event(final String method) {
+        return new Event<>(method, input -> input.read(Json.MAP_TYPE));
+    }
+
+    public static final class Stats {
+        private final long requests;
+        private final long blocked;
+        private final long stubbed;
+        private final long bytesLoaded;
+
+        Stats(long requests, long blocked, long stubbed, long bytesLoaded) {
+            this.requests = requests;
+            this.blocked = blocked;
+            this.stubbed = stubbed;
+            this.bytesLoaded = bytesLoaded;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getBlocked() {
+            return blocked;
+        }
+
+        public long getStubbed() {
+            return stubbed;
+        }
+
+        /** Requests that did not go to the network, blocked or stubbed. */
+        public long getAvoided() {
+            return blocked + stubbed;
+        }
+
+        public long getBytesLoaded() {
+            return bytesLoaded;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d of %d requests avoided (%d blocked, %d stubbed), %d KB loaded",
+                    getAvoided(), requests, blocked, stubbed, bytesLoaded / 1024);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.arthina.automation.driver;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Logged in state of one browser session: cookies plus localStorage and sessionStorage of the application origin.
+ * It expires with the first of the given session cookies that expires, or after the configured maximum age. Other
+ * cookies (analytics, CSRF, consent) do not end it; a restored state the application no longer accepts is caught by
+ * the logged in check of the role, see {@link SessionStateCache#register}.
+ */
+public final class SessionState {
+
+    private static final String CAPTURE_SCRIPT =
+            "function dump(storage) {" +
+            "  var values = {};" +
+            "  for (var i = 0; i < storage.length; i++) { var key = storage.key(i); values[key] = storage.getItem(key); }" +
+            "  return values;" +
+            "}" +
+            "return {origin: window.location.origin, local: dump(window.localStorage), session: dump(window.sessionStorage)};";
+
+    private static final String RESTORE_SCRIPT =
+            "var state = arguments[0];" +
+            "window.localStorage.clear(); window.sessionStorage.clear();" +
+            "Object.keys(state.local).forEach(function(key) { window.localStorage.setItem(key, state.local[key]); });" +
+            "Object.keys(state.session).forEach(function(key) { window.sessionStorage.setItem(key, state.session[key]); });";
+
+    private final String origin;
+    private final Set<Cookie> cookies;
+    private final Map<String, String> localStorage;
+    private final Map<String, String> sessionStorage;
+    private final Instant expiresAt;
+
+    private SessionState(String origin, Set<Cookie> cookies, Map<String, String> localStorage,
+                         Map<String, String> sessionStorage, Instant expiresAt) {
+        this.origin = origin;
+        this.cookies = Collections.unmodifiableSet(cookies);
+        this.localStorage = Collections.unmodifiableMap(localStorage);
+        this.sessionStorage = Collections.unmodifiableMap(sessionStorage);
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Captures the state of the page currently open in the driver.
+     * @param sessionCookies names of the cookies that carry the login, the state expires with the first of them
+     */
+    @SuppressWarnings("unchecked")
+    public static SessionState capture(WebDriver driver, Duration maxAge, Collection<String> sessionCookies) {
+        Map<String, Object> storage = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT);
+        Set<Cookie> cookies = new HashSet<>(driver.manage().getCookies());
+        Instant expiresAt = Instant.now().plus(maxAge);
+        for (Cookie cookie : cookies) {
+            if (sessionCookies.contains(cookie.getName()) && cookie.getExpiry() != null && cookie.getExpiry().toInstant().isBefore(expiresAt)) {
+                expiresAt = cookie.getExpiry().toInstant();
+            }
+        }
+        return new SessionState((String) storage.get("origin"), cookies, toStrings(storage.get("local")),
+                toStrings(storage.get("session")), expiresAt);
+    }
+
+    /**
+     * Replaces cookies and storage of the driver with this state. The driver has to be on a page of the
+     * application origin, see {@link #getOrigin()}.
+     */
+    public void restore(WebDriver driver) {
+        driver.manage().deleteAllCookies();
+        final Date now = new Date();
+        for (Cookie cookie : cookies) {
+            if (cookie.getExpiry() == null || cookie.getExpiry().after(now)) {
+                driver.manage().addCookie(cookie);
+            }
+        }
+        Map<String, Object> storage = new HashMap<>();
+        storage.put("local", localStorage);
+        storage.put("session", sessionStorage);
+        ((JavascriptExecutor) driver).executeScript(RESTORE_SCRIPT, storage);
+    }
+
+    public boolean isExpired() {
+        return !Instant.now().isBefore(expiresAt);
+    }
+
+    /** Origin (scheme://host:port) the state belongs to. */
+    public String getOrigin() {
+        return origin;
+    }
+
+    public Set<Cookie> getCookies() {
+        return cookies;
+    }
+
+    public Map<String, String> getLocalStorage() {
+        return localStorage;
+    }
+
+    public Map<String, String> getSessionStorage() {
+        return sessionStorage;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> toStrings(Object values) {
+        Map<String, String> strings = new HashMap<>();
+        if (values instanceof Map) {
+            ((Map<String, Object>) values).forEach((key, value) -> strings.put(key, value == null ? null : value.toString()));
+        }
+        return strings;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d cookies, %d local, %d session entries, expires %s", origin, cookies.size(),
+                localStorage.size(), sessionStorage.size(), expiresAt);
+    }
+}
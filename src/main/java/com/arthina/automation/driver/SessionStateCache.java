@@ -0,0 +1,123 @@
+package com.arthina.automation.driver;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Logs in once per role and hands the captured {@link SessionState} to every other driver that needs the role,
+ * instead of going through the login UI per test class. A state is refreshed (logged in again) when it expires
+ * or when the role's check says the restored session is no longer logged in.
+ */
+@Slf4j
+public class SessionStateCache {
+    private final Map<String, Role> roles = new ConcurrentHashMap<>();
+    private final Map<String, SessionState> states = new ConcurrentHashMap<>();
+    private volatile Duration maxAge = Duration.ofMinutes(30);
+
+    /**
+     * @param login logs in through the UI on the given driver, leaving it on a page of the application
+     * @param isLoggedIn tells if the driver (on the requested page) is logged in as the role
+     * @param sessionCookies names of the cookies carrying the login, a captured state expires with the first of them;
+     *                       without any only the maximum age and isLoggedIn end it
+     */
+    public void register(final String role, Consumer<WebDriver> login, Predicate<WebDriver> isLoggedIn, String... sessionCookies) {
+        roles.put(role, new Role(login, isLoggedIn, new HashSet<>(Arrays.asList(sessionCookies))));
+    }
+
+    /** Age after which a captured state is refreshed even when its cookies have not expired. */
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Opens the url in the driver logged in as the role.
+     */
+    public void open(WebDriver driver, final String role, final String url) {
+        Role roleLogin = roles.get(role);
+        if (roleLogin == null) {
+            throw new IllegalArgumentException("No login registered for role " + role);
+        }
+        SessionState state = states.get(role);
+        if (state == null || state.isExpired()) {
+            state = login(driver, role, roleLogin, state);
+        } else {
+            restore(driver, state);
+        }
+        driver.get(url);
+        if (!roleLogin.isLoggedIn.test(driver)) {
+            log.info("Session of role {} is no longer valid, logging in again", role);
+            login(driver, role, roleLogin, state);
+            driver.get(url);
+        }
+    }
+
+    public void invalidate(final String role) {
+        states.remove(role);
+    }
+
+    public SessionState get(final String role) {
+        return states.get(role);
+    }
+
+    /**
+     * Logs in unless another thread replaced the stale state meanwhile, in which case that state is restored.
+     */
+    private SessionState login(WebDriver driver, final String role, Role roleLogin, SessionState stale) {
+        roleLogin.lock.lock();
+        try {
+            SessionState current = states.get(role);
+            if (current != null && current != stale && !current.isExpired()) {
+                restore(driver, current);
+                return current;
+            }
+            final long start = System.nanoTime();
+            driver.manage().deleteAllCookies();
+            roleLogin.login.accept(driver);
+            SessionState captured = SessionState.capture(driver, maxAge, roleLogin.sessionCookies);
+            states.put(role, captured);
+            log.info("Logged in as {} in {} ms, captured {}", role, Duration.ofNanos(System.nanoTime() - start).toMillis(), captured);
+            return captured;
+        } finally {
+            roleLogin.lock.unlock();
+        }
+    }
+
+    private void restore(WebDriver driver, SessionState state) {
+        // cookies and storage can only be set for the origin the driver is on
+        if (!state.getOrigin().equals(originOf(driver.getCurrentUrl()))) {
+            driver.get(state.getOrigin() + "/");
+        }
+        state.restore(driver);
+    }
+
+    private static String originOf(final String url) {
+        if (url == null) {
+            return "";
+        }
+        final int pathStart = url.indexOf('/', url.indexOf("://") + 3);
+        return pathStart < 0 ? url : url.substring(0, pathStart);
+    }
+
+    private static final class Role {
+        private final Consumer<WebDriver> login;
+        private final Predicate<WebDriver> isLoggedIn;
+        private final Set<String> sessionCookies;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Role(Consumer<WebDriver> login, Predicate<WebDriver> isLoggedIn, Set<String> sessionCookies) {
+            this.login = login;
+            this.isLoggedIn = isLoggedIn;
+            this.sessionCookies = sessionCookies;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.arthina.automation.driver;
+
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.Connection;
+import org.openqa.selenium.devtools.SeleniumCdpConnection;
+import org.openqa.selenium.devtools.idealized.target.model.SessionID;
+import org.openqa.selenium.json.Json;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DevTools sessions on the page targets of one browser, attached in flatten mode over a connection of their own
+ * next to the WebDriver session. Commands to one target do not wait for those sent to another, which lets
+ * {@link BrowserContexts} load a page in one context while the other contexts keep using the browser.
+ */
+interface TargetSessions extends Closeable {
+
+    /**
+     * Sends a command to the page target, attaching a session to it on first use.
+     */
+    Map<String, Object> send(String targetId, String method, Map<String, Object> parameters, Duration timeout);
+
+    /**
+     * Forgets the session of a target that was closed.
+     */
+    void detach(String targetId);
+
+    @Override
+    void close();
+
+    /**
+     * @return sessions over a new DevTools connection of the driver, null when the driver offers none
+     */
+    static TargetSessions open(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities)) {
+            return null;
+        }
+        return SeleniumCdpConnection.create(driver).map(DevToolsSessions::new).orElse(null);
+    }
+
+    final class DevToolsSessions implements TargetSessions {
+        private final Connection connection;
+        private final Map<String, SessionID> sessions = new ConcurrentHashMap<>();
+
+        private DevToolsSessions(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Map<String, Object> send(String targetId, String method, Map<String, Object> parameters, Duration timeout) {
+            final SessionID session = sessions.computeIfAbsent(targetId, id -> attach(id, timeout));
+            return connection.sendAndWait(session, command(method, parameters), timeout);
+        }
+
+        @Override
+        public void detach(String targetId) {
+            sessions.remove(targetId);
+        }
+
+        @Override
+        public void close() {
+            sessions.clear();
+            connection.close();
+        }
+
+        private SessionID attach(final String targetId, Duration timeout) {
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("targetId", targetId);
+            parameters.put("flatten", true);
+            return new SessionID((String) connection.sendAndWait(null, command("Target.attachToTarget", parameters), timeout).get("sessionId"));
+        }
+
+        private static Command<Map<String, Object>> command(final String method, Map<String, Object> parameters) {
+            return new Command<>(method, parameters, input -> input.read(Json.MAP_TYPE));
+        }
+    }
+}
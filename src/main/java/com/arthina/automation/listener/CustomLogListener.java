@@ -2,16 +2,19 @@ package com.arthina.automation.listener;
 
 
 
+import com.arthina.automation.driver.DriverPool;
 import com.arthina.automation.reporter.ExtentTestManager;
-import com.aventstack.extentreports.MediaEntityBuilder;
+import com.arthina.automation.reporter.ResultsExporter;
+import com.arthina.automation.reporter.ScreenshotPipeline;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
@@ -20,14 +23,30 @@ import com.aventstack.extentreports.Status;
 import com.aventstack.extentreports.markuputils.ExtentColor;
 import com.aventstack.extentreports.markuputils.MarkupHelper;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-
 @Slf4j
-public class CustomLogListener implements ITestListener {
-	private static final String FILE_SEPARATOR = System.getProperty("file.separator");
-	
+public class CustomLogListener implements ITestListener, ISuiteListener {
+	private static final String RESULTS_EXPORTER = "resultsExporter";
+
+	/**
+	 * Starts the results export of the suite unless the suite parameter {@code resultsExport} is false;
+	 * {@code resultsExportWindow} rows are kept in memory.
+	 */
+	@Override
+	public void onStart(ISuite suite) {
+		if (!"false".equalsIgnoreCase(StringUtils.trim(suite.getParameter("resultsExport")))) {
+			final int windowSize = Integer.parseInt(StringUtils.defaultIfBlank(suite.getParameter("resultsExportWindow"), "100"));
+			suite.setAttribute(RESULTS_EXPORTER, ResultsExporter.forReport(suite.getName(), windowSize));
+		}
+	}
+
+	@Override
+	public void onFinish(ISuite suite) {
+		ResultsExporter resultsExporter = (ResultsExporter) suite.getAttribute(RESULTS_EXPORTER);
+		if (resultsExporter != null) {
+			resultsExporter.close();
+		}
+	}
+
 	@Override
 	public void onFinish(ITestContext testContext) {
 		log.info("-------->>>>>> Test Summary <<<<<<<----------");
@@ -43,6 +62,7 @@ public class CustomLogListener implements ITestListener {
 			log.info("==========> {} SKIPPED", result.getName());
 		});
 		log.info("-------->>>>>> ---------------------------- <<<<<<<----------");		
+		DurationHistory.forContext(testContext).save();
 	}
 
 	@Override
@@ -52,41 +72,35 @@ public class CustomLogListener implements ITestListener {
 
 	@Override
 	public void onTestFailedButWithinSuccessPercentage(ITestResult testContext) {
-		log.info("*** Test failed but within percentage % {}", testContext.getMethod().getMethodName());
+		log.info("*** Test failed but within percentage % {} after {}", testContext.getMethod().getMethodName(), recordDuration(testContext));
 	}
 
 	@Override
 	public void onTestFailure(ITestResult testContext) {
-		log.error("Test {} Failed due to: {}", testContext.getName(), testContext.getThrowable());
+		log.error("Test {} Failed after {} due to: {}", testContext.getName(), recordDuration(testContext), testContext.getThrowable());
 		
-		WebDriver driver = (WebDriver) testContext.getTestContext().getAttribute("driver");
-		final boolean imageAsBase64 = (boolean) testContext.getTestContext().getAttribute("imageAsBase64");
+		WebDriver driver = getTestDriver(testContext);
+		ScreenshotPipeline screenshotPipeline = (ScreenshotPipeline) testContext.getTestContext().getAttribute("screenshotPipeline");
 		String testClassName = getTestClassName(testContext.getInstanceName());
-		String testMethodName = StringUtils.trimToEmpty(testContext.getName());
-		String screenShotName = StringUtils.defaultIfEmpty(testMethodName, "default") + "_" + System.currentTimeMillis() + ".png";
-
-		 if (driver != null) {
-			 if (imageAsBase64)
-		 		takeScreenShot(driver, screenShotName, testClassName);
-			 else {
-				bindScreenShotToReport(driver, screenShotName, testClassName);
-				final String imagePath = String.join(FILE_SEPARATOR, System.getProperty("user.dir"), "target", "ExecutionReports", "Screenshots", testClassName, screenShotName);
-				log.debug("Screenshot can be found at: {}", imagePath);
-			 }
+		String testMethodName = StringUtils.defaultIfEmpty(StringUtils.trimToEmpty(testContext.getName()), "default");
+
+		 if (driver != null && screenshotPipeline != null) {
+			 takeScreenShot(driver, screenshotPipeline, testMethodName, testClassName);
 		 }
 		 else {
-		 	log.warn("WebDriver is null, so skipping the screen shots");
+		 	log.warn("WebDriver or screenshot pipeline is null, so skipping the screen shots");
 		 }
 		
-		ExtentTestManager.getTest().log(Status.FAIL, testContext.getThrowable());
-		ExtentTestManager.getTest().log(Status.FAIL, MarkupHelper.createLabel(testContext.getName()+" FAILED ", ExtentColor.PINK));
+		ExtentTestManager.log(Status.FAIL, testContext.getThrowable());
+		ExtentTestManager.log(Status.FAIL, MarkupHelper.createLabel(testContext.getName()+" FAILED ", ExtentColor.PINK));
 	}
 
 	@Override
 	public void onTestSkipped(ITestResult testContext) {
+		recordDuration(testContext);
 		log.warn(" Test {} on {} got Skipped: {}", testContext.getName(), testContext.getTestClass().getName(), testContext.getThrowable());
-		ExtentTestManager.getTest().log(Status.FAIL, testContext.getThrowable());
-		ExtentTestManager.getTest().log(Status.SKIP, MarkupHelper.createLabel(testContext.getName()+" SKIPPED ", ExtentColor.ORANGE));
+		ExtentTestManager.log(Status.FAIL, testContext.getThrowable());
+		ExtentTestManager.log(Status.SKIP, MarkupHelper.createLabel(testContext.getName()+" SKIPPED ", ExtentColor.ORANGE));
 	}
 
 	@Override
@@ -97,9 +111,36 @@ public class CustomLogListener implements ITestListener {
 
 	@Override
 	public void onTestSuccess(ITestResult testContext) {
-		final long timeTaken = testContext.getEndMillis() - testContext.getStartMillis();
+		final long timeTaken = recordDuration(testContext);
 		log.info("Test {} Succeeded and took {}", testContext.getName(), timeTaken);
-		ExtentTestManager.getTest().log(Status.PASS, MarkupHelper.createLabel(testContext.getName()+" PASSED (" + timeTaken + ")", ExtentColor.GREEN));
+		ExtentTestManager.log(Status.PASS, MarkupHelper.createLabel(testContext.getName()+" PASSED (" + timeTaken + ")", ExtentColor.GREEN));
+	}
+
+	/**
+	 * Keeps the duration of every finished test, whatever its status, for the {@link DurationOrderInterceptor}
+	 * and adds the test to the results export.
+	 * @return the time taken in millis
+	 */
+	private long recordDuration(ITestResult testContext) {
+		DurationHistory.forContext(testContext.getTestContext()).record(testContext);
+		ResultsExporter resultsExporter = (ResultsExporter) testContext.getTestContext().getSuite().getAttribute(RESULTS_EXPORTER);
+		if (resultsExporter != null) {
+			resultsExporter.write(testContext);
+		}
+		return testContext.getEndMillis() - testContext.getStartMillis();
+	}
+
+	/**
+	 * Resolves the driver that ran the given test: the one recorded on the result when the test leased it,
+	 * otherwise the driver currently leased by this (test) thread.
+	 */
+	private WebDriver getTestDriver(ITestResult testContext) {
+		WebDriver driver = (WebDriver) testContext.getAttribute("driver");
+		if (driver == null) {
+			DriverPool driverPool = (DriverPool) testContext.getTestContext().getAttribute("driverPool");
+			driver = driverPool != null ? driverPool.current() : null;
+		}
+		return driver;
 	}
 
 	private String getTestClassName(final String fullClassName) {
@@ -109,35 +150,17 @@ public class CustomLogListener implements ITestListener {
 		return StringUtils.trimToEmpty(reqTestClassname[i]);		
 	}
 
-	private void bindScreenShotToReport(WebDriver driver, final String screenShotName, final String testClassName) {
-		log.info("Trying to take screen shot {} for {}", screenShotName, testClassName);
-		final String screenshotBase64 = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BASE64);
-		ExtentTestManager.logFailWithScreenShot(testClassName + " failure screenshot", MediaEntityBuilder.createScreenCaptureFromBase64String(screenshotBase64, screenShotName).build());
-	}
-
-	private void takeScreenShot(WebDriver driver, final String screenShotName, final String testClassName) {
-		log.info("Trying to take screen shot {} for {}", screenShotName, testClassName);
-		final String imageBasePath = String.join(FILE_SEPARATOR, System.getProperty("user.dir"), "target", "ExecutionReports", "Screenshots", testClassName);
-		final String imageFullName = String.join(FILE_SEPARATOR, imageBasePath, screenShotName);
+	/**
+	 * Only the capture runs on the test thread (it has to show the failing page), storing and attaching
+	 * the screenshot is left to the {@link ScreenshotPipeline}.
+	 */
+	private void takeScreenShot(WebDriver driver, ScreenshotPipeline screenshotPipeline, final String testMethodName, final String testClassName) {
+		log.info("Trying to take screen shot of {} for {}", testMethodName, testClassName);
 		try {
-			File folder = new File(imageBasePath);
-			if (!folder.exists()) {
-				log.debug("Screenshot Capture Folder created {}", folder);
-				folder.mkdirs();
-			}
-
-			File screenshotFile = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-			File targetFile = new File(imageFullName);
-			FileUtils.copyFile(screenshotFile, targetFile);
-			log.info("*** Placed failedTestCase screen shot under {} ****", targetFile);
-			// attach screenshots to report
-			ExtentTestManager.logFailWithScreenShot(testClassName + " failure screenshot", MediaEntityBuilder.createScreenCaptureFromPath(imageFullName).build());
-		} catch (FileNotFoundException e) {
-			log.error("File not found exception occurred while taking screenshot: {}", e.getMessage(), e);
-		} catch (IOException e) {
-			log.error("An exception occurred while attaching screenshot to extentReport: {}", e.getMessage(), e);
+			final byte[] screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+			screenshotPipeline.submit(screenshot, testClassName + "." + testMethodName + " failure screenshot", ExtentTestManager.deferredLog());
 		} catch (Exception e) {
 			log.error("An exception occurred while taking screenshot: {}", e.getMessage(), e);
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,220 @@
+package com.arthina.automation.listener;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.StringUtils;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Durations of past test runs, kept per test method in a small tab separated file
+ * ({@code method, millis, failed, last run}), used by {@link DurationOrderInterceptor} to schedule the next run.
+ * <p>
+ * All invocations of a method in a run (data provider rows, invocationCount) are summed, since the scheduler places
+ * whole methods. The stored millis are a moving average over the runs, so a single slow run does not reorder
+ * the suite. Skipped tests update the status but keep the previous duration, they barely ran.
+ * Several forks may share the file: {@link #save()} merges with what the others wrote under a file lock.
+ */
+@Slf4j
+public class DurationHistory {
+	public static final String DEFAULT_FILE = ".test-durations.tsv";
+	/** Weight of the latest run in the moving average. */
+	private static final double LATEST_RUN_WEIGHT = 0.3;
+	/** Methods not run for this long are dropped from the file. */
+	private static final Duration RETENTION = Duration.ofDays(30);
+
+	private static final Map<Path, DurationHistory> HISTORIES = new ConcurrentHashMap<>();
+
+	private final Path file;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final Map<String, RunEntry> currentRun = new ConcurrentHashMap<>();
+
+	DurationHistory(Path file) {
+		this.file = file;
+		entries.putAll(read(file));
+	}
+
+	/**
+	 * History of the suite parameter {@code durationHistoryFile}, shared by all listeners of the JVM.
+	 */
+	public static DurationHistory forContext(ITestContext context) {
+		final String fileName = context.getSuite().getParameter("durationHistoryFile");
+		return forFile(Paths.get(StringUtils.defaultIfBlank(fileName, DEFAULT_FILE)));
+	}
+
+	public static DurationHistory forFile(Path file) {
+		return HISTORIES.computeIfAbsent(file.toAbsolutePath().normalize(), DurationHistory::new);
+	}
+
+	static String keyOf(ITestResult result) {
+		return result.getMethod().getQualifiedName();
+	}
+
+	/**
+	 * Records a finished invocation of a test, any status.
+	 */
+	public void record(ITestResult result) {
+		final long millis = Math.max(0, result.getEndMillis() - result.getStartMillis());
+		record(keyOf(result), millis, result.getStatus());
+	}
+
+	void record(final String key, final long millis, final int status) {
+		RunEntry runEntry = currentRun.computeIfAbsent(key, k -> new RunEntry());
+		runEntry.millis.add(millis);
+		if (status == ITestResult.FAILURE || status == ITestResult.SUCCESS_PERCENTAGE_FAILURE) {
+			runEntry.failed = true;
+		}
+		if (status != ITestResult.SKIP) {
+			runEntry.executed = true;
+		}
+	}
+
+	public Optional<Entry> get(final String key) {
+		return Optional.ofNullable(entries.get(key));
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Folds the durations recorded since the last save into the history and writes the file.
+	 */
+	public synchronized void save() {
+		if (currentRun.isEmpty()) {
+			return;
+		}
+		final long now = Instant.now().getEpochSecond();
+		Map<String, Entry> ours = new HashMap<>();
+		currentRun.forEach((key, runEntry) -> {
+			Entry previous = entries.get(key);
+			final long runMillis = runEntry.millis.sum();
+			long millis;
+			if (!runEntry.executed) {
+				millis = previous != null ? previous.millis : runMillis;
+			} else if (previous == null) {
+				millis = runMillis;
+			} else {
+				millis = Math.round(previous.millis * (1 - LATEST_RUN_WEIGHT) + runMillis * LATEST_RUN_WEIGHT);
+			}
+			ours.put(key, new Entry(millis, runEntry.failed, now));
+		});
+		currentRun.clear();
+
+		try {
+			Path directory = file.toAbsolutePath().getParent();
+			Files.createDirectories(directory);
+			try (FileChannel lockChannel = FileChannel.open(directory.resolve(file.getFileName() + ".lock"),
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+				// held until the channel is closed
+				lockChannel.lock();
+				Map<String, Entry> merged = new TreeMap<>(read(file));
+				merged.putAll(ours);
+				merged.values().removeIf(entry -> now - entry.lastRun > RETENTION.getSeconds());
+				write(merged);
+				entries.clear();
+				entries.putAll(merged);
+			}
+			log.debug("Saved {} test durations to {}", entries.size(), file);
+		} catch (IOException e) {
+			entries.putAll(ours);
+			log.warn("Could not save the test durations to {}: {}", file, e.getMessage());
+		}
+	}
+
+	private void write(Map<String, Entry> merged) throws IOException {
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+			writer.write("# method\tmillis\tfailed\tlastRun");
+			writer.newLine();
+			for (Map.Entry<String, Entry> entry : merged.entrySet()) {
+				Entry value = entry.getValue();
+				writer.write(entry.getKey() + '\t' + value.millis + '\t' + (value.failed ? 1 : 0) + '\t' + value.lastRun);
+				writer.newLine();
+			}
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static Map<String, Entry> read(Path file) {
+		Map<String, Entry> read = new HashMap<>();
+		if (!Files.isRegularFile(file)) {
+			return read;
+		}
+		try {
+			for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+				String[] columns = line.split("\t");
+				if (line.startsWith("#") || columns.length != 4) {
+					continue;
+				}
+				try {
+					read.put(columns[0], new Entry(Long.parseLong(columns[1]), "1".equals(columns[2]), Long.parseLong(columns[3])));
+				} catch (NumberFormatException e) {
+					log.debug("Ignoring malformed duration line '{}'", line);
+				}
+			}
+		} catch (IOException e) {
+			log.warn("Could not read the test durations from {}: {}", file, e.getMessage());
+		}
+		return read;
+	}
+
+	private static final class RunEntry {
+		private final LongAdder millis = new LongAdder();
+		private volatile boolean failed;
+		private volatile boolean executed;
+	}
+
+	public static final class Entry {
+		private final long millis;
+		private final boolean failed;
+		private final long lastRun;
+
+		Entry(final long millis, final boolean failed, final long lastRun) {
+			this.millis = millis;
+			this.failed = failed;
+			this.lastRun = lastRun;
+		}
+
+		/** Expected duration of all invocations of the method. */
+		public long getMillis() {
+			return millis;
+		}
+
+		/** The method failed in its latest run. */
+		public boolean isFailed() {
+			return failed;
+		}
+
+		public Instant getLastRun() {
+			return Instant.ofEpochSecond(lastRun);
+		}
+
+		@Override
+		public String toString() {
+			return millis + "ms" + (failed ? " (failed)" : "");
+		}
+	}
+}
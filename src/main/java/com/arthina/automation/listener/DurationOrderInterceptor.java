@@ -0,0 +1,109 @@
+package com.arthina.automation.listener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.xml.XmlSuite;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Orders the test methods longest-processing-time-first from the {@link DurationHistory}, so the long tests start
+ * while all threads are busy instead of leaving one thread working alone at the end of a parallel run.
+ * With {@code parallel="methods"} the methods are ordered, with {@code classes}/{@code instances} whole classes
+ * (summed method durations) and the methods of a class keep their order.
+ * Methods without history count as the median of the known ones.
+ * <p>
+ * Suite parameters: {@code scheduleByDuration} (default true) and {@code scheduleFailedFirst} (default false), which
+ * runs what failed in the latest run first for faster feedback, also without parallelism.
+ * A serial run without failed-first keeps the TestNG order.
+ */
+@Slf4j
+public class DurationOrderInterceptor implements IMethodInterceptor {
+
+	@Override
+	public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+		final boolean byDuration = booleanParameter(context, "scheduleByDuration", true);
+		final boolean failedFirst = booleanParameter(context, "scheduleFailedFirst", false);
+		// maps the deprecated parallel="true" to methods, as TestNG runs it
+		XmlSuite.ParallelMode parallel = XmlSuite.ParallelMode.skipDeprecatedValues(context.getCurrentXmlTest().getParallel());
+		final boolean parallelMethods = parallel == XmlSuite.ParallelMode.METHODS;
+		final boolean parallelClasses = parallel == XmlSuite.ParallelMode.CLASSES || parallel == XmlSuite.ParallelMode.INSTANCES;
+
+		if (methods.size() < 2 || !((byDuration && (parallelMethods || parallelClasses)) || failedFirst)) {
+			return methods;
+		}
+		List<IMethodInstance> ordered = order(methods, DurationHistory.forContext(context), byDuration, failedFirst, !parallelMethods);
+		log.info("Scheduled {} test methods of {} {}{}", ordered.size(), context.getName(),
+				byDuration ? "longest first" : "in suite order", failedFirst ? ", recently failed first" : "");
+		return ordered;
+	}
+
+	/**
+	 * @param byClass keep the methods of a class together and order the classes
+	 */
+	static List<IMethodInstance> order(List<IMethodInstance> methods, DurationHistory history, final boolean byDuration,
+			final boolean failedFirst, final boolean byClass) {
+		final long unknownMillis = medianMillis(methods, history);
+		Map<Object, Group> groups = new LinkedHashMap<>();
+		for (IMethodInstance method : methods) {
+			Object groupKey = byClass ? method.getMethod().getRealClass() : method;
+			Optional<DurationHistory.Entry> entry = history.get(method.getMethod().getQualifiedName());
+			groups.computeIfAbsent(groupKey, key -> new Group())
+					.add(method, entry.map(DurationHistory.Entry::getMillis).orElse(unknownMillis),
+							entry.map(DurationHistory.Entry::isFailed).orElse(false));
+		}
+
+		Comparator<Group> comparator = (first, second) -> 0;
+		if (failedFirst) {
+			comparator = comparator.thenComparing(group -> !group.failed);
+		}
+		if (byDuration) {
+			comparator = comparator.thenComparing(Comparator.comparingLong((Group group) -> group.millis).reversed());
+		}
+		// stable sort: ties keep the TestNG order
+		List<Group> sortedGroups = new ArrayList<>(groups.values());
+		sortedGroups.sort(comparator);
+
+		List<IMethodInstance> ordered = new ArrayList<>(methods.size());
+		sortedGroups.forEach(group -> ordered.addAll(group.methods));
+		if (log.isDebugEnabled()) {
+			sortedGroups.forEach(group -> log.debug("{}ms{} {}", group.millis, group.failed ? " failed" : "", group.methods));
+		}
+		return ordered;
+	}
+
+	private static long medianMillis(List<IMethodInstance> methods, DurationHistory history) {
+		long[] known = methods.stream()
+				.map(method -> history.get(method.getMethod().getQualifiedName()))
+				.filter(Optional::isPresent)
+				.mapToLong(entry -> entry.get().getMillis())
+				.sorted()
+				.toArray();
+		return known.length == 0 ? 0 : known[known.length / 2];
+	}
+
+	private static boolean booleanParameter(ITestContext context, final String name, final boolean defaultValue) {
+		final String value = context.getSuite().getParameter(name);
+		return value == null || value.trim().isEmpty() ? defaultValue : Boolean.parseBoolean(value.trim());
+	}
+
+	private static final class Group {
+		private final List<IMethodInstance> methods = new ArrayList<>();
+		private long millis;
+		private boolean failed;
+
+		private void add(IMethodInstance method, final long methodMillis, final boolean methodFailed) {
+			methods.add(method);
+			millis += methodMillis;
+			failed |= methodFailed;
+		}
+	}
+}
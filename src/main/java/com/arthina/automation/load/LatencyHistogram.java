@@ -0,0 +1,108 @@
+package com.arthina.automation.load;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free latency histogram in the layout of HdrHistogram: microsecond values are counted in buckets that are exact
+ * below 128 us and then split every power of two into 64 sub buckets, so any percentile is within 1.6% of the
+ * recorded value from 1 us up to hours, in a fixed 30 KB. Safe to record into from many threads.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int BUCKETS = LINEAR_LIMIT + (Long.SIZE - SUB_BUCKET_BITS - 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    public void record(Duration duration) {
+        recordMicros(Math.max(0, duration.toNanos() / 1_000));
+    }
+
+    void recordMicros(final long micros) {
+        counts.incrementAndGet(index(micros));
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public Duration getMean() {
+        final long samples = count.sum();
+        return samples == 0 ? Duration.ZERO : Duration.ofNanos(totalMicros.sum() * 1_000 / samples);
+    }
+
+    public Duration getMax() {
+        return Duration.ofNanos(maxMicros.get() * 1_000);
+    }
+
+    /**
+     * @param percentile 0..100, e.g. 99 for the p99
+     * @return the highest value in the bucket holding the percentile, never above the recorded maximum
+     */
+    public Duration getPercentile(final double percentile) {
+        final long samples = count.sum();
+        if (samples == 0) {
+            return Duration.ZERO;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(samples * Math.min(percentile, 100) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Duration.ofNanos(Math.min(highestInBucket(i), maxMicros.get()) * 1_000);
+            }
+        }
+        return getMax();
+    }
+
+    /** Adds the counts of another histogram, e.g. to sum up per user histograms. */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            final long bucket = other.counts.get(i);
+            if (bucket > 0) {
+                counts.addAndGet(i, bucket);
+            }
+        }
+        count.add(other.count.sum());
+        totalMicros.add(other.totalMicros.sum());
+        maxMicros.accumulate(other.maxMicros.get());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1fms p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms", getCount(),
+                millis(getMean()), millis(getPercentile(50)), millis(getPercentile(95)), millis(getPercentile(99)),
+                millis(getMax()));
+    }
+
+    static int index(final long micros) {
+        if (micros < LINEAR_LIMIT) {
+            return (int) micros;
+        }
+        final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) ((micros >>> shift) - SUB_BUCKETS);
+    }
+
+    static long highestInBucket(final int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        final int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        final long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+}
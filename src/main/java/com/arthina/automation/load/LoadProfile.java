@@ -0,0 +1,94 @@
+package com.arthina.automation.load;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * How a test is run as load: users concurrent virtual users, started evenly over rampUp, each repeating the test
+ * iterationsPerUser times or, when 0, until duration has passed since the start (ramp-up included).
+ * The limits turn the run into a check: a p99 above maxP99 or more failed iterations than maxErrorPercent fail the test.
+ */
+public final class LoadProfile {
+    private final int users;
+    private final Duration rampUp;
+    private final Duration duration;
+    private final long iterationsPerUser;
+    private final Duration maxP99;
+    private final double maxErrorPercent;
+
+    public LoadProfile(final int users, Duration rampUp, Duration duration, final long iterationsPerUser,
+                       Duration maxP99, final double maxErrorPercent) {
+        this.users = users;
+        this.rampUp = rampUp;
+        this.duration = duration;
+        this.iterationsPerUser = iterationsPerUser;
+        this.maxP99 = maxP99;
+        this.maxErrorPercent = maxErrorPercent;
+    }
+
+    /**
+     * Reads the load* parameters of the suite xml, loadUsers="0" (the default) leaves load mode off.
+     */
+    public static LoadProfile of(Map<String, String> parameters) {
+        return new LoadProfile(
+                Integer.parseInt(parameters.getOrDefault("loadUsers", "0")),
+                Duration.ofSeconds(Long.parseLong(parameters.getOrDefault("loadRampUpSeconds", "0"))),
+                Duration.ofSeconds(Long.parseLong(parameters.getOrDefault("loadDurationSeconds", "30"))),
+                Long.parseLong(parameters.getOrDefault("loadIterations", "0")),
+                Duration.ofMillis(Long.parseLong(parameters.getOrDefault("loadMaxP99Millis", "0"))),
+                Double.parseDouble(parameters.getOrDefault("loadMaxErrorPercent", "0")));
+    }
+
+    public boolean isEnabled() {
+        return users > 0;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public Duration getRampUp() {
+        return rampUp;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /** 0 = run for the duration. */
+    public long getIterationsPerUser() {
+        return iterationsPerUser;
+    }
+
+    /** Zero = no limit. */
+    public Duration getMaxP99() {
+        return maxP99;
+    }
+
+    public double getMaxErrorPercent() {
+        return maxErrorPercent;
+    }
+
+    /**
+     * @return why the run breaks the limits of this profile, empty when it keeps them
+     */
+    public Optional<String> check(LoadRun run) {
+        final double errorPercent = run.getErrorPercent();
+        if (errorPercent > maxErrorPercent) {
+            return Optional.of(String.format("%s: %.2f%% of %d iterations failed, at most %.2f%% allowed, first failure: %s",
+                    run.getName(), errorPercent, run.getIterations().getCount(), maxErrorPercent, run.getFirstError()));
+        }
+        final Duration p99 = run.getIterations().getPercentile(99);
+        if (!maxP99.isZero() && p99.compareTo(maxP99) > 0) {
+            return Optional.of(String.format("%s: p99 %d ms above the limit of %d ms", run.getName(), p99.toMillis(), maxP99.toMillis()));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d users, ramp-up %.1f s, %s", users, rampUp.toMillis() / 1000.0,
+                iterationsPerUser > 0 ? iterationsPerUser + " iterations each" : String.format("%.1f s", duration.toMillis() / 1000.0));
+    }
+}
@@ -0,0 +1,104 @@
+package com.arthina.automation.load;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of one {@link LoadRunner} run: the latency of every iteration (one call of the test) and, per name, of every
+ * request made while iterating, e.g. "api GET" recorded by the API timing filter of the user threads.
+ */
+public final class LoadRun {
+    private static final ThreadLocal<LoadRun> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final LoadProfile profile;
+    private final LatencyHistogram iterations = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> requests = new ConcurrentSkipListMap<>();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+    private volatile Duration elapsed = Duration.ZERO;
+
+    LoadRun(final String name, LoadProfile profile) {
+        this.name = name;
+        this.profile = profile;
+    }
+
+    /**
+     * @return the run the calling thread is a virtual user of, empty outside of load runs
+     */
+    public static Optional<LoadRun> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    static void setCurrent(LoadRun run) {
+        if (run == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(run);
+        }
+    }
+
+    public void recordRequest(final String requestName, Duration took) {
+        requests.computeIfAbsent(requestName, key -> new LatencyHistogram()).record(took);
+    }
+
+    void recordIteration(Duration took, Throwable error) {
+        iterations.record(took);
+        if (error != null) {
+            errors.increment();
+            firstError.compareAndSet(null, error);
+        }
+    }
+
+    void finish(Duration elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LoadProfile getProfile() {
+        return profile;
+    }
+
+    public LatencyHistogram getIterations() {
+        return iterations;
+    }
+
+    public Map<String, LatencyHistogram> getRequests() {
+        return requests;
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public double getErrorPercent() {
+        final long count = iterations.getCount();
+        return count == 0 ? 0 : errors.sum() * 100.0 / count;
+    }
+
+    public Throwable getFirstError() {
+        return firstError.get();
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /** Iterations per second over the whole run, ramp-up included. */
+    public double getThroughput() {
+        return elapsed.isZero() ? 0 : iterations.getCount() * 1_000_000_000.0 / elapsed.toNanos();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s): %.1f s, %.1f iterations/s, %d errors, %s", name, profile,
+                elapsed.toMillis() / 1000.0, getThroughput(), getErrors(), iterations);
+    }
+}
@@ -0,0 +1,91 @@
+package com.arthina.automation.load;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Repeats an iteration, typically the body of a functional {@code @Test}, from the virtual users of a {@link LoadProfile}.
+ * Every user is a thread of a pool of its own, sized to the user count and independent of the TestNG threads, so
+ * hundreds of users do not queue behind thread-count. Iterations run back to back without think time; the latency of
+ * each goes into the {@link LoadRun}, a failure is counted and the user carries on.
+ */
+@Slf4j
+public final class LoadRunner {
+
+    private LoadRunner() {
+    }
+
+    public static LoadRun run(final String name, LoadProfile profile, Callable<?> iteration) throws InterruptedException {
+        final LoadRun run = new LoadRun(name, profile);
+        final int users = profile.getUsers();
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(users, runnable -> {
+            Thread thread = new Thread(runnable, "load-user-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Load run of {}: {}", name, profile);
+        final long start = System.nanoTime();
+        final long deadline = start + profile.getDuration().toNanos();
+        try {
+            List<Future<?>> futures = new ArrayList<>(users);
+            for (int user = 0; user < users; user++) {
+                final long startAt = start + profile.getRampUp().toNanos() * user / users;
+                futures.add(executor.submit(() -> runUser(run, iteration, startAt, deadline)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load user of " + name + " died", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        run.finish(Duration.ofNanos(System.nanoTime() - start));
+        log.info("Load run {}", run);
+        return run;
+    }
+
+    private static void runUser(LoadRun run, Callable<?> iteration, final long startAt, final long deadline) {
+        sleepUntil(startAt);
+        final long iterations = run.getProfile().getIterationsPerUser();
+        LoadRun.setCurrent(run);
+        try {
+            for (long done = 0; iterations > 0 ? done < iterations : System.nanoTime() < deadline; done++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                final long iterationStart = System.nanoTime();
+                Throwable error = null;
+                try {
+                    iteration.call();
+                } catch (InvocationTargetException e) {
+                    error = e.getCause();
+                } catch (Exception | AssertionError e) {
+                    error = e;
+                }
+                run.recordIteration(Duration.ofNanos(System.nanoTime() - iterationStart), error);
+            }
+        } finally {
+            LoadRun.setCurrent(null);
+        }
+    }
+
+    private static void sleepUntil(final long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
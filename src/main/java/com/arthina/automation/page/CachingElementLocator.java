@@ -0,0 +1,65 @@
+package com.arthina.automation.page;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+
+import java.util.List;
+
+/**
+ * Locator of one page field, see {@link CachingElementLocatorFactory}. Page objects are used by a single test thread.
+ */
+class CachingElementLocator implements ElementLocator {
+    private final SearchContext searchContext;
+    private final By by;
+    private final boolean cacheable;
+    private WebElement cachedElement;
+
+    CachingElementLocator(SearchContext searchContext, By by, final boolean cacheable) {
+        this.searchContext = searchContext;
+        this.by = by;
+        this.cacheable = cacheable;
+    }
+
+    @Override
+    public WebElement findElement() {
+        if (!cacheable) {
+            return searchContext.findElement(by);
+        }
+        if (cachedElement != null) {
+            CachingElementLocatorFactory.recordHit();
+            return cachedElement;
+        }
+        CachingElementLocatorFactory.recordMiss();
+        cachedElement = searchContext.findElement(by);
+        return cachedElement;
+    }
+
+    @Override
+    public List<WebElement> findElements() {
+        return searchContext.findElements(by);
+    }
+
+    /**
+     * Drops the cached element after it went stale.
+     * @return true when there was a cached element to drop, so retrying with a fresh lookup makes sense
+     */
+    boolean invalidateStale() {
+        if (cachedElement == null) {
+            return false;
+        }
+        cachedElement = null;
+        CachingElementLocatorFactory.recordInvalidation();
+        return true;
+    }
+
+    void invalidate() {
+        cachedElement = null;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " '" + by + "'";
+    }
+}
@@ -0,0 +1,97 @@
+package com.arthina.automation.page;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.support.pagefactory.Annotations;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+import org.openqa.selenium.support.pagefactory.ElementLocatorFactory;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Locator factory of one page instance: a {@code @FindBy} element is looked up on first use and reused
+ * until it goes stale, the page navigates ({@link #invalidateAll()}) or the field opts out with
+ * {@link NoCacheLookup}. Staleness is detected by {@link StaleElementRetryDecorator}, which drops the cached
+ * element and retries the call once on a fresh lookup.
+ * Element lists are never cached, their size follows the DOM.
+ */
+public class CachingElementLocatorFactory implements ElementLocatorFactory {
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder INVALIDATIONS = new LongAdder();
+
+    private final SearchContext searchContext;
+    private final boolean pageCacheable;
+    private final List<CachingElementLocator> locators = new CopyOnWriteArrayList<>();
+
+    public CachingElementLocatorFactory(SearchContext searchContext) {
+        this(searchContext, Object.class);
+    }
+
+    /**
+     * @param pageClass class of the page the fields belong to, a {@link NoCacheLookup} on it also covers the fields
+     *                  it inherits, as in {@link PageMetadata}
+     */
+    public CachingElementLocatorFactory(SearchContext searchContext, Class<?> pageClass) {
+        this.searchContext = searchContext;
+        this.pageCacheable = !pageClass.isAnnotationPresent(NoCacheLookup.class);
+    }
+
+    @Override
+    public ElementLocator createLocator(Field field) {
+        return createLocator(new Annotations(field).buildBy(), pageCacheable && !field.isAnnotationPresent(NoCacheLookup.class)
+                && !field.getDeclaringClass().isAnnotationPresent(NoCacheLookup.class));
+    }
+
+    ElementLocator createLocator(By by, final boolean cacheable) {
+        CachingElementLocator locator = new CachingElementLocator(searchContext, by, cacheable);
+        if (cacheable) {
+            locators.add(locator);
+        }
+        return locator;
+    }
+
+    /**
+     * Drops every cached element of the page, called after navigating.
+     */
+    public void invalidateAll() {
+        locators.forEach(CachingElementLocator::invalidate);
+    }
+
+    static void recordHit() {
+        HITS.increment();
+    }
+
+    static void recordMiss() {
+        MISSES.increment();
+    }
+
+    static void recordInvalidation() {
+        INVALIDATIONS.increment();
+    }
+
+    /** Suite wide number of element accesses served from the cache. */
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    /** Suite wide number of element lookups sent to the driver by cacheable locators. */
+    public static long getMisses() {
+        return MISSES.sum();
+    }
+
+    /** Suite wide number of cached elements dropped because they went stale. */
+    public static long getInvalidations() {
+        return INVALIDATIONS.sum();
+    }
+
+    public static String statistics() {
+        final long hits = getHits();
+        final long lookups = hits + getMisses();
+        return String.format("hits=%d misses=%d stale=%d hit-ratio=%d%%", hits, getMisses(), getInvalidations(),
+                lookups == 0 ? 0 : hits * 100 / lookups);
+    }
+}
@@ -0,0 +1,157 @@
+package com.arthina.automation.page;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable state of a set of elements (text, value, visibility, selection and requested attributes)
+ * read with a single executeScript call, instead of one or more WebDriver calls per element.
+ */
+public final class ElementSnapshot {
+
+    private static final String ELEMENT_STATE_FUNCTION =
+            "function state(e, attributes) {" +
+            "  var style = window.getComputedStyle(e);" +
+            "  var visible = !!(e.offsetWidth || e.offsetHeight || e.getClientRects().length)" +
+            "      && style.visibility !== 'hidden' && style.display !== 'none';" +
+            "  var text = e.tagName === 'OPTION' ? e.text : (visible ? e.innerText : '');" +
+            "  var attributeValues = {};" +
+            "  attributes.forEach(function(name) { attributeValues[name] = e.getAttribute(name); });" +
+            "  return {text: (text || '').trim(), value: e.value === undefined ? null : String(e.value)," +
+            "      visible: visible, selected: !!(e.selected || e.checked), attributes: attributeValues};" +
+            "}";
+
+    private static final String ELEMENTS_SCRIPT = ELEMENT_STATE_FUNCTION +
+            "var attributes = arguments[1];" +
+            "return Array.prototype.map.call(arguments[0], function(e) { return state(e, attributes); });";
+
+    private static final String OPTIONS_SCRIPT = ELEMENT_STATE_FUNCTION +
+            "var attributes = arguments[1];" +
+            "return Array.prototype.map.call(arguments[0].options, function(e) { return state(e, attributes); });";
+
+    private final List<ElementState> elements;
+
+    private ElementSnapshot(List<ElementState> elements) {
+        this.elements = Collections.unmodifiableList(elements);
+    }
+
+    public static ElementSnapshot of(WebDriver driver, List<WebElement> elements, String... attributes) {
+        if (elements.isEmpty()) {
+            return new ElementSnapshot(Collections.emptyList());
+        }
+        return fromScript(((JavascriptExecutor) driver).executeScript(ELEMENTS_SCRIPT, elements, Arrays.asList(attributes)));
+    }
+
+    /**
+     * Snapshot of all options of a select element.
+     */
+    public static ElementSnapshot optionsOf(WebDriver driver, WebElement select, String... attributes) {
+        return fromScript(((JavascriptExecutor) driver).executeScript(OPTIONS_SCRIPT, select, Arrays.asList(attributes)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ElementSnapshot fromScript(Object result) {
+        List<ElementState> states = new ArrayList<>();
+        for (Object item : (List<Object>) result) {
+            Map<String, Object> state = (Map<String, Object>) item;
+            Map<String, String> attributes = new HashMap<>();
+            Object attributeValues = state.get("attributes");
+            if (attributeValues instanceof Map) {
+                ((Map<String, Object>) attributeValues).forEach((name, value) -> attributes.put(name, value == null ? null : value.toString()));
+            }
+            states.add(new ElementState(
+                    (String) state.get("text"),
+                    (String) state.get("value"),
+                    Boolean.TRUE.equals(state.get("visible")),
+                    Boolean.TRUE.equals(state.get("selected")),
+                    attributes));
+        }
+        return new ElementSnapshot(states);
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    public ElementState get(final int index) {
+        return elements.get(index);
+    }
+
+    public List<ElementState> getElements() {
+        return elements;
+    }
+
+    public List<String> texts() {
+        return elements.stream().map(ElementState::getText).collect(Collectors.toList());
+    }
+
+    public List<String> values() {
+        return elements.stream().map(ElementState::getValue).collect(Collectors.toList());
+    }
+
+    public List<ElementState> selected() {
+        return elements.stream().filter(ElementState::isSelected).collect(Collectors.toList());
+    }
+
+    /**
+     * @return true when no element is hidden, so also for an empty snapshot: there is nothing left to wait for
+     */
+    public boolean allVisible() {
+        return elements.stream().allMatch(ElementState::isVisible);
+    }
+
+    @Override
+    public String toString() {
+        return texts().toString();
+    }
+
+    public static final class ElementState {
+        private final String text;
+        private final String value;
+        private final boolean visible;
+        private final boolean selected;
+        private final Map<String, String> attributes;
+
+        ElementState(String text, String value, boolean visible, boolean selected, Map<String, String> attributes) {
+            this.text = text;
+            this.value = value;
+            this.visible = visible;
+            this.selected = selected;
+            this.attributes = Collections.unmodifiableMap(attributes);
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public boolean isVisible() {
+            return visible;
+        }
+
+        /** Selected option, or checked checkbox/radio. */
+        public boolean isSelected() {
+            return selected;
+        }
+
+        public String getAttribute(final String name) {
+            return attributes.get(name);
+        }
+
+        public Map<String, String> getAttributes() {
+            return attributes;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.arthina.automation.page;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Values for a form, filled by {@link FormFiller} in one scripted batch.
+ * Fields can be given as {@link WebElement} or {@link By}; text inputs/textareas take the text, selects the
+ * visible option text(s), checkboxes/radios "true"/"false" and file inputs the file path(s). Fields added with {@link #type} are typed with
+ * real keystrokes after the batch, for inputs that only react to key events. Values are trimmed, as
+ * PageBase.writeText always typed them.
+ */
+public class FormData {
+    private final List<Field> fields = new ArrayList<>();
+
+    public static FormData of(Map<?, ?> values) {
+        FormData formData = new FormData();
+        values.forEach((target, value) -> formData.add(target, value, false));
+        return formData;
+    }
+
+    public FormData set(WebElement element, final String value) {
+        return add(element, value, false);
+    }
+
+    public FormData set(By locator, final String value) {
+        return add(locator, value, false);
+    }
+
+    public FormData check(WebElement element, final boolean checked) {
+        return add(element, checked, false);
+    }
+
+    public FormData check(By locator, final boolean checked) {
+        return add(locator, checked, false);
+    }
+
+    /**
+     * Selects exactly the given options of a (multiple) select, all other options get deselected.
+     */
+    public FormData select(WebElement element, List<String> visibleTexts) {
+        return add(element, visibleTexts, false);
+    }
+
+    public FormData select(By locator, List<String> visibleTexts) {
+        return add(locator, visibleTexts, false);
+    }
+
+    /**
+     * Opt-in real keystroke typing for this field.
+     */
+    public FormData type(WebElement element, final String value) {
+        return add(element, value, true);
+    }
+
+    public List<Field> getFields() {
+        return Collections.unmodifiableList(fields);
+    }
+
+    public boolean isEmpty() {
+        return fields.isEmpty();
+    }
+
+    private FormData add(Object target, Object value, final boolean typed) {
+        if (!(target instanceof WebElement) && !(target instanceof By)) {
+            throw new IllegalArgumentException("Form field must be a WebElement or a By but was " + target);
+        }
+        List<String> values = new ArrayList<>();
+        if (value instanceof List) {
+            ((List<?>) value).forEach(item -> values.add(StringUtils.trim(String.valueOf(item))));
+        } else {
+            values.add(value == null ? "" : StringUtils.trim(String.valueOf(value)));
+        }
+        fields.add(new Field(target, values, typed));
+        return this;
+    }
+
+    public static final class Field {
+        private final Object target;
+        private final List<String> values;
+        private final boolean typed;
+
+        private Field(Object target, List<String> values, boolean typed) {
+            this.target = target;
+            this.values = Collections.unmodifiableList(values);
+            this.typed = typed;
+        }
+
+        /** {@link WebElement} or {@link By}. */
+        public Object getTarget() {
+            return target;
+        }
+
+        public List<String> getValues() {
+            return values;
+        }
+
+        public boolean isTyped() {
+            return typed;
+        }
+
+        @Override
+        public String toString() {
+            return target + "=" + values;
+        }
+    }
+}
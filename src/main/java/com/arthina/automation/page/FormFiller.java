@@ -0,0 +1,175 @@
+package com.arthina.automation.page;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills a {@link FormData} with a single executeScript call: values are set through the native value setter
+ * (so framework bound inputs notice), the input/change events are fired and the resulting value of every field
+ * is read back for verification in the same call. Options are matched by their visible text with whitespace
+ * normalized, like Select.selectByVisibleText. File inputs cannot be set from a script, the script hands them back
+ * and they get the file path(s) through sendKeys; a field that fails in the script fails only its own result.
+ */
+@Slf4j
+public class FormFiller {
+
+    private static final String FILL_SCRIPT =
+            "function resolve(f) {" +
+            "  if (f.element) { return f.element; }" +
+            "  if (f.using === 'css selector') { return document.querySelector(f.value); }" +
+            "  if (f.using === 'xpath') {" +
+            "    return document.evaluate(f.value, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue; }" +
+            "  return null;" +
+            "}" +
+            "function fire(e, type) { e.dispatchEvent(new Event(type, {bubbles: true})); }" +
+            "function norm(text) { return text.replace(/\\s+/g, ' ').trim(); }" +
+            "function fill(f) {" +
+            "  var e = resolve(f);" +
+            "  if (!e) { return {ok: false, actual: null, error: 'element not found'}; }" +
+            "  var tag = e.tagName.toLowerCase(), type = (e.type || '').toLowerCase(), actual;" +
+            "  if (e.disabled || e.readOnly) { return {ok: false, actual: null, error: 'element is disabled/read-only'}; }" +
+            "  if (type === 'file') { return {ok: false, actual: null, file: e}; }" +
+            "  if (tag === 'select') {" +
+            "    var selected = [], values = f.values.map(norm);" +
+            "    Array.prototype.forEach.call(e.options, function(o) {" +
+            "      var wanted = values.indexOf(norm(o.text)) >= 0;" +
+            "      if (wanted && (e.multiple || selected.length === 0)) { o.selected = true; selected.push(norm(o.text)); }" +
+            "      else if (e.multiple) { o.selected = false; }" +
+            "    });" +
+            "    fire(e, 'input'); fire(e, 'change');" +
+            "    actual = Array.prototype.filter.call(e.options, function(o) { return o.selected; })" +
+            "        .map(function(o) { return norm(o.text); });" +
+            "    return {ok: actual.length === values.length && values.every(function(v) { return actual.indexOf(v) >= 0; }), actual: actual.join(',')};" +
+            "  }" +
+            "  if (type === 'checkbox' || type === 'radio') {" +
+            "    var wantChecked = f.values[0] === 'true';" +
+            "    if (e.checked !== wantChecked) { e.click(); }" +
+            "    return {ok: e.checked === wantChecked, actual: String(e.checked)};" +
+            "  }" +
+            "  var setter = Object.getOwnPropertyDescriptor(Object.getPrototypeOf(e), 'value');" +
+            "  e.focus();" +
+            "  if (setter && setter.set) { setter.set.call(e, f.values[0]); } else { e.value = f.values[0]; }" +
+            "  fire(e, 'input'); fire(e, 'change'); e.blur();" +
+            "  return {ok: e.value === f.values[0], actual: e.value};" +
+            "}" +
+            "return arguments[0].map(function(f) {" +
+            "  try { return fill(f); } catch (err) { return {ok: false, actual: null, error: String(err)}; }" +
+            "});";
+
+    private final WebDriver driver;
+
+    public FormFiller(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Fills all scripted fields of the form in one round trip.
+     * @return one result per scripted field, in form order (typed fields are not included)
+     */
+    @SuppressWarnings("unchecked")
+    public List<FieldResult> fill(FormData formData) {
+        List<FormData.Field> scriptedFields = new ArrayList<>();
+        List<Map<String, Object>> arguments = new ArrayList<>();
+        for (FormData.Field field : formData.getFields()) {
+            if (!field.isTyped()) {
+                scriptedFields.add(field);
+                arguments.add(toArgument(field));
+            }
+        }
+        List<FieldResult> results = new ArrayList<>();
+        if (arguments.isEmpty()) {
+            return results;
+        }
+
+        List<Object> outcome = (List<Object>) ((JavascriptExecutor) driver).executeScript(FILL_SCRIPT, arguments);
+        for (int i = 0; i < scriptedFields.size(); i++) {
+            Map<String, Object> result = (Map<String, Object>) outcome.get(i);
+            if (result.get("file") instanceof WebElement) {
+                results.add(upload(scriptedFields.get(i), (WebElement) result.get("file")));
+            } else {
+                results.add(new FieldResult(scriptedFields.get(i), Boolean.TRUE.equals(result.get("ok")),
+                        (String) result.get("actual"), (String) result.get("error")));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Sends the path(s) to a file input, several files are separated by new lines.
+     */
+    private static FieldResult upload(FormData.Field field, WebElement fileInput) {
+        final String paths = String.join("\n", field.getValues());
+        try {
+            fileInput.sendKeys(paths);
+            return new FieldResult(field, true, paths, null);
+        } catch (WebDriverException e) {
+            return new FieldResult(field, false, null, e.getMessage());
+        }
+    }
+
+    private Map<String, Object> toArgument(FormData.Field field) {
+        Map<String, Object> argument = new HashMap<>();
+        argument.put("values", field.getValues());
+        Object target = field.getTarget();
+        if (target instanceof WebElement) {
+            argument.put("element", target);
+        } else if (target instanceof By.Remotable) {
+            By.Remotable.Parameters parameters = ((By.Remotable) target).getRemoteParameters();
+            if ("css selector".equals(parameters.using()) || "xpath".equals(parameters.using())) {
+                argument.put("using", parameters.using());
+                argument.put("value", parameters.value());
+            } else {
+                argument.put("element", driver.findElement((By) target));
+            }
+        } else {
+            log.debug("Locator {} cannot be resolved in the page script, looking it up first", target);
+            argument.put("element", driver.findElement((By) target));
+        }
+        return argument;
+    }
+
+    public static final class FieldResult {
+        private final FormData.Field field;
+        private final boolean ok;
+        private final String actual;
+        private final String error;
+
+        FieldResult(FormData.Field field, boolean ok, String actual, String error) {
+            this.field = field;
+            this.ok = ok;
+            this.actual = actual;
+            this.error = error;
+        }
+
+        public FormData.Field getField() {
+            return field;
+        }
+
+        /** The field holds the requested value after the fill. */
+        public boolean isOk() {
+            return ok;
+        }
+
+        public String getActual() {
+            return actual;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return field + (ok ? " OK" : " FAILED (actual: " + actual + (error != null ? ", " + error : "") + ")");
+        }
+    }
+}
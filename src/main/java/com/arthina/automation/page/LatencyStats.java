@@ -0,0 +1,84 @@
+package com.arthina.automation.page;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Suite wide latency counters (count, total, min, max) for page level operations such as settles and waits,
+ * so their timeouts can be tuned from real numbers.
+ */
+@Slf4j
+public final class LatencyStats {
+    private static final Map<String, LatencyStats> REGISTRY = new ConcurrentSkipListMap<>();
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator minNanos = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final AtomicLong timeouts = new AtomicLong();
+
+    private LatencyStats(String name) {
+        this.name = name;
+    }
+
+    public static LatencyStats of(final String name) {
+        return REGISTRY.computeIfAbsent(name, LatencyStats::new);
+    }
+
+    public static Map<String, LatencyStats> all() {
+        return REGISTRY;
+    }
+
+    public static void logAll() {
+        REGISTRY.values().stream().filter(stats -> stats.getCount() > 0).forEach(stats -> log.info("Latency {}", stats));
+    }
+
+    public void record(Duration duration, final boolean timedOut) {
+        final long nanos = duration.toNanos();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        minNanos.accumulate(nanos);
+        if (timedOut) {
+            timeouts.incrementAndGet();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    public Duration getMean() {
+        final long samples = count.sum();
+        return samples == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos.sum() / samples);
+    }
+
+    public Duration getMax() {
+        return Duration.ofNanos(maxNanos.get());
+    }
+
+    public Duration getMin() {
+        return getCount() == 0 ? Duration.ZERO : Duration.ofNanos(minNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: count=%d mean=%dms min=%dms max=%dms timeouts=%d", name, getCount(),
+                getMean().toMillis(), getMin().toMillis(), getMax().toMillis(), getTimeouts());
+    }
+}
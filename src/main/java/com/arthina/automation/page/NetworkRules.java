@@ -0,0 +1,27 @@
+package com.arthina.automation.page;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Adjusts the suite network filter (networkBlockedUrls in the suite xml) while this page object is in use,
+ * applied when the page is constructed or opened. Patterns use {@code *} as wildcard.
+ * <pre>
+ * &#64;NetworkRules(allow = "*.png", block = "*&#47;recommendations*")
+ * public class GalleryPage extends PageBase { ... }
+ * </pre>
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface NetworkRules {
+
+    /** Blocked on top of the suite block list. */
+    String[] block() default {};
+
+    /** Suite block patterns this page needs, e.g. the images it asserts on. */
+    String[] allow() default {};
+}
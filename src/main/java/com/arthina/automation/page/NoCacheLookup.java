@@ -0,0 +1,18 @@
+package com.arthina.automation.page;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opts a {@code @FindBy} field (or every field of a page class) out of the element cache of
+ * {@link CachingElementLocatorFactory}, so each access looks the element up again. Use it for elements
+ * the application re-renders without a navigation, e.g. rows of a live updating grid.
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.TYPE})
+public @interface NoCacheLookup {
+}
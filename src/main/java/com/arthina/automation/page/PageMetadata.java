@@ -0,0 +1,130 @@
+package com.arthina.automation.page;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindAll;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.FindBys;
+import org.openqa.selenium.support.pagefactory.Annotations;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+import org.openqa.selenium.support.pagefactory.internal.LocatingElementListHandler;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The element fields of a page class with their parsed locators, computed once per class.
+ * Binding a page instance ({@link #bind}) then only creates the locators and proxies,
+ * instead of {@code PageFactory.initElements} reflecting over the class and building every {@link By} again.
+ * Fields are picked like the default PageFactory decorator does: every non-static {@link WebElement} field
+ * and every {@code List<WebElement>} annotated with {@link FindBy}, {@link FindBys} or {@link FindAll}.
+ */
+public final class PageMetadata {
+    private static final ClassValue<PageMetadata> METADATA = new ClassValue<PageMetadata>() {
+        @Override
+        protected PageMetadata computeValue(Class<?> pageClass) {
+            return new PageMetadata(pageClass);
+        }
+    };
+
+    private final List<ElementField> fields;
+
+    private PageMetadata(Class<?> pageClass) {
+        final boolean pageCacheable = !pageClass.isAnnotationPresent(NoCacheLookup.class);
+        List<ElementField> elementFields = new ArrayList<>();
+        for (Class<?> type = pageClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+                    continue;
+                }
+                final boolean list = isElementList(field);
+                if (list || WebElement.class.isAssignableFrom(field.getType())) {
+                    field.setAccessible(true);
+                    elementFields.add(new ElementField(field, new Annotations(field).buildBy(), list,
+                            pageCacheable && !field.isAnnotationPresent(NoCacheLookup.class)));
+                }
+            }
+        }
+        this.fields = Collections.unmodifiableList(elementFields);
+    }
+
+    public static PageMetadata of(Class<?> pageClass) {
+        return METADATA.get(pageClass);
+    }
+
+    public List<ElementField> getFields() {
+        return fields;
+    }
+
+    /**
+     * Sets proxies for all element fields of the page, looking elements up through the given factory.
+     */
+    public void bind(Object page, CachingElementLocatorFactory factory) {
+        final ClassLoader loader = page.getClass().getClassLoader();
+        for (ElementField elementField : fields) {
+            ElementLocator locator = factory.createLocator(elementField.by, elementField.cacheable);
+            final Object proxy = elementField.list
+                    ? Proxy.newProxyInstance(loader, new Class<?>[]{List.class}, new LocatingElementListHandler(locator))
+                    : StaleElementRetryDecorator.proxyFor(loader, locator);
+            try {
+                elementField.field.set(page, proxy);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Unable to bind " + elementField.field, e);
+            }
+        }
+    }
+
+    private static boolean isElementList(Field field) {
+        if (!List.class.isAssignableFrom(field.getType())) {
+            return false;
+        }
+        final Type genericType = field.getGenericType();
+        if (!(genericType instanceof ParameterizedType)
+                || !WebElement.class.equals(((ParameterizedType) genericType).getActualTypeArguments()[0])) {
+            return false;
+        }
+        return field.isAnnotationPresent(FindBy.class) || field.isAnnotationPresent(FindBys.class)
+                || field.isAnnotationPresent(FindAll.class);
+    }
+
+    public static final class ElementField {
+        private final Field field;
+        private final By by;
+        private final boolean list;
+        private final boolean cacheable;
+
+        ElementField(Field field, By by, boolean list, boolean cacheable) {
+            this.field = field;
+            this.by = by;
+            this.list = list;
+            this.cacheable = cacheable;
+        }
+
+        public Field getField() {
+            return field;
+        }
+
+        public By getBy() {
+            return by;
+        }
+
+        public boolean isList() {
+            return list;
+        }
+
+        public boolean isCacheable() {
+            return cacheable;
+        }
+
+        @Override
+        public String toString() {
+            return field.getName() + "=" + by;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.arthina.automation.page;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares when a page object is ready, on top of the DOM being parsed.
+ * All given conditions must hold, see {@link ReadinessProbe#forPage(Class)}.
+ * <pre>
+ * &#64;PageReady(css = "#dashboard", script = "return window.appReady === true;")
+ * public class DashboardPage extends PageBase { ... }
+ * </pre>
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface PageReady {
+
+    /** CSS selector of a key element that must be visible. */
+    String css() default "";
+
+    /** Script that must return true, e.g. an app-ready flag. */
+    String script() default "";
+
+    /** Wait for network/DOM quiescence as well, see {@link PageSettleEngine}. */
+    boolean networkIdle() default false;
+
+    /** How long to wait for the page to become ready. */
+    long timeoutMillis() default 20000;
+}
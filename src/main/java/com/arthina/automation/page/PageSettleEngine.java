@@ -0,0 +1,198 @@
+package com.arthina.automation.page;
+
+import com.google.common.collect.MapMaker;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits until the page is quiet after an interaction instead of sleeping for a fixed time.
+ * The page is considered settled when the document is loaded, no XHR/fetch request is pending,
+ * no DOM mutation happened for the idle window and no finite animation is running.
+ * Tracking is done with a small script injected into the page, so it works for every browser. Injected after the
+ * page loaded it misses the requests that were already in flight, so Chromium drivers get it registered for every
+ * new document with {@link #instrumentNewDocuments}; other browsers count the idle time from the last resource the
+ * page finished loading as well (Resource Timing), which only leaves requests still running before the first probe
+ * unseen.
+ */
+@Slf4j
+public class PageSettleEngine {
+    private static final LatencyStats SETTLE_STATS = LatencyStats.of("page-settle");
+
+    private static final String INSTRUMENT_SCRIPT =
+            "var s = window.__arthinaSettle;" +
+            "if (!s) {" +
+            "  s = window.__arthinaSettle = {pending: 0, lastChange: performance.now()};" +
+            "  var touch = function() { s.lastChange = performance.now(); };" +
+            "  new MutationObserver(touch).observe(document, {childList: true, subtree: true, attributes: true, characterData: true});" +
+            "  var send = XMLHttpRequest.prototype.send;" +
+            "  XMLHttpRequest.prototype.send = function() {" +
+            "    s.pending++; touch();" +
+            "    this.addEventListener('loadend', function() { s.pending = Math.max(0, s.pending - 1); touch(); });" +
+            "    return send.apply(this, arguments);" +
+            "  };" +
+            "  if (window.fetch) {" +
+            "    var originalFetch = window.fetch;" +
+            "    window.fetch = function() {" +
+            "      s.pending++; touch();" +
+            "      var done = function() { s.pending = Math.max(0, s.pending - 1); touch(); };" +
+            "      return originalFetch.apply(this, arguments).then(function(r) { done(); return r; }, function(e) { done(); throw e; });" +
+            "    };" +
+            "  }" +
+            "}";
+
+    // the idle time counts from the interaction, an already instrumented page may have been quiet for long
+    private static final String ARM_SCRIPT = INSTRUMENT_SCRIPT + "s.lastChange = performance.now();";
+
+    private static final String PROBE_SCRIPT = INSTRUMENT_SCRIPT +
+            "var lastChange = s.lastChange;" +
+            "performance.getEntriesByType('resource').forEach(function(r) { lastChange = Math.max(lastChange, r.responseEnd); });" +
+            "var animations = document.getAnimations ? document.getAnimations().filter(function(a) {" +
+            "  return a.playState === 'running' && a.effect && a.effect.getTiming().iterations !== Infinity; }).length : 0;" +
+            "return [document.readyState, s.pending, Math.round(performance.now() - lastChange), animations];";
+
+    private static final Set<WebDriver> INSTRUMENTED_DRIVERS = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+
+    private static volatile Duration defaultIdleWindow = Duration.ofMillis(300);
+    private static volatile Duration defaultTimeout = Duration.ofSeconds(10);
+    private static volatile Duration pollInterval = Duration.ofMillis(50);
+
+    private final WebDriver driver;
+    private final Duration idleWindow;
+    private final Duration timeout;
+
+    public PageSettleEngine(WebDriver driver) {
+        this(driver, defaultIdleWindow, defaultTimeout);
+    }
+
+    public PageSettleEngine(WebDriver driver, Duration idleWindow, Duration timeout) {
+        this.driver = driver;
+        this.idleWindow = idleWindow;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Suite wide defaults, set from the suite parameters by TestBase.
+     */
+    public static void configure(Duration idleWindow, Duration timeout, Duration poll) {
+        defaultIdleWindow = idleWindow;
+        defaultTimeout = timeout;
+        pollInterval = poll;
+    }
+
+    /**
+     * Registers the tracking script to run in every document the driver loads from now on, before the scripts of
+     * the page, so requests sent while the page loads are counted too. A no-op for drivers without DevTools and
+     * for drivers already registered.
+     * @return the driver
+     */
+    public static WebDriver instrumentNewDocuments(WebDriver driver) {
+        if (driver instanceof HasCdp && INSTRUMENTED_DRIVERS.add(driver)) {
+            try {
+                ((HasCdp) driver).executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", Collections.singletonMap("source", INSTRUMENT_SCRIPT));
+            } catch (WebDriverException e) {
+                log.debug("Unable to instrument new documents for settle detection: {}", e.getMessage());
+            }
+        }
+        return driver;
+    }
+
+    /**
+     * Installs the request/mutation tracking before an interaction, so requests it starts are counted, and restarts
+     * the idle time, so debounced or delayed requests the interaction triggers get the idle window to start.
+     */
+    public void arm() {
+        try {
+            ((JavascriptExecutor) driver).executeScript(ARM_SCRIPT);
+        } catch (WebDriverException e) {
+            log.debug("Unable to instrument the page for settle detection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Blocks until the page is settled or the hard cap is reached.
+     * @return the time it took to settle
+     */
+    public Duration settle() {
+        final long start = System.nanoTime();
+        final long deadline = start + timeout.toNanos();
+        boolean settled = false;
+        String lastState = "";
+
+        while (true) {
+            long waitMillis = pollInterval.toMillis();
+            try {
+                List<?> state = probe();
+                final long idleMillis = ((Number) state.get(2)).longValue();
+                lastState = state.toString();
+
+                if (isQuiet(state)) {
+                    settled = true;
+                    break;
+                }
+                if (isBusyFree(state)) {
+                    // only the idle window is left, wait exactly for it instead of polling
+                    waitMillis = Math.max(waitMillis, idleWindow.toMillis() - idleMillis);
+                }
+            } catch (WebDriverException e) {
+                // the document is being replaced (navigation), probe again on the new page
+                lastState = e.getClass().getSimpleName();
+            }
+
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis) > deadline) {
+                break;
+            }
+            sleep(waitMillis);
+        }
+
+        final Duration took = Duration.ofNanos(System.nanoTime() - start);
+        SETTLE_STATS.record(took, !settled);
+        if (settled) {
+            log.debug("Page settled in {} ms", took.toMillis());
+        } else {
+            log.warn("Page did not settle within {} ms, last state [readyState, pending, idleMs, animations]: {}", timeout.toMillis(), lastState);
+        }
+        return took;
+    }
+
+    /**
+     * Single probe of the page state, true when the page is settled right now.
+     */
+    public boolean isQuiet() {
+        try {
+            return isQuiet(probe());
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    private List<?> probe() {
+        return (List<?>) ((JavascriptExecutor) driver).executeScript(PROBE_SCRIPT);
+    }
+
+    private boolean isQuiet(List<?> state) {
+        return isBusyFree(state) && ((Number) state.get(2)).longValue() >= idleWindow.toMillis();
+    }
+
+    // loaded, no pending request and no running animation, only the idle window may be missing
+    private boolean isBusyFree(List<?> state) {
+        final boolean loaded = "complete".equals(state.get(0)) || "interactive".equals(state.get(0));
+        return loaded && ((Number) state.get(1)).longValue() == 0 && ((Number) state.get(3)).longValue() == 0;
+    }
+
+    private void sleep(final long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.arthina.automation.page;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+
+/**
+ * Tells whether a page is usable. Pages are loaded with the eager page-load strategy,
+ * so navigation returns once the DOM is parsed and the probe decides when the page is ready for the test.
+ */
+@FunctionalInterface
+public interface ReadinessProbe {
+
+    boolean isReady(WebDriver driver);
+
+    default ReadinessProbe and(ReadinessProbe other) {
+        return driver -> isReady(driver) && other.isReady(driver);
+    }
+
+    /**
+     * The DOM is parsed, subresources (images, third-party scripts) may still be loading.
+     */
+    static ReadinessProbe documentInteractive() {
+        return driver -> {
+            final Object readyState = ((JavascriptExecutor) driver).executeScript("return document.readyState;");
+            return "interactive".equals(readyState) || "complete".equals(readyState);
+        };
+    }
+
+    static ReadinessProbe elementVisible(By locator) {
+        return driver -> {
+            List<WebElement> elements = driver.findElements(locator);
+            return !elements.isEmpty() && elements.get(0).isDisplayed();
+        };
+    }
+
+    /**
+     * App-ready flag, e.g. {@code return window.appReady === true;}
+     */
+    static ReadinessProbe scriptTrue(final String script) {
+        return driver -> Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(script));
+    }
+
+    /**
+     * No pending XHR/fetch, DOM mutation or finished resource for the idle window of {@link PageSettleEngine}.
+     * Requests of the current page are counted from its start once the driver was passed to
+     * {@link PageSettleEngine#instrumentNewDocuments}, which the first probe does for the following pages.
+     */
+    static ReadinessProbe networkIdle() {
+        return driver -> new PageSettleEngine(PageSettleEngine.instrumentNewDocuments(driver)).isQuiet();
+    }
+
+    /**
+     * Builds the probe declared by {@link PageReady} on the page class, or {@link #documentInteractive()} when absent.
+     */
+    static ReadinessProbe forPage(Class<?> pageClass) {
+        ReadinessProbe probe = documentInteractive();
+        PageReady pageReady = pageClass.getAnnotation(PageReady.class);
+        if (pageReady == null) {
+            return probe;
+        }
+        if (StringUtils.isNotBlank(pageReady.css())) {
+            probe = probe.and(elementVisible(By.cssSelector(pageReady.css())));
+        }
+        if (StringUtils.isNotBlank(pageReady.script())) {
+            probe = probe.and(scriptTrue(pageReady.script()));
+        }
+        if (pageReady.networkIdle()) {
+            probe = probe.and(networkIdle());
+        }
+        return probe;
+    }
+}
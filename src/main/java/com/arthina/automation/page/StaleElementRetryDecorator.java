@@ -0,0 +1,78 @@
+package com.arthina.automation.page;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+import org.openqa.selenium.support.pagefactory.DefaultFieldDecorator;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+import org.openqa.selenium.support.pagefactory.ElementLocatorFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Field decorator for {@link CachingElementLocatorFactory}: when a call on a cached element fails with
+ * {@link StaleElementReferenceException}, the element is dropped from the cache and the call is retried once
+ * on a fresh lookup. Everything else behaves like the default PageFactory proxies.
+ */
+public class StaleElementRetryDecorator extends DefaultFieldDecorator {
+
+    public StaleElementRetryDecorator(ElementLocatorFactory factory) {
+        super(factory);
+    }
+
+    @Override
+    protected WebElement proxyForLocator(ClassLoader loader, ElementLocator locator) {
+        return proxyFor(loader, locator);
+    }
+
+    static WebElement proxyFor(ClassLoader loader, ElementLocator locator) {
+        return (WebElement) Proxy.newProxyInstance(loader,
+                new Class<?>[]{WebElement.class, WrapsElement.class, Locatable.class}, new RetryingElementHandler(locator));
+    }
+
+    private static final class RetryingElementHandler implements InvocationHandler {
+        private final ElementLocator locator;
+
+        RetryingElementHandler(ElementLocator locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            WebElement element;
+            try {
+                element = locator.findElement();
+            } catch (NoSuchElementException e) {
+                if ("toString".equals(method.getName())) {
+                    return "Proxy element for: " + locator;
+                }
+                throw e;
+            }
+            if ("getWrappedElement".equals(method.getName())) {
+                return element;
+            }
+            try {
+                return method.invoke(element, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof StaleElementReferenceException
+                        && locator instanceof CachingElementLocator && ((CachingElementLocator) locator).invalidateStale()) {
+                    return invokeOnFreshElement(method, args);
+                }
+                throw e.getCause();
+            }
+        }
+
+        private Object invokeOnFreshElement(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(locator.findElement(), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.arthina.automation.page;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Single polling wait used by the page objects, the drivers run without implicit wait.
+ * A condition is met once it returns a non-null value that is not {@code false}, exactly like
+ * {@link org.openqa.selenium.support.ui.ExpectedConditions}, which can be passed in directly.
+ * Polling starts fast and backs off up to the max interval, every wait is recorded in {@link LatencyStats}.
+ */
+@Slf4j
+public class WaitEngine {
+    private static volatile Duration defaultTimeout = Duration.ofSeconds(20);
+    private static volatile Duration initialInterval = Duration.ofMillis(25);
+    private static volatile Duration maxInterval = Duration.ofMillis(500);
+    private static final double BACKOFF_FACTOR = 1.5;
+
+    private final WebDriver driver;
+
+    public WaitEngine(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Suite wide defaults, set from the suite parameters by TestBase.
+     */
+    public static void configure(Duration timeout, Duration initialPoll, Duration maxPoll) {
+        defaultTimeout = timeout;
+        initialInterval = initialPoll;
+        maxInterval = maxPoll;
+    }
+
+    public static Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    public <T> T until(Function<? super WebDriver, T> condition) {
+        return until("custom", condition, defaultTimeout);
+    }
+
+    public <T> T until(final String name, Function<? super WebDriver, T> condition) {
+        return until(name, condition, defaultTimeout);
+    }
+
+    /**
+     * Polls the condition until it is met.
+     * @throws TimeoutException when the condition is not met in time
+     */
+    public <T> T until(final String name, Function<? super WebDriver, T> condition, Duration timeout) {
+        final long start = System.nanoTime();
+        final long deadline = start + timeout.toNanos();
+        long intervalMillis = initialInterval.toMillis();
+        RuntimeException lastError = null;
+
+        while (true) {
+            try {
+                T value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    record(name, start, false);
+                    return value;
+                }
+            } catch (NoSuchElementException | StaleElementReferenceException e) {
+                lastError = e;
+            }
+
+            final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                record(name, start, true);
+                throw new TimeoutException("Waited " + timeout.toMillis() + " ms for " + name + " (" + condition + ")", lastError);
+            }
+            sleep(Math.min(intervalMillis, remainingMillis));
+            intervalMillis = Math.min(maxInterval.toMillis(), (long) Math.ceil(intervalMillis * BACKOFF_FACTOR));
+        }
+    }
+
+    /**
+     * Same as {@link #until(String, Function, Duration)} but answers false instead of failing,
+     * meant for negative or optional checks.
+     */
+    public boolean isMet(final String name, Function<? super WebDriver, ?> condition, Duration timeout) {
+        try {
+            until(name, condition, timeout);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (WebDriverException e) {
+            log.debug("Wait for {} failed: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    private void record(final String name, final long start, final boolean timedOut) {
+        LatencyStats.of("wait-" + name).record(Duration.ofNanos(System.nanoTime() - start), timedOut);
+    }
+
+    private void sleep(final long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException("Interrupted while waiting", e);
+        }
+    }
+}
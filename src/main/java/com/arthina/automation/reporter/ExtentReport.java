@@ -2,6 +2,9 @@ package com.arthina.automation.reporter;
 
 import java.io.File;
 
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,6 +17,7 @@ import com.kstruct.gethostname4j.Hostname;
 public class ExtentReport {
 	private static final Logger LOGGER = LoggerFactory.getLogger(ExtentReport.class);
 	private static final String FILE_SEPERATOR = System.getProperty("file.separator");
+	static final String SHARD_PREFIX = ".fork-";
     private static String DOCUMENT_TITLE = "Arthina Automation Report";
     private static String REPORT_NAME = "Test Execution Report - Arthina Merchant Solutions";
 //    private static String REPORT_FILE_NAME = "Test-Execution-Report.html";
@@ -44,7 +48,7 @@ public class ExtentReport {
         extent.setSystemInfo("Browser", "Chrome");
 		extent.setSystemInfo("OS", System.getProperty("os.name"));
 		extent.setSystemInfo("Owner", "Arthina Kumar");
-		extent.setSystemInfo("HostName", Hostname.getHostname());
+		extent.setSystemInfo("HostName", getHostName());
 		extent.setAnalysisStrategy(AnalysisStrategy.TEST);
         extent.attachReporter(htmlReporter);
 
@@ -55,8 +59,25 @@ public class ExtentReport {
         return extent;
     }
      
+    //Host name from the environment when set, the native lookup can stall for seconds on hosts without DNS
+    private static String getHostName() {
+        final String hostName = StringUtils.defaultIfBlank(System.getenv("HOSTNAME"), System.getenv("COMPUTERNAME"));
+        return StringUtils.isNotBlank(hostName) ? hostName : Hostname.getHostname();
+    }
+
+    //Suffix naming this JVM's report shard when the suite is split over several JVMs, empty otherwise.
+    //The shard details come from the reportShardId/reportShardCount system properties, set by the ShardCoordinator workers.
+    static String getShardSuffix() {
+        final int shardCount = NumberUtils.toInt(System.getProperty("reportShardCount"), 1);
+        final String shardId = System.getProperty("reportShardId");
+        return shardCount > 1 && StringUtils.isNotBlank(shardId) ? SHARD_PREFIX + shardId : "";
+    }
+
     //Create the report path
-    private static String getReportPath() {
+    /**
+     * @return the directory of the report files, the system property reportDir when set, else target/ExecutionReports
+     */
+    public static String getReportPath() {
     	//String path = null;
     	String workingDir = System.getProperty("user.dir");
     	LOGGER.debug("Working Directory: {}", workingDir);
@@ -69,7 +90,8 @@ public class ExtentReport {
 //        	System.out.println("Formed Report Path(Mac): " + path);
 //        }
 
-        final String reportBasePath = String.join(FILE_SEPERATOR, workingDir, "target", "ExecutionReports");
+        final String reportBasePath = StringUtils.defaultIfBlank(System.getProperty("reportDir"),
+        		String.join(FILE_SEPERATOR, workingDir, "target", "ExecutionReports"));
 
     	File testDirectory = new File(reportBasePath);
         if (!testDirectory.exists()) {
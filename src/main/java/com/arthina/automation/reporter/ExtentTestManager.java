@@ -1,86 +1,360 @@
 package com.arthina.automation.reporter;
 
-import java.util.HashMap;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
+import com.aventstack.extentreports.markuputils.Markup;
 import com.aventstack.extentreports.model.Media;
+import com.aventstack.extentreports.model.Report;
+import com.aventstack.extentreports.observer.entity.ReportEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.helpers.MessageFormatter;
 import org.testng.annotations.Optional;
-import com.aventstack.extentreports.MediaEntityBuilder;
 import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.Status;
+import com.arthina.automation.reporter.ReportFlusher.FlushPolicy;
 
+/**
+ * Registry of the report nodes for the running suite. Parent (class) nodes are shared across threads,
+ * the current test node is scoped to the thread running the test invocation and is dropped on {@link #endTest()},
+ * so pooled TestNG threads never pick up a node from a previous invocation.
+ *
+ * In {@link ReportMode#STREAM} mode no report model is kept in memory, every event is appended to a
+ * {@link ReportEventLog} instead and the HTML is built afterwards by {@link ReportRenderer}.
+ *
+ * In {@link ReportMode#HTML} mode test threads add to the report model under the read lock of a shared lock, so they
+ * still log concurrently. The {@link ReportFlusher} takes the write lock only to copy the model into a
+ * {@link ReportSnapshot} and renders that copy after releasing it, so a flush never iterates a model that is being
+ * appended to and logging only waits for the copy, not for the render.
+ *
+ * Steps below the configured report level are dropped before any message is built; the {@link Supplier}
+ * and "{}" template overloads defer building the message (and any WebDriver call it needs) until then.
+ */
 public class ExtentTestManager {
-	private static Map<String, ExtentTest> extentParentTestMap = new HashMap<String, ExtentTest>();
-	private static Map<Integer, ExtentTest> extentTestMap = new HashMap<Integer, ExtentTest>();
-	private static ExtentReports extent;
+	private static final Logger LOGGER = LoggerFactory.getLogger(ExtentTestManager.class);
+	private static final Map<String, ExtentTest> extentParentTestMap = new ConcurrentHashMap<String, ExtentTest>();
+	private static final ThreadLocal<ExtentTest> extentTest = new ThreadLocal<ExtentTest>();
+	private static final ThreadLocal<Long> streamTestId = new ThreadLocal<Long>();
+	private static final AtomicLong streamTestSequence = new AtomicLong();
+	private static final ReadWriteLock modelLock = new ReentrantReadWriteLock();
+	private static volatile ExtentReports extent;
+	private static volatile ReportEventLog eventLog;
+	private static volatile ReportFlusher reportFlusher;
+	private static volatile Status reportLevel = Status.INFO;
+
+	@FunctionalInterface
+	public interface DeferredLog {
+		void log(Status status, String message, Media media);
+	}
+
+	public enum ReportMode {
+		/** Spark HTML report built in memory and flushed by the {@link ReportFlusher}. */
+		HTML,
+		/** Events streamed to an append-only log, rendered offline by {@link ReportRenderer}. */
+		STREAM
+	}
 
 	public static synchronized void startReport(final String reportName) {
-		extent = ExtentReport.getInstance(reportName);
+		startReport(reportName, ReportMode.HTML, FlushPolicy.SUITE_END, 1, Duration.ZERO);
+	}
+
+	public static synchronized void startReport(final String reportName, ReportMode reportMode, FlushPolicy flushPolicy,
+												final int flushEveryTests, Duration flushInterval) {
+		if (reportFlusher != null) {
+			return;
+		}
+		final String shardName = reportName + ExtentReport.getShardSuffix();
+		if (reportMode == ReportMode.STREAM) {
+			eventLog = new ReportEventLog(Paths.get(ExtentReport.getReportPath(), shardName + ReportRenderer.EVENT_LOG_EXTENSION));
+			eventLog.suiteStarted(reportName);
+			reportFlusher = new ReportFlusher(eventLog::flush, flushPolicy, flushEveryTests, flushInterval);
+		} else {
+			final ExtentReports report = ExtentReport.getInstance(shardName);
+			extent = report;
+			reportFlusher = new ReportFlusher(() -> flushModel(report), flushPolicy, flushEveryTests, flushInterval);
+		}
+	}
+
+	/**
+	 * Writes the final report; further logging is still recorded but only rendered by a later flush.
+	 */
+	public static synchronized void endReport() {
+		if (reportFlusher != null) {
+			reportFlusher.close();
+			reportFlusher = null;
+		}
+		if (eventLog != null) {
+			eventLog.close();
+			LOGGER.info("Report events written to {}, render with {} {}", eventLog.getFile(), ReportRenderer.class.getName(), eventLog.getFile());
+			eventLog = null;
+		}
+	}
+
+
+	/**
+	 * Adds a name/value pair to the environment section of the report, e.g. suite wide statistics.
+	 */
+	public static void setSystemInfo(final String name, final String value) {
+		ReportEventLog events = eventLog;
+		if (events != null) {
+			events.systemInfo(name, value);
+		} else if (extent != null) {
+			updateModel(() -> {
+				extent.setSystemInfo(name, value);
+				return null;
+			});
+		}
+	}
+
+	public static void setReportLevel(Status level) {
+		reportLevel = level;
+	}
+
+	public static Status getReportLevel() {
+		return reportLevel;
 	}
-	
-	
-	public static synchronized ExtentTest createTest(String className) {
-		ExtentTest parent = extent.createTest(className);
+
+	public static boolean isEnabled(Status status) {
+		return status.getLevel() >= reportLevel.getLevel();
+	}
+
+	public static ExtentTest createTest(String className) {
+		ReportEventLog events = eventLog;
+		if (events != null) {
+			events.classStarted(className);
+			return null;
+		}
+		ExtentTest parent = updateModel(() -> extent.createTest(className));
 		extentParentTestMap.put(className, parent);
 		return parent;
 	}
-	
-	public static synchronized ExtentTest getParent(final String className) {
-		return (ExtentTest) extentParentTestMap.get(className);		
+
+	public static ExtentTest getParent(final String className) {
+		return extentParentTestMap.get(className);
 	}
-	
-	public static synchronized ExtentTest getTest() {
-		return (ExtentTest) extentTestMap.get((int) (long) (Thread.currentThread().getId()));
+
+	/**
+	 * @return the test node of the current thread, always null in {@link ReportMode#STREAM} mode
+	 */
+	public static ExtentTest getTest() {
+		return extentTest.get();
 	}
 
-	public static synchronized ExtentTest startTest(String className, String testName, @Optional String testDescription) {
-		ExtentTest test = getParent(className).createNode(testName, testDescription);
-		extentTestMap.put((int) (long) (Thread.currentThread().getId()), test);
+	public static ExtentTest startTest(String className, String testName, @Optional String testDescription) {
+		ReportEventLog events = eventLog;
+		if (events != null) {
+			final long testId = streamTestSequence.incrementAndGet();
+			streamTestId.set(testId);
+			events.testStarted(testId, className, testName, testDescription);
+			return null;
+		}
+		ExtentTest test = updateModel(() -> getParent(className).createNode(testName, testDescription));
+		extentTest.set(test);
 		return test;
 	}
-	
-	public static synchronized void endTest() {
-		extent.flush();
+
+	public static void endTest() {
+		extentTest.remove();
+		final Long testId = streamTestId.get();
+		ReportEventLog events = eventLog;
+		if (testId != null) {
+			streamTestId.remove();
+			if (events != null) {
+				events.testEnded(testId);
+			}
+		}
+		ReportFlusher flusher = reportFlusher;
+		if (flusher != null) {
+			flusher.onTestEnded();
+		}
+	}
+
+	public static void log(Status status, Markup markup) {
+		if (!isEnabled(status)) {
+			return;
+		}
+		ExtentTest test = getTest();
+		if (test != null) {
+			updateModel(() -> test.log(status, markup));
+		} else {
+			logToStream(status, markup.getMarkup(), null, null);
+		}
+	}
+
+	public static void log(Status status, Throwable throwable) {
+		if (throwable == null || !isEnabled(status)) {
+			return;
+		}
+		ExtentTest test = getTest();
+		if (test != null) {
+			updateModel(() -> test.log(status, throwable));
+		} else {
+			logToStream(status, null, throwable, null);
+		}
+	}
+
+	/**
+	 * Log entry point bound to the test node of the calling thread, for work that completes on another thread
+	 * (e.g. the {@link ScreenshotPipeline}) after the test thread has moved on.
+	 */
+	public static DeferredLog deferredLog() {
+		final ExtentTest test = getTest();
+		final Long testId = streamTestId.get();
+		final ReportEventLog events = eventLog;
+		return (status, message, media) -> {
+			if (!isEnabled(status)) {
+				return;
+			}
+			if (test != null) {
+				updateModel(() -> test.log(status, message, media));
+			} else if (testId != null && events != null) {
+				events.log(testId, status, message, null, media);
+			} else {
+				LOGGER.debug("No test to attach [{}] {}", status, message);
+			}
+		};
 	}
 
 	public static void logPass(String successMessage){
-		getTest().log(Status.PASS, successMessage);
+		log(Status.PASS, successMessage, null);
 	}
-	
+
 	public static void logFail(String failureMessage){
-		getTest().log(Status.FAIL, failureMessage);
+		log(Status.FAIL, failureMessage, null);
 	}
 
 	public static void logFailWithScreenShot(String failureMessage, Media media){
-		getTest().log(Status.FAIL, failureMessage, media);
+		log(Status.FAIL, failureMessage, media);
 	}
 
 	public static void logInfo(String infoMessage){
-		getTest().log(Status.INFO, infoMessage);
+		log(Status.INFO, infoMessage, null);
 	}
-	
+
+	public static void logInfo(Supplier<String> infoMessage){
+		if (isEnabled(Status.INFO)) {
+			log(Status.INFO, infoMessage.get(), null);
+		}
+	}
+
+	public static void logInfo(String infoTemplate, Object arg){
+		if (isEnabled(Status.INFO)) {
+			log(Status.INFO, MessageFormatter.format(infoTemplate, arg).getMessage(), null);
+		}
+	}
+
+	public static void logInfo(String infoTemplate, Object arg1, Object arg2){
+		if (isEnabled(Status.INFO)) {
+			log(Status.INFO, MessageFormatter.format(infoTemplate, arg1, arg2).getMessage(), null);
+		}
+	}
+
+	public static void logInfo(String infoTemplate, Object... args){
+		if (isEnabled(Status.INFO)) {
+			log(Status.INFO, MessageFormatter.arrayFormat(infoTemplate, args).getMessage(), null);
+		}
+	}
+
 	public static void logError(String errorMessage){
-		getTest().log(Status.FAIL, errorMessage);
+		log(Status.FAIL, errorMessage, null);
 	}
-	
+
 	public static void logError(String errorMessage, Throwable t){
-		getTest().log(Status.FAIL, errorMessage);
+		log(Status.FAIL, errorMessage, null);
 	}
-	
+
 	public static void logWarning(String warnMessage){
-		getTest().log(Status.WARNING, warnMessage);
+		log(Status.WARNING, warnMessage, null);
 	}
-	
+
+	public static void logWarning(Supplier<String> warnMessage){
+		if (isEnabled(Status.WARNING)) {
+			log(Status.WARNING, warnMessage.get(), null);
+		}
+	}
+
 	public static void logFatal(String fatalMessage){
-		getTest().log(Status.FAIL, fatalMessage);
+		log(Status.FAIL, fatalMessage, null);
 	}
-	
+
 	public static void logSkip(String skipMessage){
-		getTest().log(Status.SKIP, skipMessage);
+		log(Status.SKIP, skipMessage, null);
 	}
-	
+
 	public static void logDebug(String debugMessage){
-		getTest().log(Status.INFO, debugMessage);
-	}	
-}
\ No newline at end of file
+		log(Status.INFO, debugMessage, null);
+	}
+
+	public static void logDebug(Supplier<String> debugMessage){
+		if (isEnabled(Status.INFO)) {
+			log(Status.INFO, debugMessage.get(), null);
+		}
+	}
+
+	public static void logDebug(String debugTemplate, Object arg){
+		if (isEnabled(Status.INFO)) {
+			log(Status.INFO, MessageFormatter.format(debugTemplate, arg).getMessage(), null);
+		}
+	}
+
+	private static void log(Status status, String message, Media media) {
+		if (!isEnabled(status)) {
+			return;
+		}
+		ExtentTest test = getTest();
+		if (test == null) {
+			logToStream(status, message, null, media);
+		} else if (media == null) {
+			updateModel(() -> test.log(status, message));
+		} else {
+			updateModel(() -> test.log(status, message, media));
+		}
+	}
+
+	static <T> T updateModel(Supplier<T> update) {
+		modelLock.readLock().lock();
+		try {
+			return update.get();
+		} finally {
+			modelLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Does what {@link ExtentReports#flush()} does, but on a copy of the model so the reporters render it
+	 * without holding the lock.
+	 */
+	static void flushModel(ExtentReports report) {
+		final Report snapshot;
+		modelLock.writeLock().lock();
+		try {
+			snapshot = ReportSnapshot.of(report.getReport());
+		} finally {
+			modelLock.writeLock().unlock();
+		}
+		snapshot.refresh();
+		if (!report.isUsingNaturalConf()) {
+			snapshot.applyOverrideConf();
+		}
+		report.getReportSubject().onNext(ReportEntity.builder().report(snapshot).build());
+	}
+
+	private static void logToStream(Status status, String message, Throwable throwable, Media media) {
+		final Long testId = streamTestId.get();
+		ReportEventLog events = eventLog;
+		if (testId != null && events != null) {
+			events.log(testId, status, message, throwable, media);
+		} else {
+			LOGGER.debug("No active test on {} to log [{}] {}", Thread.currentThread().getName(), status,
+					message != null ? message : String.valueOf(throwable));
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package com.arthina.automation.reporter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Media;
+import com.aventstack.extentreports.model.ScreenCapture;
+import com.google.gson.JsonObject;
+
+/**
+ * Append-only JSON lines log of report events, written through a fixed size NIO buffer.
+ * Every line is a self contained event, so a log cut short by a crashed run still renders
+ * (see {@link ReportRenderer}) up to the last complete line. Opening the log truncates the one of a previous run,
+ * the test ids restart at 1 and would otherwise mix with its events.
+ */
+public class ReportEventLog implements AutoCloseable {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReportEventLog.class);
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	static final String TYPE = "type";
+	static final String TIMESTAMP = "ts";
+	static final String SUITE = "suite";
+	static final String CLASS = "class";
+	static final String START = "start";
+	static final String LOG = "log";
+	static final String END = "end";
+	static final String INFO = "info";
+	static final String NAME = "name";
+	static final String DESCRIPTION = "description";
+	static final String VALUE = "value";
+	static final String ID = "id";
+	static final String STATUS = "status";
+	static final String MESSAGE = "message";
+	static final String ERROR = "error";
+	static final String MEDIA_PATH = "mediaPath";
+	static final String MEDIA_BASE64 = "mediaBase64";
+	static final String MEDIA_TITLE = "mediaTitle";
+
+	private final Path file;
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	public ReportEventLog(Path file) {
+		this.file = file;
+		try {
+			this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to open report event log " + file, e);
+		}
+		LOGGER.info("Streaming report events to {}", file);
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	public void suiteStarted(final String reportName) {
+		JsonObject event = event(SUITE);
+		event.addProperty(NAME, reportName);
+		append(event);
+	}
+
+	public void classStarted(final String className) {
+		JsonObject event = event(CLASS);
+		event.addProperty(NAME, className);
+		append(event);
+	}
+
+	public void testStarted(final long testId, final String className, final String testName, final String testDescription) {
+		JsonObject event = event(START);
+		event.addProperty(ID, testId);
+		event.addProperty(CLASS, className);
+		event.addProperty(NAME, testName);
+		event.addProperty(DESCRIPTION, testDescription);
+		append(event);
+	}
+
+	public void log(final long testId, Status status, final String message, Throwable throwable, Media media) {
+		JsonObject event = event(LOG);
+		event.addProperty(ID, testId);
+		event.addProperty(STATUS, status.name());
+		if (message != null) {
+			event.addProperty(MESSAGE, message);
+		}
+		if (throwable != null) {
+			event.addProperty(ERROR, ExceptionUtils.getStackTrace(throwable));
+		}
+		if (media != null) {
+			event.addProperty(MEDIA_PATH, media.getPath());
+			if (media instanceof ScreenCapture) {
+				event.addProperty(MEDIA_BASE64, ((ScreenCapture) media).getBase64());
+			}
+			event.addProperty(MEDIA_TITLE, media.getTitle());
+		}
+		append(event);
+	}
+
+	public void testEnded(final long testId) {
+		JsonObject event = event(END);
+		event.addProperty(ID, testId);
+		append(event);
+	}
+
+	public void systemInfo(final String name, final String value) {
+		JsonObject event = event(INFO);
+		event.addProperty(NAME, name);
+		event.addProperty(VALUE, value);
+		append(event);
+	}
+
+	/**
+	 * Hands the buffered events to the OS, so they survive the JVM going away.
+	 */
+	public synchronized void flush() {
+		try {
+			drain();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to write report event log " + file, e);
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		try {
+			drain();
+			channel.force(false);
+			channel.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to close report event log " + file, e);
+		}
+	}
+
+	private JsonObject event(final String type) {
+		JsonObject event = new JsonObject();
+		event.addProperty(TYPE, type);
+		event.addProperty(TIMESTAMP, System.currentTimeMillis());
+		return event;
+	}
+
+	private synchronized void append(JsonObject event) {
+		final byte[] line = (event.toString() + "\n").getBytes(StandardCharsets.UTF_8);
+		try {
+			if (line.length > buffer.remaining()) {
+				drain();
+			}
+			if (line.length > buffer.capacity()) {
+				// large payloads (e.g. base64 screenshots) bypass the buffer
+				ByteBuffer direct = ByteBuffer.wrap(line);
+				while (direct.hasRemaining()) {
+					channel.write(direct);
+				}
+			} else {
+				buffer.put(line);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to write report event log " + file, e);
+		}
+	}
+
+	private void drain() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
@@ -0,0 +1,136 @@
+package com.arthina.automation.reporter;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Flushes the report (Spark HTML or the streamed event log) on a background thread according to a {@link FlushPolicy},
+ * so test threads never block on report I/O.
+ * A final flush always runs on {@link #close()} and from a JVM shutdown hook if the suite never got that far.
+ * The flush action has to exclude concurrent updates of what it writes itself, see {@link ExtentTestManager}.
+ */
+public class ReportFlusher {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReportFlusher.class);
+
+	/**
+	 * How often the report is written while the suite runs. An HTML flush blocks logging threads only while the model
+	 * is copied, which grows with the number of tests and steps (tens of milliseconds for 10 000 steps, see
+	 * ExtentTestManagerTest); the Spark render runs on the copy. Every HTML flush still re-renders the whole report,
+	 * so short intervals cost CPU on large suites. A STREAM flush blocks logging only while it writes the events
+	 * buffered since the previous flush.
+	 */
+	public enum FlushPolicy {
+		/** Flush after every N finished tests. */
+		EVERY_N_TESTS,
+		/** Flush every T seconds when tests finished since the last flush. */
+		INTERVAL,
+		/** Flush only at suite end, or on JVM shutdown. */
+		SUITE_END
+	}
+
+	private final Runnable flushAction;
+	private final FlushPolicy policy;
+	private final int everyNTests;
+	private final ScheduledExecutorService executor;
+	private final AtomicInteger finishedTests = new AtomicInteger();
+	private final AtomicBoolean dirty = new AtomicBoolean();
+	private final AtomicBoolean flushQueued = new AtomicBoolean();
+	private final Thread shutdownHook;
+	private volatile boolean closed;
+
+	public ReportFlusher(Runnable flushAction, FlushPolicy policy, final int everyNTests, Duration interval) {
+		this.flushAction = flushAction;
+		this.policy = policy;
+		this.everyNTests = Math.max(1, everyNTests);
+		this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "extent-report-flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		if (policy == FlushPolicy.INTERVAL) {
+			final long intervalMillis = Math.max(1, interval.toMillis());
+			executor.scheduleWithFixedDelay(this::flushIfDirty, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+		}
+		this.shutdownHook = new Thread(this::flushOnShutdown, "extent-report-shutdown-flush");
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+		LOGGER.info("Extent report flush policy: {} (every {} tests, interval {})", policy, this.everyNTests, interval);
+	}
+
+	/**
+	 * Records a finished test and schedules a background flush when the policy asks for one.
+	 */
+	public void onTestEnded() {
+		dirty.set(true);
+		if (policy == FlushPolicy.EVERY_N_TESTS && finishedTests.incrementAndGet() % everyNTests == 0) {
+			requestFlush();
+		}
+	}
+
+	/**
+	 * Queues a background flush unless one is already waiting to run.
+	 */
+	public void requestFlush() {
+		if (!closed && flushQueued.compareAndSet(false, true)) {
+			executor.execute(() -> {
+				flushQueued.set(false);
+				flushIfDirty();
+			});
+		}
+	}
+
+	/**
+	 * Stops background flushing and writes the final report on the calling thread.
+	 */
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		executor.shutdown();
+		try {
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flush();
+		try {
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		} catch (IllegalStateException e) {
+			// JVM is already shutting down
+		}
+	}
+
+	private void flushIfDirty() {
+		if (dirty.getAndSet(false)) {
+			try {
+				flush();
+			} catch (RuntimeException e) {
+				// e.g. the report file cannot be written right now; an exception would also cancel the interval schedule
+				LOGGER.warn("Background report flush failed, will retry: {}", e.toString());
+				dirty.set(true);
+			}
+		}
+	}
+
+	private void flushOnShutdown() {
+		if (!closed) {
+			LOGGER.warn("JVM shutting down before the suite finished, flushing the partial report");
+			closed = true;
+			executor.shutdownNow();
+			flush();
+		}
+	}
+
+	private synchronized void flush() {
+		final long start = System.currentTimeMillis();
+		flushAction.run();
+		LOGGER.debug("Report flushed in {} ms", System.currentTimeMillis() - start);
+	}
+}
@@ -0,0 +1,90 @@
+package com.arthina.automation.reporter;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.aventstack.extentreports.ExtentReports;
+
+/**
+ * Merges the report shards written by several JVMs (reportMode=STREAM), e.g. the workers of a ShardCoordinator, into one Spark report.
+ * Each shard is streamed line by line into the shared report, tests of the same class end up under one parent node.
+ * Usage: {@code ReportMerger <reportName> [reportDir]}, reportDir defaults to target/ExecutionReports.
+ */
+public class ReportMerger {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReportMerger.class);
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: ReportMerger <reportName> [reportDir]");
+			System.exit(1);
+		}
+		final String reportName = args[0];
+		final Path reportDir = Paths.get(args.length > 1 ? args[1] : ExtentReport.getReportPath());
+
+		final List<Path> shards = findShards(reportDir, reportName);
+		if (shards.isEmpty()) {
+			LOGGER.error("No report shards {}{}*{} found in {}", reportName, ExtentReport.SHARD_PREFIX, ReportRenderer.EVENT_LOG_EXTENSION, reportDir);
+			System.exit(1);
+		}
+		merge(ExtentReport.getInstance(reportName), shards);
+	}
+
+	public static List<Path> findShards(Path reportDir, final String reportName) throws IOException {
+		final List<Path> shards = new ArrayList<Path>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(reportDir, reportName + ExtentReport.SHARD_PREFIX + "*" + ReportRenderer.EVENT_LOG_EXTENSION)) {
+			stream.forEach(shards::add);
+		}
+		Collections.sort(shards);
+		return shards;
+	}
+
+	/**
+	 * Merges the shards picked by their shard id (the part after the fork prefix), e.g. the shard attempts that completed
+	 * in a {@code ShardCoordinator} run. The report takes the name of the first shard, the event logs are kept.
+	 * @return the number of merged shards
+	 */
+	public static int mergeShards(Predicate<String> shardIdFilter) throws IOException {
+		return mergeShards(Paths.get(ExtentReport.getReportPath()), shardIdFilter);
+	}
+
+	public static int mergeShards(Path reportDir, Predicate<String> shardIdFilter) throws IOException {
+		final List<Path> shards = new ArrayList<Path>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(reportDir, "*" + ExtentReport.SHARD_PREFIX + "*" + ReportRenderer.EVENT_LOG_EXTENSION)) {
+			for (Path shard : stream) {
+				final String name = ReportRenderer.reportNameOf(shard);
+				if (shardIdFilter.test(name.substring(name.lastIndexOf(ExtentReport.SHARD_PREFIX) + ExtentReport.SHARD_PREFIX.length()))) {
+					shards.add(shard);
+				}
+			}
+		}
+		if (shards.isEmpty()) {
+			LOGGER.warn("No report shards to merge in {}", reportDir);
+			return 0;
+		}
+		Collections.sort(shards);
+		final String shardName = ReportRenderer.reportNameOf(shards.get(0));
+		merge(ExtentReport.getInstance(shardName.substring(0, shardName.lastIndexOf(ExtentReport.SHARD_PREFIX))), shards);
+		return shards.size();
+	}
+
+	public static void merge(ExtentReports extent, List<Path> shards) throws IOException {
+		final long start = System.currentTimeMillis();
+		ReportRenderer renderer = new ReportRenderer(extent);
+		int events = 0;
+		for (Path shard : shards) {
+			events += renderer.replay(shard);
+		}
+		extent.flush();
+		LOGGER.info("Merged {} events from {} shard(s) in {} ms", events, shards.size(), System.currentTimeMillis() - start);
+	}
+}
@@ -0,0 +1,172 @@
+package com.arthina.automation.reporter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.MediaEntityBuilder;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import com.aventstack.extentreports.model.Log;
+import com.aventstack.extentreports.model.Media;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Builds the Spark HTML report offline from one or more {@link ReportEventLog} files.
+ * Usage: {@code ReportRenderer <events.jsonl> [reportName]}
+ */
+public class ReportRenderer {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReportRenderer.class);
+	static final String EVENT_LOG_EXTENSION = ".events.jsonl";
+
+	private final ExtentReports extent;
+	private final Map<String, ExtentTest> parents = new HashMap<String, ExtentTest>();
+
+	public ReportRenderer(ExtentReports extent) {
+		this.extent = extent;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: ReportRenderer <events.jsonl> [reportName]");
+			System.exit(1);
+		}
+		final Path eventLog = Paths.get(args[0]);
+		final String reportName = args.length > 1 ? args[1] : reportNameOf(eventLog);
+
+		ExtentReports extent = ExtentReport.getInstance(reportName);
+		new ReportRenderer(extent).replay(eventLog);
+		extent.flush();
+	}
+
+	static String reportNameOf(Path eventLog) {
+		final String fileName = eventLog.getFileName().toString();
+		return fileName.endsWith(EVENT_LOG_EXTENSION) ? fileName.substring(0, fileName.length() - EVENT_LOG_EXTENSION.length()) : fileName;
+	}
+
+	/**
+	 * Replays the events of one log into the report. Class nodes are shared between replayed logs,
+	 * test ids are local to each log. Logs written after the end of their test (e.g. screenshots attached
+	 * asynchronously) still go to that test.
+	 * @return number of events applied
+	 */
+	public int replay(Path eventLog) throws IOException {
+		final Map<Long, ExtentTest> tests = new HashMap<Long, ExtentTest>();
+		int events = 0;
+		try (BufferedReader reader = Files.newBufferedReader(eventLog, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty()) {
+					continue;
+				}
+				final JsonObject event;
+				try {
+					event = JsonParser.parseString(line).getAsJsonObject();
+				} catch (JsonParseException | IllegalStateException e) {
+					LOGGER.warn("Skipping incomplete event in {}: {}", eventLog, e.getMessage());
+					continue;
+				}
+				apply(event, tests);
+				events++;
+			}
+		}
+		LOGGER.info("Replayed {} report events from {}", events, eventLog);
+		return events;
+	}
+
+	private void apply(JsonObject event, Map<Long, ExtentTest> tests) {
+		final Date timestamp = new Date(event.get(ReportEventLog.TIMESTAMP).getAsLong());
+		switch (event.get(ReportEventLog.TYPE).getAsString()) {
+			case ReportEventLog.CLASS:
+				parentOf(string(event, ReportEventLog.NAME), timestamp);
+				break;
+			case ReportEventLog.START:
+				ExtentTest parent = parentOf(string(event, ReportEventLog.CLASS), timestamp);
+				ExtentTest test = parent.createNode(string(event, ReportEventLog.NAME), string(event, ReportEventLog.DESCRIPTION));
+				test.getModel().setStartTime(timestamp);
+				tests.put(event.get(ReportEventLog.ID).getAsLong(), test);
+				break;
+			case ReportEventLog.LOG:
+				ExtentTest logTest = tests.get(event.get(ReportEventLog.ID).getAsLong());
+				if (logTest != null) {
+					log(logTest, event, timestamp);
+				}
+				break;
+			case ReportEventLog.END:
+				ExtentTest endedTest = tests.get(event.get(ReportEventLog.ID).getAsLong());
+				if (endedTest != null) {
+					endedTest.getModel().setEndTime(timestamp);
+					com.aventstack.extentreports.model.Test parentModel = endedTest.getModel().getParent();
+					if (parentModel != null && parentModel.getEndTime().before(timestamp)) {
+						parentModel.setEndTime(timestamp);
+					}
+				}
+				break;
+			case ReportEventLog.INFO:
+				extent.setSystemInfo(string(event, ReportEventLog.NAME), string(event, ReportEventLog.VALUE));
+				break;
+			default:
+				break;
+		}
+	}
+
+	private ExtentTest parentOf(final String className, final Date timestamp) {
+		return parents.computeIfAbsent(className, name -> {
+			ExtentTest parent = extent.createTest(name);
+			parent.getModel().setStartTime(timestamp);
+			parent.getModel().setEndTime(timestamp);
+			return parent;
+		});
+	}
+
+	private void log(ExtentTest test, JsonObject event, final Date timestamp) {
+		final Status status = Status.valueOf(string(event, ReportEventLog.STATUS));
+		final String message = string(event, ReportEventLog.MESSAGE);
+		final String error = string(event, ReportEventLog.ERROR);
+		final Media media = media(event);
+
+		if (error != null) {
+			test.log(status, MarkupHelper.createCodeBlock(error));
+		} else if (media != null) {
+			test.log(status, message, media);
+		} else {
+			test.log(status, message);
+		}
+
+		final List<Log> logs = test.getModel().getLogs();
+		if (!logs.isEmpty()) {
+			logs.get(logs.size() - 1).setTimestamp(timestamp);
+		}
+	}
+
+	private Media media(JsonObject event) {
+		final String base64 = string(event, ReportEventLog.MEDIA_BASE64);
+		final String path = string(event, ReportEventLog.MEDIA_PATH);
+		final String title = string(event, ReportEventLog.MEDIA_TITLE);
+		if (base64 != null) {
+			return MediaEntityBuilder.createScreenCaptureFromBase64String(base64, title).build();
+		}
+		if (path != null) {
+			return MediaEntityBuilder.createScreenCaptureFromPath(path, title).build();
+		}
+		return null;
+	}
+
+	private static String string(JsonObject event, final String member) {
+		return event.has(member) && !event.get(member).isJsonNull() ? event.get(member).getAsString() : null;
+	}
+}
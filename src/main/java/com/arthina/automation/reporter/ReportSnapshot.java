@@ -0,0 +1,75 @@
+package com.arthina.automation.reporter;
+
+import com.aventstack.extentreports.model.Author;
+import com.aventstack.extentreports.model.Category;
+import com.aventstack.extentreports.model.Device;
+import com.aventstack.extentreports.model.Log;
+import com.aventstack.extentreports.model.Report;
+import com.aventstack.extentreports.model.Test;
+
+/**
+ * Copy of an Extent report model that a reporter can render while test threads keep appending to the original.
+ * Only the test tree and its lists are copied, the logs, media and attributes are shared as Extent never changes
+ * them once they are added. The copy is taken under the write lock of {@link ExtentTestManager}, so its cost,
+ * not the render, is what a logging thread may wait for.
+ */
+final class ReportSnapshot {
+
+	private ReportSnapshot() {
+	}
+
+	static Report of(Report report) {
+		final Report snapshot = Report.builder()
+				.startTime(report.getStartTime())
+				.endTime(report.getEndTime())
+				.status(report.getStatus())
+				.build();
+		for (Test test : report.getTestList()) {
+			snapshot.getTestList().add(copy(test, null, snapshot));
+		}
+		snapshot.getLogs().addAll(report.getLogs());
+		snapshot.getSystemEnvInfo().addAll(report.getSystemEnvInfo());
+		return snapshot;
+	}
+
+	private static Test copy(Test test, Test parent, Report snapshot) {
+		final Test copy = Test.builder()
+				.useNaturalConf(test.isUseNaturalConf())
+				.startTime(test.getStartTime())
+				.endTime(test.getEndTime())
+				.status(test.getStatus())
+				.level(test.getLevel())
+				.isLeaf(test.isLeaf())
+				.name(test.getName())
+				.description(test.getDescription())
+				.parent(parent)
+				.bddType(test.getBddType())
+				.build();
+		copy.getInfoMap().putAll(test.getInfoMap());
+		copy.getLogs().addAll(test.getLogs());
+		copy.getGeneratedLog().addAll(test.getGeneratedLog());
+		copy.getMedia().addAll(test.getMedia());
+		copy.getExceptions().addAll(test.getExceptions());
+		copy.getAuthorSet().addAll(test.getAuthorSet());
+		copy.getCategorySet().addAll(test.getCategorySet());
+		copy.getDeviceSet().addAll(test.getDeviceSet());
+		for (Author author : test.getAuthorSet()) {
+			snapshot.getAuthorCtx().addContext(author, copy);
+		}
+		for (Category category : test.getCategorySet()) {
+			snapshot.getCategoryCtx().addContext(category, copy);
+		}
+		for (Device device : test.getDeviceSet()) {
+			snapshot.getDeviceCtx().addContext(device, copy);
+		}
+		for (Log log : test.getLogs()) {
+			if (log.hasException()) {
+				snapshot.getExceptionInfoCtx().addContext(log.getException(), copy);
+			}
+		}
+		for (Test child : test.getChildren()) {
+			copy.getChildren().add(copy(child, copy, snapshot));
+		}
+		return copy;
+	}
+}
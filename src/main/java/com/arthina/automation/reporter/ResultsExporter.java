@@ -0,0 +1,163 @@
+package com.arthina.automation.reporter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ITestResult;
+
+/**
+ * Writes every finished test invocation as a row of an .xlsx file while the suite runs.
+ * The SXSSF workbook keeps only the last {@code windowSize} rows in memory, older rows go to a compressed temporary
+ * file, so memory stays flat however many invocations the suite has. A sheet that reaches the Excel row limit
+ * continues on a new sheet. The file is only complete after {@link #close()}.
+ */
+public class ResultsExporter implements AutoCloseable {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ResultsExporter.class);
+	private static final String[] COLUMNS = {"Class", "Test", "Parameters", "Status", "Started", "Duration (ms)", "Failure"};
+	private static final int[] COLUMN_WIDTHS = {40, 40, 50, 10, 20, 14, 100};
+	private static final int MAX_CELL_LENGTH = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+
+	private final Path file;
+	private final int maxRowsPerSheet;
+	private final SXSSFWorkbook workbook;
+	private final CellStyle headerStyle;
+	private final CellStyle dateStyle;
+	private SXSSFSheet sheet;
+	private int sheetRows;
+	private int rows;
+	private boolean closed;
+
+	public ResultsExporter(Path file, final int windowSize) {
+		this(file, windowSize, SpreadsheetVersion.EXCEL2007.getLastRowIndex());
+	}
+
+	ResultsExporter(Path file, final int windowSize, final int maxRowsPerSheet) {
+		this.file = file;
+		this.maxRowsPerSheet = maxRowsPerSheet;
+		this.workbook = new SXSSFWorkbook(windowSize);
+		this.workbook.setCompressTempFiles(true);
+		Font bold = workbook.createFont();
+		bold.setBold(true);
+		this.headerStyle = workbook.createCellStyle();
+		this.headerStyle.setFont(bold);
+		this.dateStyle = workbook.createCellStyle();
+		this.dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+		newSheet();
+	}
+
+	/**
+	 * Exporter writing {@code <suite>-results.xlsx} next to the report of this run (one file per fork).
+	 */
+	public static ResultsExporter forReport(final String suiteName, final int windowSize) {
+		return new ResultsExporter(Paths.get(ExtentReport.getReportPath(), suiteName + ExtentReport.getShardSuffix() + "-results.xlsx"), windowSize);
+	}
+
+	public synchronized void write(ITestResult result) {
+		if (closed) {
+			LOGGER.warn("Results export {} is already written, dropping the result of {}", file, result.getName());
+			return;
+		}
+		if (sheetRows > maxRowsPerSheet) {
+			finishSheet();
+			newSheet();
+		}
+		Row row = sheet.createRow(sheetRows++);
+		row.createCell(0).setCellValue(result.getTestClass().getName());
+		row.createCell(1).setCellValue(result.getMethod().getMethodName());
+		row.createCell(2).setCellValue(cellText(result.getParameters().length > 0 ? Arrays.deepToString(result.getParameters()) : ""));
+		row.createCell(3).setCellValue(statusOf(result.getStatus()));
+		row.createCell(4).setCellValue(new Date(result.getStartMillis()));
+		row.getCell(4).setCellStyle(dateStyle);
+		row.createCell(5).setCellValue(result.getEndMillis() - result.getStartMillis());
+		final Throwable throwable = result.getThrowable();
+		row.createCell(6).setCellValue(throwable == null ? "" : cellText(throwable.toString()));
+		rows++;
+	}
+
+	public synchronized int getRows() {
+		return rows;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Writes the workbook and removes the temporary files.
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		finishSheet();
+		try {
+			Files.createDirectories(file.toAbsolutePath().getParent());
+			try (OutputStream out = Files.newOutputStream(file)) {
+				workbook.write(out);
+			}
+			LOGGER.info("Exported {} test results to {}", rows, file);
+		} catch (IOException e) {
+			LOGGER.error("Unable to write the results export {}: {}", file, e.getMessage(), e);
+		} finally {
+			workbook.dispose();
+			try {
+				workbook.close();
+			} catch (IOException e) {
+				LOGGER.debug("Closing the results workbook failed: {}", e.getMessage());
+			}
+		}
+	}
+
+	private void newSheet() {
+		final int number = workbook.getNumberOfSheets() + 1;
+		sheet = workbook.createSheet(number == 1 ? "Results" : "Results " + number);
+		Row header = sheet.createRow(0);
+		for (int i = 0; i < COLUMNS.length; i++) {
+			header.createCell(i).setCellValue(COLUMNS[i]);
+			header.getCell(i).setCellStyle(headerStyle);
+			sheet.setColumnWidth(i, COLUMN_WIDTHS[i] * 256);
+		}
+		sheet.createFreezePane(0, 1);
+		sheetRows = 1;
+	}
+
+	private void finishSheet() {
+		sheet.setAutoFilter(new CellRangeAddress(0, sheetRows - 1, 0, COLUMNS.length - 1));
+	}
+
+	private static String statusOf(final int status) {
+		switch (status) {
+			case ITestResult.SUCCESS:
+				return "PASS";
+			case ITestResult.FAILURE:
+				return "FAIL";
+			case ITestResult.SKIP:
+				return "SKIP";
+			case ITestResult.SUCCESS_PERCENTAGE_FAILURE:
+				return "FAIL (within success percentage)";
+			default:
+				return String.valueOf(status);
+		}
+	}
+
+	private static String cellText(final String text) {
+		return StringUtils.abbreviate(text, MAX_CELL_LENGTH);
+	}
+}
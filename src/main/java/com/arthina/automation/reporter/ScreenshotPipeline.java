@@ -0,0 +1,260 @@
+package com.arthina.automation.reporter;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.aventstack.extentreports.MediaEntityBuilder;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Media;
+
+/**
+ * Stores failure screenshots off the test thread: the PNG taken by the driver is downscaled to a maximum width,
+ * re-encoded as JPEG and written once per distinct content under {@code <reportDir>/Screenshots/<sha-256>.jpg},
+ * then attached to the test it was taken for (see {@link ExtentTestManager#deferredLog()}).
+ * The report references the stored file relative to the report directory, or inlines the re-encoded
+ * image when {@code inline} is set.
+ *
+ * The work queue is bounded and the test thread never encodes: a screenshot submitted while the queue is full or
+ * after {@link #close()} is dropped with a warning, in the log and on the test it was taken for, and its future
+ * completes exceptionally, as do the futures of screenshots still queued when close gives up waiting.
+ */
+public class ScreenshotPipeline implements AutoCloseable {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ScreenshotPipeline.class);
+	static final String SCREENSHOT_DIR = "Screenshots";
+	private static final String EXTENSION = ".jpg";
+
+	private final Path storeDirectory;
+	private final int maxWidth;
+	private final float quality;
+	private final boolean inline;
+	private final ThreadPoolExecutor executor;
+	private final Map<String, Path> stored = new ConcurrentHashMap<String, Path>();
+	private final AtomicInteger duplicates = new AtomicInteger();
+	private final AtomicInteger dropped = new AtomicInteger();
+	private final AtomicLong capturedBytes = new AtomicLong();
+	private final AtomicLong storedBytes = new AtomicLong();
+
+	public ScreenshotPipeline(Path reportDirectory, final int maxWidth, final float quality, final int queueSize, final boolean inline) {
+		this.storeDirectory = reportDirectory.resolve(SCREENSHOT_DIR);
+		this.maxWidth = maxWidth;
+		this.quality = quality;
+		this.inline = inline;
+		final AtomicInteger threadNumber = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queueSize), runnable -> {
+			Thread thread = new Thread(runnable, "screenshot-pipeline-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	/**
+	 * Pipeline storing into the report directory of this run.
+	 */
+	public static ScreenshotPipeline forReport(final int maxWidth, final float quality, final int queueSize, final boolean inline) {
+		return new ScreenshotPipeline(Paths.get(ExtentReport.getReportPath()), maxWidth, quality, queueSize, inline);
+	}
+
+	/**
+	 * Queues a screenshot and returns immediately.
+	 * @param png screenshot as taken by the driver
+	 * @param title title of the report entry
+	 * @param target test log the screenshot gets attached to once it is stored
+	 * @return the stored file, completed when the screenshot is attached, or exceptionally when it was dropped
+	 */
+	public CompletableFuture<Path> submit(final byte[] png, final String title, ExtentTestManager.DeferredLog target) {
+		final StoreTask task = new StoreTask(png, title, target);
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			task.drop(executor.isShutdown() ? "the pipeline is closed" : "the queue is full", e);
+		}
+		return task.future;
+	}
+
+	/**
+	 * Waits for all queued screenshots to be attached.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+				LOGGER.warn("Screenshot pipeline did not finish within 60s, dropping the queued screenshots");
+				for (Runnable queued : executor.shutdownNow()) {
+					((StoreTask) queued).drop("the pipeline was closed", new CancellationException("Screenshot pipeline closed"));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (!stored.isEmpty() || dropped.get() > 0) {
+			LOGGER.info("Stored {} screenshots ({} duplicates, {} dropped) in {}, {} KB captured, {} KB written", stored.size(), duplicates.get(),
+					dropped.get(), storeDirectory, capturedBytes.get() / 1024, storedBytes.get() / 1024);
+		}
+	}
+
+	public int getStoredCount() {
+		return stored.size();
+	}
+
+	public int getDuplicateCount() {
+		return duplicates.get();
+	}
+
+	public int getDroppedCount() {
+		return dropped.get();
+	}
+
+	Path store(final byte[] png) {
+		capturedBytes.addAndGet(png.length);
+		final String hash = sha256(png);
+		final boolean[] created = new boolean[1];
+		final Path file = stored.computeIfAbsent(hash, key -> {
+			created[0] = true;
+			return write(key, png);
+		});
+		if (!created[0]) {
+			duplicates.incrementAndGet();
+		}
+		return file;
+	}
+
+	private Path write(final String hash, final byte[] png) {
+		final Path file = storeDirectory.resolve(hash + EXTENSION);
+		try {
+			if (Files.exists(file)) {
+				return file;
+			}
+			final byte[] encoded = encode(png);
+			Files.createDirectories(storeDirectory);
+			final Path partial = Files.createTempFile(storeDirectory, hash, ".part");
+			Files.write(partial, encoded);
+			Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			storedBytes.addAndGet(encoded.length);
+			return file;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to store screenshot " + file, e);
+		}
+	}
+
+	byte[] encode(final byte[] png) throws IOException {
+		final BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+		if (image == null) {
+			throw new IOException("Screenshot is not a readable image");
+		}
+		final int width = Math.min(image.getWidth(), maxWidth);
+		final int height = Math.max(1, (int) ((long) image.getHeight() * width / image.getWidth()));
+		// JPEG has no alpha channel, so the image is redrawn as RGB even when it is not scaled
+		final BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		final Graphics2D graphics = scaled.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.drawImage(image, 0, 0, width, height, null);
+		} finally {
+			graphics.dispose();
+		}
+
+		final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+		final ImageWriteParam param = writer.getDefaultWriteParam();
+		param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+		param.setCompressionQuality(quality);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+			writer.setOutput(imageOut);
+			writer.write(null, new IIOImage(scaled, null, null), param);
+		} finally {
+			writer.dispose();
+		}
+		return out.toByteArray();
+	}
+
+	private Media media(final Path file, final String title) {
+		if (inline) {
+			try {
+				return MediaEntityBuilder.createScreenCaptureFromBase64String(Base64.getEncoder().encodeToString(Files.readAllBytes(file)), title).build();
+			} catch (IOException e) {
+				throw new UncheckedIOException("Unable to read screenshot " + file, e);
+			}
+		}
+		return MediaEntityBuilder.createScreenCaptureFromPath(SCREENSHOT_DIR + "/" + file.getFileName(), title).build();
+	}
+
+	/**
+	 * A queued screenshot together with the future handed out for it.
+	 */
+	private final class StoreTask implements Runnable {
+		private final byte[] png;
+		private final String title;
+		private final ExtentTestManager.DeferredLog target;
+		private final CompletableFuture<Path> future = new CompletableFuture<Path>();
+
+		StoreTask(final byte[] png, final String title, ExtentTestManager.DeferredLog target) {
+			this.png = png;
+			this.title = title;
+			this.target = target;
+		}
+
+		@Override
+		public void run() {
+			try {
+				final Path file = store(png);
+				target.log(Status.FAIL, title, media(file, title));
+				future.complete(file);
+			} catch (RuntimeException e) {
+				LOGGER.error("Unable to store screenshot {}: {}", title, e.getMessage(), e);
+				future.completeExceptionally(e);
+			}
+		}
+
+		void drop(final String reason, RuntimeException cause) {
+			dropped.incrementAndGet();
+			LOGGER.warn("Dropping screenshot {}, {}", title, reason);
+			target.log(Status.WARNING, title + " dropped, " + reason, null);
+			future.completeExceptionally(cause);
+		}
+	}
+
+	private static String sha256(final byte[] content) {
+		try {
+			final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+			final StringBuilder hex = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
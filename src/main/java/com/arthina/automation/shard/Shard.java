@@ -0,0 +1,85 @@
+package com.arthina.automation.shard;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test methods run together by one worker JVM, with their expected duration from the history.
+ */
+public final class Shard {
+    private final int id;
+    private final long expectedMillis;
+    private final List<TestMethod> methods;
+
+    Shard(final int id, List<TestMethod> methods) {
+        this.id = id;
+        this.methods = Collections.unmodifiableList(methods);
+        this.expectedMillis = methods.stream().mapToLong(TestMethod::getExpectedMillis).sum();
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getExpectedMillis() {
+        return expectedMillis;
+    }
+
+    public List<TestMethod> getMethods() {
+        return methods;
+    }
+
+    @Override
+    public String toString() {
+        return "shard " + id + " (" + methods.size() + " methods, ~" + expectedMillis + "ms)";
+    }
+
+    /**
+     * A test method of the suite, addressed by suite, {@code <test>} and class name like in the suite xml.
+     */
+    public static final class TestMethod {
+        private final String suiteName;
+        private final String testName;
+        private final String className;
+        private final String methodName;
+        private final long expectedMillis;
+
+        TestMethod(String suiteName, String testName, String className, String methodName, final long expectedMillis) {
+            this.suiteName = suiteName;
+            this.testName = testName;
+            this.className = className;
+            this.methodName = methodName;
+            this.expectedMillis = expectedMillis;
+        }
+
+        public String getSuiteName() {
+            return suiteName;
+        }
+
+        public String getTestName() {
+            return testName;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+
+        /** Same key as {@code ITestNGMethod.getQualifiedName()}, used by the duration history. */
+        public String getQualifiedName() {
+            return className + "." + methodName;
+        }
+
+        public long getExpectedMillis() {
+            return expectedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return getQualifiedName();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.arthina.automation.shard;
+
+import com.google.gson.Gson;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Line delimited JSON {@link ShardMessage}s over a loopback socket.
+ */
+final class ShardConnection implements Closeable {
+    private static final Gson GSON = new Gson();
+
+    private final Socket socket;
+    private final BufferedReader reader;
+    private final BufferedWriter writer;
+
+    ShardConnection(Socket socket) throws IOException {
+        this.socket = socket;
+        this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Longest wait for the next message, a worker exceeding it is considered hung.
+     */
+    void setTimeout(Duration timeout) throws IOException {
+        socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, timeout.toMillis()));
+    }
+
+    void send(ShardMessage message) throws IOException {
+        writer.write(GSON.toJson(message));
+        writer.newLine();
+        writer.flush();
+    }
+
+    /**
+     * @return the next message, null when the other side closed the connection (e.g. the worker JVM died)
+     */
+    ShardMessage receive() throws IOException {
+        final String line = reader.readLine();
+        return line == null ? null : GSON.fromJson(line, ShardMessage.class);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,266 @@
+package com.arthina.automation.shard;
+
+import com.arthina.automation.listener.DurationHistory;
+import com.arthina.automation.reporter.ExtentReport;
+import com.arthina.automation.reporter.ReportMerger;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.testng.xml.Parser;
+import org.testng.xml.XmlSuite;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a suite xml on several local worker JVMs ({@link ShardWorker}): the methods are split into a {@link ShardPlan}
+ * balanced by the duration history and each worker pulls the next shard over its own loopback socket, longest first.
+ * The shard of a worker that dies or hangs is retried on a restarted worker up to maxAttempts times, then its methods
+ * count as failed. The results come back over the socket, the report is merged from the event logs of the completed
+ * shard attempts. Workers run with the class path of the coordinator, log to {@code <workDir>/worker-<n>.log}
+ * ({@code target/shards} by default) and write their reports to the report directory of the coordinator.
+ * Usage: {@code ShardCoordinator <suiteXml> [workers] [shardsPerWorker] [maxAttempts]}.
+ */
+@Slf4j
+public class ShardCoordinator {
+    private static final Duration WORKER_START_TIMEOUT = Duration.ofMinutes(2);
+    /** A worker not answering within this time is considered hung. */
+    private static final Duration SHARD_TIMEOUT = Duration.ofMinutes(60);
+    static final Path DEFAULT_WORK_DIR = Paths.get("target", "shards");
+    /** System property handing the work directory to the workers. */
+    static final String WORK_DIR_PROPERTY = "shardWorkDir";
+
+    private final Path suiteFile;
+    private final int workers;
+    private final int maxAttempts;
+    private final Path workDir;
+    private final Path reportDir;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final BlockingDeque<Attempt> queue = new LinkedBlockingDeque<>();
+    private final AtomicInteger unfinished = new AtomicInteger();
+    private final List<ShardResult> results = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> completedReportShards = ConcurrentHashMap.newKeySet();
+    private int shardCount;
+
+    public ShardCoordinator(Path suiteFile, final int workers, final int maxAttempts) {
+        this(suiteFile, workers, maxAttempts, DEFAULT_WORK_DIR, Paths.get(ExtentReport.getReportPath()));
+    }
+
+    /**
+     * @param workDir directory of the worker logs and TestNG output
+     * @param reportDir directory the workers write their reports to and the shards are merged in
+     */
+    public ShardCoordinator(Path suiteFile, final int workers, final int maxAttempts, Path workDir, Path reportDir) {
+        this.suiteFile = suiteFile;
+        this.workers = workers;
+        this.maxAttempts = maxAttempts;
+        this.workDir = workDir.toAbsolutePath();
+        this.reportDir = reportDir.toAbsolutePath();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: ShardCoordinator <suiteXml> [workers] [shardsPerWorker] [maxAttempts]");
+            System.exit(1);
+        }
+        final int workers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        final int shardsPerWorker = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        final int maxAttempts = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+        ShardCoordinator coordinator = new ShardCoordinator(Paths.get(args[0]), workers, maxAttempts);
+        List<ShardResult> results = coordinator.run(shardsPerWorker);
+        coordinator.mergeReports();
+        System.exit(results.stream().anyMatch(result -> result.getStatus() == ShardResult.Status.FAIL) ? 1 : 0);
+    }
+
+    /**
+     * Runs all shards and waits for them.
+     * @return the results of all test invocations, the methods of shards that ran out of attempts as failed
+     */
+    public List<ShardResult> run(final int shardsPerWorker) throws IOException, InterruptedException {
+        List<XmlSuite> suites = new Parser(suiteFile.toString()).parseToList();
+        DurationHistory history = DurationHistory.forFile(Paths.get(
+                StringUtils.defaultIfBlank(suites.get(0).getParameter("durationHistoryFile"), DurationHistory.DEFAULT_FILE)));
+        ShardPlan plan = ShardPlan.of(suites, history, workers * shardsPerWorker);
+        log.info("Running {} shards (~{} ms) of {} on {} workers", plan.size(), plan.getExpectedMillis(), suiteFile, workers);
+        plan.getShards().forEach(shard -> log.info("{}: {}", shard, shard.getMethods()));
+
+        Files.createDirectories(workDir);
+        shardCount = plan.size();
+        unfinished.set(plan.size());
+        plan.getShards().forEach(shard -> queue.add(new Attempt(shard, 1)));
+        final long start = System.nanoTime();
+        ExecutorService slots = Executors.newFixedThreadPool(workers);
+        for (int slot = 1; slot <= workers; slot++) {
+            final int workerSlot = slot;
+            slots.execute(() -> runSlot(workerSlot));
+        }
+        slots.shutdown();
+        slots.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+
+        Attempt abandoned;
+        while ((abandoned = queue.poll()) != null) {
+            fail(abandoned, "no worker left to run it");
+        }
+        logSummary(Duration.ofNanos(System.nanoTime() - start));
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * Merges the report event logs of the completed shard attempts into one report.
+     */
+    public void mergeReports() throws IOException {
+        ReportMerger.mergeShards(reportDir, completedReportShards::contains);
+    }
+
+    /**
+     * Keeps a worker JVM running on this slot while there are shards, restarting it when it dies.
+     * Workers that die without running a shard (e.g. they do not start) end the slot after maxAttempts.
+     */
+    private void runSlot(final int slot) {
+        int idleDeaths = 0;
+        while (unfinished.get() > 0 && idleDeaths < maxAttempts) {
+            Attempt current = null;
+            Process process = null;
+            try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                server.setSoTimeout((int) WORKER_START_TIMEOUT.toMillis());
+                process = startWorker(slot, server.getLocalPort());
+                try (ShardConnection connection = new ShardConnection(server.accept())) {
+                    connection.setTimeout(SHARD_TIMEOUT);
+                    receive(connection);
+                    while (unfinished.get() > 0) {
+                        current = queue.poll(1, TimeUnit.SECONDS);
+                        if (current == null) {
+                            continue;
+                        }
+                        connection.send(ShardMessage.shard(current.shard, current.reportShardId()));
+                        complete(current, receive(connection).getResults());
+                        current = null;
+                        idleDeaths = 0;
+                    }
+                    connection.send(ShardMessage.stop());
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Worker {} lost{}: {}", slot, current != null ? " running " + current : "", e.toString());
+                if (current != null) {
+                    retryOrFail(current);
+                } else {
+                    idleDeaths++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                if (process != null) {
+                    stopWorker(process);
+                }
+            }
+        }
+        if (idleDeaths >= maxAttempts) {
+            log.error("Giving up worker {} after {} failed starts", slot, idleDeaths);
+        }
+    }
+
+    private Process startWorker(final int slot, final int port) throws IOException {
+        List<String> command = Arrays.asList(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                // any count > 1 makes the report use the shard id set per shard by the worker
+                "-DreportShardCount=" + Math.max(2, shardCount),
+                "-DreportDir=" + reportDir,
+                "-D" + WORK_DIR_PROPERTY + "=" + workDir,
+                ShardWorker.class.getName(), suiteFile.toString(), String.valueOf(port));
+        log.debug("Starting worker {}: {}", slot, command);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(workDir.resolve("worker-" + slot + ".log").toFile()))
+                .start();
+    }
+
+    private static void stopWorker(Process process) {
+        try {
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor(10, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ShardMessage receive(ShardConnection connection) throws IOException {
+        ShardMessage message = connection.receive();
+        if (message == null) {
+            throw new EOFException("worker exited");
+        }
+        return message;
+    }
+
+    private void complete(Attempt attempt, List<ShardResult> shardResults) {
+        results.addAll(shardResults);
+        completedReportShards.add(attempt.reportShardId());
+        unfinished.decrementAndGet();
+        log.info("Completed {} with {} results", attempt, shardResults.size());
+    }
+
+    private void retryOrFail(Attempt attempt) {
+        if (attempt.number < maxAttempts) {
+            queue.addFirst(new Attempt(attempt.shard, attempt.number + 1));
+        } else {
+            fail(attempt, "worker died " + attempt.number + " times running it");
+        }
+    }
+
+    private void fail(Attempt attempt, final String reason) {
+        log.error("Giving up {}: {}", attempt, reason);
+        attempt.shard.getMethods().forEach(method ->
+                results.add(new ShardResult(method.getQualifiedName(), ShardResult.Status.FAIL, 0, "shard " + reason)));
+        unfinished.decrementAndGet();
+    }
+
+    private void logSummary(Duration took) {
+        Map<ShardResult.Status, Long> counts = results.stream()
+                .collect(Collectors.groupingBy(ShardResult::getStatus, Collectors.counting()));
+        log.info("Sharded run took {} ms: {}", took.toMillis(), counts);
+        results.stream().filter(result -> result.getStatus() == ShardResult.Status.FAIL)
+                .forEach(result -> log.info("==========> {}", result));
+    }
+
+    private final class Attempt {
+        private final Shard shard;
+        private final int number;
+
+        private Attempt(Shard shard, final int number) {
+            this.shard = shard;
+            this.number = number;
+        }
+
+        private String reportShardId() {
+            return runId + "-s" + shard.getId() + "a" + number;
+        }
+
+        @Override
+        public String toString() {
+            return shard + " attempt " + number;
+        }
+    }
+}
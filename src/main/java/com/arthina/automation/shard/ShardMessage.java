@@ -0,0 +1,61 @@
+package com.arthina.automation.shard;
+
+import java.util.List;
+
+/**
+ * Message between coordinator and worker, one JSON line per message over the local socket.
+ * READY (worker started), SHARD (run it), DONE (results of the shard), STOP (no work left).
+ */
+final class ShardMessage {
+
+    enum Type {
+        READY, SHARD, DONE, STOP
+    }
+
+    private final Type type;
+    private final Shard shard;
+    private final String reportShardId;
+    private final List<ShardResult> results;
+
+    private ShardMessage(Type type, Shard shard, String reportShardId, List<ShardResult> results) {
+        this.type = type;
+        this.shard = shard;
+        this.reportShardId = reportShardId;
+        this.results = results;
+    }
+
+    static ShardMessage ready() {
+        return new ShardMessage(Type.READY, null, null, null);
+    }
+
+    /**
+     * @param reportShardId id of the report event log the worker writes for this attempt of the shard
+     */
+    static ShardMessage shard(Shard shard, String reportShardId) {
+        return new ShardMessage(Type.SHARD, shard, reportShardId, null);
+    }
+
+    static ShardMessage done(List<ShardResult> results) {
+        return new ShardMessage(Type.DONE, null, null, results);
+    }
+
+    static ShardMessage stop() {
+        return new ShardMessage(Type.STOP, null, null, null);
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    Shard getShard() {
+        return shard;
+    }
+
+    String getReportShardId() {
+        return reportShardId;
+    }
+
+    List<ShardResult> getResults() {
+        return results;
+    }
+}
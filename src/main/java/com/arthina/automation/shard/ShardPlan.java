@@ -0,0 +1,192 @@
+package com.arthina.automation.shard;
+
+import com.arthina.automation.listener.DurationHistory;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Splits the test methods of a suite into shards of about equal expected duration (longest-processing-time-first
+ * from the {@link DurationHistory}, methods without history count as the median of the known ones).
+ * A class with dependencies between its methods or {@code singleThreaded} stays in one shard.
+ * Only {@code <classes>} are sharded, {@code <packages>} are not resolved here.
+ */
+@Slf4j
+public final class ShardPlan {
+    private final List<Shard> shards;
+
+    private ShardPlan(List<Shard> shards) {
+        this.shards = Collections.unmodifiableList(shards);
+    }
+
+    public static ShardPlan of(List<XmlSuite> suites, DurationHistory history, final int shardCount) {
+        List<List<Shard.TestMethod>> units = new ArrayList<>();
+        for (XmlSuite suite : suites) {
+            for (XmlTest test : suite.getTests()) {
+                if (!test.getXmlPackages().isEmpty()) {
+                    log.warn("<packages> of test {} are not sharded, list their classes instead", test.getName());
+                }
+                for (XmlClass xmlClass : test.getXmlClasses()) {
+                    units.addAll(units(suite, test, xmlClass, history));
+                }
+            }
+        }
+        final long unknownMillis = medianMillis(units);
+        units.replaceAll(unit -> withEstimate(unit, unknownMillis));
+        units.sort(Comparator.comparingLong(ShardPlan::millisOf).reversed());
+
+        final int count = Math.max(1, Math.min(shardCount, units.size()));
+        List<List<Shard.TestMethod>> bins = new ArrayList<>();
+        PriorityQueue<Integer> emptiest = new PriorityQueue<>(
+                Comparator.comparingLong((Integer bin) -> millisOf(bins.get(bin))).thenComparing(bin -> bin));
+        for (int i = 0; i < count; i++) {
+            bins.add(new ArrayList<>());
+            emptiest.add(i);
+        }
+        for (List<Shard.TestMethod> unit : units) {
+            final int bin = emptiest.poll();
+            bins.get(bin).addAll(unit);
+            emptiest.add(bin);
+        }
+
+        List<Shard> shards = new ArrayList<>();
+        for (List<Shard.TestMethod> bin : bins) {
+            if (!bin.isEmpty()) {
+                shards.add(new Shard(shards.size() + 1, bin));
+            }
+        }
+        // handed out longest first, the short shards fill the gaps at the end
+        shards.sort(Comparator.comparingLong(Shard::getExpectedMillis).reversed());
+        return new ShardPlan(shards);
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public long getExpectedMillis() {
+        return shards.stream().mapToLong(Shard::getExpectedMillis).sum();
+    }
+
+    /**
+     * The methods of a class to shard, one unit per method unless they have to run together.
+     */
+    static List<List<Shard.TestMethod>> units(XmlSuite suite, XmlTest test, XmlClass xmlClass, DurationHistory history) {
+        Class<?> testClass;
+        try {
+            testClass = Class.forName(xmlClass.getName());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Test class " + xmlClass.getName() + " of " + test.getName() + " not found", e);
+        }
+        Set<String> methodNames = new TreeSet<>();
+        boolean together = isSingleThreaded(testClass);
+        for (Method method : testClass.getMethods()) {
+            Test annotation = testAnnotationOf(method);
+            if (annotation != null) {
+                methodNames.add(method.getName());
+                together |= annotation.dependsOnMethods().length > 0 || annotation.dependsOnGroups().length > 0;
+            }
+        }
+        if (!xmlClass.getIncludedMethods().isEmpty()) {
+            methodNames.clear();
+            xmlClass.getIncludedMethods().stream().map(XmlInclude::getName).forEach(methodNames::add);
+        }
+        methodNames.removeIf(name -> xmlClass.getExcludedMethods().stream().anyMatch(name::matches));
+
+        List<List<Shard.TestMethod>> units = new ArrayList<>();
+        List<Shard.TestMethod> classUnit = new ArrayList<>();
+        for (String methodName : methodNames) {
+            Shard.TestMethod testMethod = new Shard.TestMethod(suite.getName(), test.getName(), xmlClass.getName(), methodName,
+                    history.get(xmlClass.getName() + "." + methodName).map(DurationHistory.Entry::getMillis).orElse(-1L));
+            if (together) {
+                classUnit.add(testMethod);
+            } else {
+                units.add(Collections.singletonList(testMethod));
+            }
+        }
+        if (!classUnit.isEmpty()) {
+            units.add(classUnit);
+        }
+        return units;
+    }
+
+    /**
+     * The test annotation of a public test method, the class level one for plain public methods.
+     */
+    private static Test testAnnotationOf(Method method) {
+        if (Modifier.isStatic(method.getModifiers()) || method.getDeclaringClass() == Object.class) {
+            return null;
+        }
+        Test annotation = method.getAnnotation(Test.class);
+        if (annotation != null || isConfiguration(method)) {
+            return annotation;
+        }
+        return method.getDeclaringClass().getAnnotation(Test.class);
+    }
+
+    private static boolean isConfiguration(Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            final String name = annotation.annotationType().getSimpleName();
+            if (name.startsWith("Before") || name.startsWith("After")
+                    || annotation instanceof DataProvider || annotation instanceof Factory) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSingleThreaded(Class<?> testClass) {
+        for (Class<?> type = testClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            Test annotation = type.getAnnotation(Test.class);
+            if (annotation != null && annotation.singleThreaded()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long medianMillis(List<List<Shard.TestMethod>> units) {
+        long[] known = units.stream()
+                .flatMap(List::stream)
+                .mapToLong(Shard.TestMethod::getExpectedMillis)
+                .filter(millis -> millis >= 0)
+                .sorted()
+                .toArray();
+        return known.length == 0 ? 0 : known[known.length / 2];
+    }
+
+    private static List<Shard.TestMethod> withEstimate(List<Shard.TestMethod> unit, final long unknownMillis) {
+        List<Shard.TestMethod> estimated = new ArrayList<>(unit.size());
+        for (Shard.TestMethod method : unit) {
+            // at least 1ms, so methods without (measurable) duration still spread over the shards
+            final long millis = Math.max(1, method.getExpectedMillis() >= 0 ? method.getExpectedMillis() : unknownMillis);
+            estimated.add(new Shard.TestMethod(method.getSuiteName(), method.getTestName(), method.getClassName(),
+                    method.getMethodName(), millis));
+        }
+        return estimated;
+    }
+
+    private static long millisOf(List<Shard.TestMethod> unit) {
+        return unit.stream().mapToLong(Shard.TestMethod::getExpectedMillis).sum();
+    }
+}
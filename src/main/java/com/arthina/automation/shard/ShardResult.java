@@ -0,0 +1,64 @@
+package com.arthina.automation.shard;
+
+import org.testng.ITestResult;
+
+/**
+ * Outcome of one test invocation in a worker, sent back to the coordinator.
+ */
+public final class ShardResult {
+
+    public enum Status {
+        PASS, FAIL, SKIP
+    }
+
+    private final String method;
+    private final Status status;
+    private final long millis;
+    private final String message;
+
+    ShardResult(String method, Status status, final long millis, String message) {
+        this.method = method;
+        this.status = status;
+        this.millis = millis;
+        this.message = message;
+    }
+
+    static ShardResult of(ITestResult result) {
+        Status status;
+        switch (result.getStatus()) {
+            case ITestResult.FAILURE:
+                status = Status.FAIL;
+                break;
+            case ITestResult.SKIP:
+                status = Status.SKIP;
+                break;
+            default:
+                status = Status.PASS;
+        }
+        Throwable throwable = result.getThrowable();
+        return new ShardResult(result.getMethod().getQualifiedName(), status, result.getEndMillis() - result.getStartMillis(),
+                throwable != null ? throwable.toString() : null);
+    }
+
+    /** Qualified name of the test method. */
+    public String getMethod() {
+        return method;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + status + " (" + millis + "ms)" + (message != null ? ": " + message : "");
+    }
+}
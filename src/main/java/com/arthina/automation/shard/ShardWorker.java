@@ -0,0 +1,145 @@
+package com.arthina.automation.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.TestNG;
+import org.testng.xml.Parser;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Worker JVM started by the {@link ShardCoordinator}: runs the shards it is handed with TestNG, one suite run per
+ * shard, and sends the results back. Suite parameters and listeners come from the suite xml, the report is
+ * streamed (reportMode=STREAM) into an event log per shard attempt which the coordinator merges.
+ * Usage: {@code ShardWorker <suiteXml> <coordinatorPort>}.
+ */
+@Slf4j
+public class ShardWorker {
+    private final List<XmlSuite> suites;
+
+    ShardWorker(List<XmlSuite> suites) {
+        this.suites = suites;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ShardWorker <suiteXml> <coordinatorPort>");
+            System.exit(1);
+        }
+        ShardWorker worker = new ShardWorker(new Parser(args[0]).parseToList());
+        try (ShardConnection connection = new ShardConnection(new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[1])))) {
+            connection.send(ShardMessage.ready());
+            ShardMessage message;
+            while ((message = connection.receive()) != null && message.getType() == ShardMessage.Type.SHARD) {
+                connection.send(ShardMessage.done(worker.run(message.getShard(), message.getReportShardId())));
+            }
+        }
+        // browsers or executors a test left behind must not keep the worker alive
+        System.exit(0);
+    }
+
+    List<ShardResult> run(Shard shard, final String reportShardId) {
+        log.info("Running {} as report shard {}", shard, reportShardId);
+        System.setProperty("reportShardId", reportShardId);
+        List<ShardResult> results = Collections.synchronizedList(new ArrayList<>());
+        TestNG testng = new TestNG(false);
+        testng.setXmlSuites(suitesFor(shard));
+        testng.setOutputDirectory(Paths.get(System.getProperty(ShardCoordinator.WORK_DIR_PROPERTY,
+                ShardCoordinator.DEFAULT_WORK_DIR.toString()), reportShardId).toString());
+        testng.addListener(new ITestListener() {
+            @Override
+            public void onTestSuccess(ITestResult result) {
+                results.add(ShardResult.of(result));
+            }
+
+            @Override
+            public void onTestFailure(ITestResult result) {
+                results.add(ShardResult.of(result));
+            }
+
+            @Override
+            public void onTestSkipped(ITestResult result) {
+                results.add(ShardResult.of(result));
+            }
+
+            @Override
+            public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+                results.add(ShardResult.of(result));
+            }
+        });
+        testng.run();
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * Copies of the suites and tests of the shard's methods, restricted to those methods.
+     */
+    List<XmlSuite> suitesFor(Shard shard) {
+        Map<String, XmlSuite> shardSuites = new LinkedHashMap<>();
+        Map<String, XmlTest> shardTests = new HashMap<>();
+        Map<String, XmlClass> shardClasses = new HashMap<>();
+        for (Shard.TestMethod method : shard.getMethods()) {
+            XmlSuite original = suite(method.getSuiteName());
+            XmlSuite shardSuite = shardSuites.computeIfAbsent(original.getName(), name -> copyOf(original));
+            XmlTest shardTest = shardTests.computeIfAbsent(original.getName() + "/" + method.getTestName(),
+                    key -> copyOf(test(original, method.getTestName()), shardSuite));
+            XmlClass shardClass = shardClasses.computeIfAbsent(original.getName() + "/" + method.getTestName() + "/" + method.getClassName(),
+                    key -> {
+                        XmlClass xmlClass = new XmlClass(method.getClassName(), false);
+                        shardTest.getXmlClasses().add(xmlClass);
+                        return xmlClass;
+                    });
+            shardClass.getIncludedMethods().add(new XmlInclude(method.getMethodName()));
+        }
+        return new ArrayList<>(shardSuites.values());
+    }
+
+    private static XmlSuite copyOf(XmlSuite original) {
+        XmlSuite copy = new XmlSuite();
+        copy.setName(original.getName());
+        Map<String, String> parameters = new HashMap<>(original.getParameters());
+        parameters.put("reportMode", "STREAM");
+        copy.setParameters(parameters);
+        copy.setListeners(new ArrayList<>(original.getListeners()));
+        copy.setParallel(original.getParallel());
+        copy.setThreadCount(original.getThreadCount());
+        copy.setDataProviderThreadCount(original.getDataProviderThreadCount());
+        copy.setPreserveOrder(original.getPreserveOrder());
+        copy.setVerbose(original.getVerbose());
+        return copy;
+    }
+
+    private static XmlTest copyOf(XmlTest original, XmlSuite shardSuite) {
+        XmlTest copy = new XmlTest(shardSuite);
+        copy.setName(original.getName());
+        copy.setParameters(new HashMap<>(original.getLocalParameters()));
+        copy.setIncludedGroups(new ArrayList<>(original.getIncludedGroups()));
+        copy.setExcludedGroups(new ArrayList<>(original.getExcludedGroups()));
+        copy.setPreserveOrder(original.getPreserveOrder());
+        return copy;
+    }
+
+    private XmlSuite suite(final String name) {
+        return suites.stream().filter(suite -> suite.getName().equals(name)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Suite " + name + " is not in the suite xml of the worker"));
+    }
+
+    private static XmlTest test(XmlSuite suite, final String name) {
+        return suite.getTests().stream().filter(test -> test.getName().equals(name)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Test " + name + " is not in suite " + suite.getName()));
+    }
+}
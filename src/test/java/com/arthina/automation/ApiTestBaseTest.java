@@ -0,0 +1,85 @@
+package com.arthina.automation;
+
+import com.arthina.automation.api.ApiToken;
+import com.arthina.automation.page.LatencyStats;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs requests from several threads against a local server and checks connection reuse and token sharing.
+ */
+public class ApiTestBaseTest extends ApiTestBase {
+	private static final int THREADS = 4;
+	private static final int REQUESTS = 40;
+
+	private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+	private final Set<String> authorizations = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger tokenFetches = new AtomicInteger();
+	private UsersServer server;
+	private String baseUri;
+
+	@BeforeClass
+	public void startServer() throws IOException {
+		server = UsersServer.start(THREADS, users -> exchange -> {
+			clientPorts.add(exchange.getRemoteAddress().getPort());
+			final String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+			if (authorization != null) {
+				authorizations.add(authorization);
+			}
+			users.handle(exchange);
+		});
+		baseUri = server.getBaseUri();
+		registerToken("admin", () -> ApiToken.of("token-" + tokenFetches.incrementAndGet(), Duration.ofMinutes(10)));
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() {
+		server.stop();
+	}
+
+	@Test
+	public void reusesPooledConnectionsAcrossThreads() throws Exception {
+		final long requestsBefore = LatencyStats.of("api GET").getCount();
+
+		runConcurrently(() -> given().baseUri(baseUri).get("/users").then().statusCode(200));
+
+		assertEquals(LatencyStats.of("api GET").getCount() - requestsBefore, (long) REQUESTS);
+		assertEquals(clientPorts.size() <= THREADS, true);
+	}
+
+	@Test
+	public void fetchesTheTokenOnceForAllThreads() throws Exception {
+		runConcurrently(() -> given("admin").baseUri(baseUri).get("/users").then().statusCode(200));
+
+		assertEquals(tokenFetches.get(), 1);
+		assertEquals(authorizations.size(), 1);
+		assertEquals(authorizations.iterator().next(), "Bearer token-1");
+	}
+
+	private static void runConcurrently(Runnable request) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < REQUESTS; i++) {
+				futures.add(executor.submit(request));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.arthina.automation;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Proxy based stand-ins for drivers, elements and their helper interfaces in tests without a browser.
+ * hashCode, equals and toString are identity based, every other call goes to the handler; a null answer for a
+ * primitive return type becomes its default (false, 0), so handlers only deal with the commands a test cares about.
+ */
+public final class StubDriver {
+
+	/**
+	 * Answers a call of the stub, args is empty for calls without arguments.
+	 */
+	@FunctionalInterface
+	public interface Handler {
+		Object handle(String command, Object[] args) throws Throwable;
+	}
+
+	private StubDriver() {
+	}
+
+	/**
+	 * @param extraInterfaces further interfaces of the driver, e.g. JavascriptExecutor or HasCdp
+	 */
+	public static WebDriver driver(Handler handler, Class<?>... extraInterfaces) {
+		return stub(WebDriver.class, "StubDriver", handler, extraInterfaces);
+	}
+
+	/** Driver answering every command with null. */
+	public static WebDriver driver() {
+		return driver((command, args) -> null);
+	}
+
+	/**
+	 * @param name returned by toString, shows up in locator and assertion messages
+	 */
+	public static WebElement element(final String name, Handler handler) {
+		return stub(WebElement.class, name, handler);
+	}
+
+	/**
+	 * Stub of any interface, e.g. WebDriver.Options or WebDriver.TargetLocator returned by a driver stub.
+	 */
+	public static <T> T stub(Class<T> type, final String name, Handler handler, Class<?>... extraInterfaces) {
+		final Class<?>[] interfaces = Stream.concat(Stream.of(type), Arrays.stream(extraInterfaces)).toArray(Class<?>[]::new);
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), interfaces, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				case "toString":
+					return name;
+				default:
+					final Object answer = handler.handle(method.getName(), args == null ? new Object[0] : args);
+					if (answer == null && method.getReturnType().isPrimitive()) {
+						return defaultOf(method.getReturnType());
+					}
+					return answer;
+			}
+		}));
+	}
+
+	private static Object defaultOf(Class<?> type) {
+		if (type == boolean.class) {
+			return false;
+		}
+		if (type == void.class) {
+			return null;
+		}
+		if (type == char.class) {
+			return '\0';
+		}
+		if (type == long.class) {
+			return 0L;
+		}
+		if (type == double.class) {
+			return 0d;
+		}
+		if (type == float.class) {
+			return 0f;
+		}
+		return type == byte.class ? (byte) 0 : type == short.class ? (short) 0 : (Object) 0;
+	}
+}
@@ -0,0 +1,57 @@
+package com.arthina.automation;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.UnaryOperator;
+
+/**
+ * Local HTTP server answering {@code GET /users} with a small JSON body, for API and load tests without a backend.
+ * A test wraps the handler to record what it needs; {@link #stop()} stops the server together with its threads.
+ */
+public final class UsersServer {
+	private static final byte[] BODY = "{\"name\":\"user\"}".getBytes(StandardCharsets.UTF_8);
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+
+	private UsersServer(HttpServer server, ExecutorService executor) {
+		this.server = server;
+		this.executor = executor;
+	}
+
+	/**
+	 * @param threads   size of the pool serving the requests
+	 * @param decorator wraps the /users handler, e.g. to record the requests
+	 */
+	public static UsersServer start(final int threads, UnaryOperator<HttpHandler> decorator) throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/users", decorator.apply(exchange -> {
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, BODY.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(BODY);
+			}
+		}));
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		server.setExecutor(executor);
+		server.start();
+		return new UsersServer(server, executor);
+	}
+
+	public String getBaseUri() {
+		return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+	}
+
+	public void stop() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,186 @@
+package com.arthina.automation.api;
+
+import com.arthina.automation.ApiTestBase;
+import com.sun.net.httpserver.HttpServer;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records exchanges with a local service, then replays them from the stub server without it.
+ */
+public class ApiStubServerTest extends ApiTestBase {
+	private final AtomicInteger version = new AtomicInteger();
+	private HttpServer service;
+	private String serviceUri;
+	private Path directory;
+
+	@BeforeClass
+	public void startService() throws IOException {
+		service = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		service.createContext("/users", exchange -> {
+			final String requestBody;
+			try (InputStream in = exchange.getRequestBody()) {
+				requestBody = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+			}
+			final boolean post = "POST".equals(exchange.getRequestMethod());
+			final byte[] body = (post ? "{\"created\":" + requestBody + "}" : "[{\"name\":\"user\"}]").getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.getResponseHeaders().add("X-Version", Integer.toString(version.incrementAndGet()));
+			exchange.sendResponseHeaders(post ? 201 : 200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		service.createContext("/reports", exchange -> {
+			final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+				gzip.write("{\"rows\":3}".getBytes(StandardCharsets.UTF_8));
+			}
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+			exchange.sendResponseHeaders(200, compressed.size());
+			try (OutputStream out = exchange.getResponseBody()) {
+				compressed.writeTo(out);
+			}
+		});
+		service.start();
+		serviceUri = "http://" + service.getAddress().getHostString() + ":" + service.getAddress().getPort();
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopService() {
+		service.stop(0);
+	}
+
+	@BeforeMethod
+	public void createDirectory() throws IOException {
+		directory = Files.createTempDirectory("api-stubs");
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void deleteDirectory() throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Test
+	public void replaysByMethodPathQueryAndBody() throws IOException {
+		ApiRecordings recording = ApiRecordings.open(directory);
+		ApiRecorder recorder = new ApiRecorder(recording);
+		given().baseUri(serviceUri).filter(recorder).queryParam("page", 2).queryParam("size", 10).get("/users").then().statusCode(200);
+		given().baseUri(serviceUri).filter(recorder).body("{\"name\":\"ann\"}").post("/users").then().statusCode(201);
+		recording.save();
+
+		ApiStubServer stubServer = ApiStubServer.start(ApiRecordings.open(directory));
+		try {
+			Response list = given().baseUri(stubServer.getBaseUri()).queryParam("size", 10).queryParam("page", 2).get("/users");
+			assertEquals(list.getStatusCode(), 200);
+			assertEquals(list.asString(), "[{\"name\":\"user\"}]");
+			assertEquals(list.getContentType(), "application/json");
+			assertEquals(list.getHeader("X-Version"), "1");
+
+			Response created = given().baseUri(stubServer.getBaseUri()).body("{\"name\":\"ann\"}").post("/users");
+			assertEquals(created.getStatusCode(), 201);
+			assertEquals(created.asString(), "{\"created\":{\"name\":\"ann\"}}");
+
+			assertEquals(given().baseUri(stubServer.getBaseUri()).body("{\"name\":\"bob\"}").post("/users").getStatusCode(), 501);
+			assertEquals(given().baseUri(stubServer.getBaseUri()).queryParam("page", 3).get("/users").getStatusCode(), 501);
+			assertEquals(stubServer.getHits(), 2L);
+			assertEquals(stubServer.getMisses(), 2L);
+		} finally {
+			stubServer.stop();
+		}
+	}
+
+	@Test
+	public void replaysRepeatedRequestsInRecordedOrder() throws IOException {
+		ApiRecordings recording = ApiRecordings.open(directory);
+		ApiRecorder recorder = new ApiRecorder(recording);
+		final String first = given().baseUri(serviceUri).filter(recorder).get("/users").getHeader("X-Version");
+		final String second = given().baseUri(serviceUri).filter(recorder).get("/users").getHeader("X-Version");
+		recording.save();
+
+		ApiRecordings replayed = ApiRecordings.open(directory);
+		assertEquals(replayed.size(), 2);
+		ApiStubServer stubServer = ApiStubServer.start(replayed);
+		try {
+			assertEquals(given().baseUri(stubServer.getBaseUri()).get("/users").getHeader("X-Version"), first);
+			assertEquals(given().baseUri(stubServer.getBaseUri()).get("/users").getHeader("X-Version"), second);
+			assertEquals(given().baseUri(stubServer.getBaseUri()).get("/users").getHeader("X-Version"), second);
+		} finally {
+			stubServer.stop();
+		}
+	}
+
+	@Test
+	public void replaysFormMultipartAndEncodedBodiesByTheBytesSent() {
+		ApiRecordings recording = ApiRecordings.open(directory);
+		ApiRecorder recorder = new ApiRecorder(recording);
+		final RestAssuredConfig config = recorder.config(RestAssuredConfig.config());
+		given().baseUri(serviceUri).config(config).filter(recorder).contentType(ContentType.URLENC).formParam("name", "ann").post("/users")
+				.then().statusCode(201);
+		given().baseUri(serviceUri).config(config).filter(recorder).contentType("multipart/form-data").multiPart("name", "ann").post("/users")
+				.then().statusCode(201);
+		given().baseUri(serviceUri).config(config).filter(recorder).contentType("text/plain; charset=ISO-8859-1").body("caf\u00e9").post("/users")
+				.then().statusCode(201);
+		recording.save();
+
+		ApiRecordings replayed = ApiRecordings.open(directory);
+		assertEquals(replayed.size(), 3);
+		ApiStubServer stubServer = ApiStubServer.start(replayed);
+		try {
+			assertEquals(given().baseUri(stubServer.getBaseUri()).contentType(ContentType.URLENC).formParam("name", "ann").post("/users")
+					.asString(), "{\"created\":name=ann}");
+			assertEquals(given().baseUri(stubServer.getBaseUri()).contentType("multipart/form-data").multiPart("name", "ann").post("/users")
+					.getStatusCode(), 201);
+			assertEquals(given().baseUri(stubServer.getBaseUri()).contentType("text/plain; charset=ISO-8859-1").body("caf\u00e9").post("/users")
+					.getStatusCode(), 201);
+			assertEquals(given().baseUri(stubServer.getBaseUri()).contentType(ContentType.URLENC).formParam("name", "bob").post("/users")
+					.getStatusCode(), 501);
+			assertEquals(stubServer.getMisses(), 1L);
+		} finally {
+			stubServer.stop();
+		}
+	}
+
+	@Test
+	public void replaysCompressedResponsesDecoded() throws IOException {
+		ApiRecordings recording = ApiRecordings.open(directory);
+		assertEquals(given().baseUri(serviceUri).filter(new ApiRecorder(recording)).get("/reports").asString(), "{\"rows\":3}");
+		recording.save();
+
+		ApiStubServer stubServer = ApiStubServer.start(ApiRecordings.open(directory));
+		try {
+			Response replayed = given().baseUri(stubServer.getBaseUri()).get("/reports");
+			assertEquals(replayed.getStatusCode(), 200);
+			assertEquals(replayed.getHeader("Content-Encoding"), null);
+			assertEquals(replayed.jsonPath().getInt("rows"), 3);
+		} finally {
+			stubServer.stop();
+		}
+	}
+}
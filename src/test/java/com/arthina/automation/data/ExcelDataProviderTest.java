@@ -0,0 +1,97 @@
+package com.arthina.automation.data;
+
+import com.arthina.automation.TestBase;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Feeds tests from a generated workbook through the sequential and the parallel provider, which share one parse.
+ */
+public class ExcelDataProviderTest extends TestBase {
+	private static final String DATA_FILE = "target/test-data/excel-data-provider.xlsx";
+	private static final int ROWS = 200;
+
+	private final Set<String> sequentialNames = ConcurrentHashMap.newKeySet();
+	private final Set<String> parallelNames = ConcurrentHashMap.newKeySet();
+
+	@BeforeClass
+	public void writeWorkbook() throws IOException {
+		Path file = Paths.get(DATA_FILE);
+		Files.createDirectories(file.getParent());
+		try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+			workbook.createSheet("Other").createRow(0).createCell(0).setCellValue("not this sheet");
+			Sheet sheet = workbook.createSheet("Users");
+			CellStyle amountStyle = workbook.createCellStyle();
+			amountStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+			CellStyle dateStyle = workbook.createCellStyle();
+			dateStyle.setDataFormat(workbook.createDataFormat().getFormat("dd/mm/yyyy"));
+			Row header = sheet.createRow(0);
+			String[] columns = {"TestName", "Age", "Amount", "Active", "Joined", "Note"};
+			for (int i = 0; i < columns.length; i++) {
+				header.createCell(i).setCellValue(columns[i]);
+			}
+			for (int i = 1; i <= ROWS; i++) {
+				// a blank row in the middle is skipped
+				Row row = sheet.createRow(i < 100 ? i : i + 1);
+				row.createCell(0).setCellValue(i % 50 == 0 ? "" : "user" + i);
+				row.createCell(1).setCellValue(20 + i);
+				row.createCell(2).setCellValue(1234.5 + i);
+				row.getCell(2).setCellStyle(amountStyle);
+				row.createCell(3).setCellValue(i % 2 == 0);
+				row.createCell(4).setCellValue(LocalDate.of(2022, 1, 1).plusDays(i));
+				row.getCell(4).setCellStyle(dateStyle);
+			}
+			workbook.write(out);
+		}
+	}
+
+	@Test(dataProvider = ExcelDataProvider.EXCEL, dataProviderClass = ExcelDataProvider.class)
+	@ExcelData(file = DATA_FILE, sheet = "Users")
+	public void readsTypedRows(ExcelRow row, final String name) {
+		final int i = row.getInt("Age") - 20;
+		assertEquals(name, i % 50 == 0 ? "row" + row.getRowNumber() : "user" + i);
+		assertEquals(row.getDecimal("Amount"), new BigDecimal("1234.5").add(BigDecimal.valueOf(i)));
+		assertEquals(row.getBoolean("Active"), Boolean.valueOf(i % 2 == 0));
+		assertEquals(row.getDate("Joined"), LocalDate.of(2022, 1, 1).plusDays(i));
+		assertEquals(row.has("Note"), false);
+		sequentialNames.add(name);
+	}
+
+	@Test(dataProvider = ExcelDataProvider.EXCEL_PARALLEL, dataProviderClass = ExcelDataProvider.class,
+			dependsOnMethods = "readsTypedRows")
+	@ExcelData(file = DATA_FILE, sheet = "Users")
+	public void readsRowsInParallel(ExcelRow row, final String name) {
+		parallelNames.add(name);
+	}
+
+	@Test(dependsOnMethods = "readsRowsInParallel")
+	public void parsesTheSheetOnce() {
+		assertEquals(sequentialNames.size(), ROWS);
+		assertEquals(parallelNames, sequentialNames);
+
+		final long parses = ExcelSheets.getParses();
+		Iterator<ExcelRow> rows = ExcelSheets.rows(Paths.get("target", "test-data", "..", "test-data", "excel-data-provider.xlsx"), "Users");
+		int count = 0;
+		while (rows.hasNext()) {
+			rows.next();
+			count++;
+		}
+		assertEquals(count, ROWS);
+		assertEquals(ExcelSheets.getParses(), parses);
+	}
+}
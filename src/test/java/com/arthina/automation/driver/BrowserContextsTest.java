@@ -0,0 +1,356 @@
+package com.arthina.automation.driver;
+
+import com.arthina.automation.StubDriver;
+import com.arthina.automation.TestBase;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.chromium.HasCdp;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs contexts against a stub browser that records which window every command ran in.
+ */
+@Slf4j
+public class BrowserContextsTest extends TestBase {
+	private static final int THREADS = 4;
+	private static final int COMMANDS_PER_THREAD = 25;
+	private static final long COMMAND_MILLIS = 4;
+	private static final int PAGES_PER_THREAD = 5;
+	private static final long LOAD_MILLIS = 100;
+
+	@Test
+	public void sharesBrowserBetweenContextsUpToTheLimit() {
+		List<StubBrowser> started = new ArrayList<>();
+		BrowserContexts contexts = new BrowserContexts(() -> {
+			StubBrowser browser = new StubBrowser();
+			started.add(browser);
+			return browser.driver();
+		}, 2);
+
+		contexts.newContext();
+		contexts.newContext();
+		assertEquals(contexts.browserCount(), 1);
+		contexts.newContext();
+		assertEquals(contexts.browserCount(), 2);
+		contexts.shutdown();
+		assertEquals(started.get(0).quit && started.get(1).quit, true);
+	}
+
+	@Test
+	public void runsEveryCommandInTheWindowOfItsContext() {
+		StubBrowser browser = new StubBrowser();
+		BrowserContexts contexts = new BrowserContexts(browser::driver, 4);
+		WebDriver first = contexts.newContext();
+		WebDriver second = contexts.newContext();
+
+		first.get("https://first.test");
+		second.get("https://second.test");
+		WebElement element = first.findElement(By.id("name"));
+		element.click();
+		assertEquals(first.getCurrentUrl(), "https://first.test");
+
+		assertEquals(browser.commands, Arrays.asList("target-1:get", "target-2:get", "target-1:findElement",
+				"target-1:click", "target-1:getCurrentUrl"));
+		assertEquals(browser.switches.get(), 3);
+		assertEquals(((WrapsElement) element).getWrappedElement() instanceof WrapsElement, false);
+	}
+
+	@Test(expectedExceptions = NoSuchWindowException.class)
+	public void quitDisposesOnlyTheContext() {
+		StubBrowser browser = new StubBrowser();
+		BrowserContexts contexts = new BrowserContexts(browser::driver, 4);
+		WebDriver context = contexts.newContext();
+		WebDriver other = contexts.newContext();
+
+		context.quit();
+		assertEquals(browser.quit, false);
+		other.get("https://other.test");
+		context.getWindowHandle();
+	}
+
+	@Test
+	public void failedBrowserIsQuitOnlyAfterItsLastContext() {
+		List<StubBrowser> started = new ArrayList<>();
+		BrowserContexts contexts = new BrowserContexts(() -> {
+			StubBrowser browser = new StubBrowser();
+			started.add(browser);
+			return browser.driver();
+		}, 4);
+		WebDriver leased = contexts.newContext();
+		started.get(0).failContexts = true;
+
+		WebDriver other = contexts.newContext();
+		assertEquals(started.get(0).quit, false);
+		assertEquals(contexts.browserCount(), 2);
+		contexts.newContext();
+		assertEquals(started.size(), 2);
+		other.get("https://other.test");
+		leased.get("https://leased.test");
+		leased.quit();
+		assertEquals(started.get(0).quit, true);
+		assertEquals(contexts.browserCount(), 1);
+		assertEquals(started.get(1).quit, false);
+		contexts.shutdown();
+	}
+
+	@Test
+	public void loadsPagesOverTheSessionOfTheContextTarget() {
+		StubBrowser browser = new StubBrowser();
+		List<StubSessions> sessions = new ArrayList<>();
+		BrowserContexts contexts = new BrowserContexts(browser::driver, 4, driver -> {
+			StubSessions opened = new StubSessions(0);
+			sessions.add(opened);
+			return opened;
+		});
+		WebDriver first = contexts.newContext();
+		WebDriver second = contexts.newContext();
+
+		first.get("https://first.test");
+		second.navigate().to("https://second.test");
+		first.getTitle();
+
+		assertEquals(sessions.get(0).sent, Arrays.asList("target-1:Page.navigate https://first.test", "target-1:Runtime.evaluate",
+				"target-2:Page.navigate https://second.test", "target-2:Runtime.evaluate"));
+		assertEquals(browser.commands, Collections.singletonList("target-1:getTitle"));
+		first.quit();
+		second.quit();
+		contexts.shutdown();
+		assertEquals(sessions.get(0).closed, true);
+	}
+
+	@Test(expectedExceptions = WebDriverException.class, expectedExceptionsMessageRegExp = ".*net::ERR_NAME_NOT_RESOLVED.*")
+	public void failedNavigationThrows() {
+		BrowserContexts contexts = new BrowserContexts(() -> new StubBrowser().driver(), 4, driver -> new StubSessions(0));
+		contexts.newContext().get("https://unknown.test");
+	}
+
+	@Test
+	public void contextsOfABrowserRunTheirCommandsOneAtATime() throws InterruptedException {
+		final long shared = run(new BrowserContexts(() -> new StubBrowser(COMMAND_MILLIS).driver(), THREADS), COMMANDS_PER_THREAD, WebDriver::getTitle);
+		final long separate = run(new BrowserContexts(() -> new StubBrowser(COMMAND_MILLIS).driver(), 1), COMMANDS_PER_THREAD, WebDriver::getTitle);
+		final int commands = THREADS * COMMANDS_PER_THREAD;
+		log.info("{} threads x {} commands of {}ms: {} contexts of 1 browser {}ms ({} commands/s), {} browsers {}ms ({} commands/s)",
+				THREADS, COMMANDS_PER_THREAD, COMMAND_MILLIS, THREADS, TimeUnit.NANOSECONDS.toMillis(shared), perSecond(commands, shared),
+				THREADS, TimeUnit.NANOSECONDS.toMillis(separate), perSecond(commands, separate));
+
+		assertEquals(shared >= TimeUnit.MILLISECONDS.toNanos(commands * COMMAND_MILLIS), true);
+		assertEquals(separate < shared / 2, true);
+	}
+
+	@Test
+	public void contextsOfABrowserLoadPagesInParallel() throws InterruptedException {
+		final Consumer<WebDriver> load = driver -> {
+			driver.get("https://page.test");
+			driver.getTitle();
+		};
+		final long shared = run(new BrowserContexts(() -> new StubBrowser(COMMAND_MILLIS).driver(), THREADS,
+				driver -> new StubSessions(LOAD_MILLIS)), PAGES_PER_THREAD, load);
+		final long separate = run(new BrowserContexts(() -> new StubBrowser(COMMAND_MILLIS).driver(), 1,
+				driver -> new StubSessions(LOAD_MILLIS)), PAGES_PER_THREAD, load);
+		final int pages = THREADS * PAGES_PER_THREAD;
+		log.info("{} threads x {} page loads of {}ms: {} contexts of 1 browser {}ms ({} pages/s), {} browsers {}ms ({} pages/s)",
+				THREADS, PAGES_PER_THREAD, LOAD_MILLIS, THREADS, TimeUnit.NANOSECONDS.toMillis(shared), perSecond(pages, shared),
+				THREADS, TimeUnit.NANOSECONDS.toMillis(separate), perSecond(pages, separate));
+
+		assertEquals(shared < TimeUnit.MILLISECONDS.toNanos(pages * LOAD_MILLIS) / 2, true);
+		assertEquals(shared < separate * 3 / 2, true);
+	}
+
+	/**
+	 * @return nanoseconds for every thread to run the action on its own context the given number of times
+	 */
+	private static long run(BrowserContexts contexts, final int iterations, Consumer<WebDriver> action) throws InterruptedException {
+		List<WebDriver> drivers = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			drivers.add(contexts.newContext());
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(THREADS);
+		for (WebDriver driver : drivers) {
+			executor.execute(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < iterations; i++) {
+						action.accept(driver);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		final long begin = System.nanoTime();
+		start.countDown();
+		done.await();
+		final long elapsed = System.nanoTime() - begin;
+		executor.shutdown();
+		contexts.shutdown();
+		return elapsed;
+	}
+
+	private static long perSecond(final int commands, final long nanos) {
+		return commands * TimeUnit.SECONDS.toNanos(1) / nanos;
+	}
+
+	/**
+	 * DevTools sessions recording the commands per target, a page is complete the given time after its navigation.
+	 */
+	private static final class StubSessions implements TargetSessions {
+		private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+		private final Map<String, Long> navigated = new ConcurrentHashMap<>();
+		private final long loadMillis;
+		private boolean closed;
+
+		StubSessions(final long loadMillis) {
+			this.loadMillis = loadMillis;
+		}
+
+		@Override
+		public Map<String, Object> send(String targetId, String method, Map<String, Object> parameters, Duration timeout) {
+			if ("Page.navigate".equals(method)) {
+				sent.add(targetId + ":" + method + " " + parameters.get("url"));
+				navigated.put(targetId, System.nanoTime());
+				return "https://unknown.test".equals(parameters.get("url"))
+						? Collections.singletonMap("errorText", "net::ERR_NAME_NOT_RESOLVED") : Collections.emptyMap();
+			}
+			sent.add(targetId + ":" + method);
+			final boolean complete = System.nanoTime() - navigated.get(targetId) >= TimeUnit.MILLISECONDS.toNanos(loadMillis);
+			return Collections.singletonMap("result", Collections.singletonMap("value", complete ? "complete" : "loading"));
+		}
+
+		@Override
+		public void detach(String targetId) {
+			navigated.remove(targetId);
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+	/**
+	 * Browser holding one window per created target, every command is recorded with the active window.
+	 */
+	private static final class StubBrowser {
+		private final Set<String> windows = new LinkedHashSet<>(Collections.singleton("default"));
+		private final List<String> commands = new ArrayList<>();
+		private final AtomicInteger switches = new AtomicInteger();
+		private final AtomicInteger targets = new AtomicInteger();
+		private final long commandMillis;
+		private String activeWindow = "default";
+		private boolean quit;
+		private boolean failContexts;
+
+		StubBrowser() {
+			this(0);
+		}
+
+		/**
+		 * @param commandMillis latency of every recorded command, like the round trip to a real driver
+		 */
+		StubBrowser(final long commandMillis) {
+			this.commandMillis = commandMillis;
+		}
+
+		WebDriver driver() {
+			WebDriver.TargetLocator targetLocator = StubDriver.stub(WebDriver.TargetLocator.class, "switchTo", (command, args) -> {
+				if (!windows.contains(args[0])) {
+					throw new NoSuchWindowException("no window " + args[0]);
+				}
+				switches.incrementAndGet();
+				activeWindow = (String) args[0];
+				return null;
+			});
+			WebDriver.Timeouts timeouts = StubDriver.stub(WebDriver.Timeouts.class, "timeouts",
+					(command, args) -> "getPageLoadTimeout".equals(command) ? Duration.ofSeconds(10) : null);
+			WebDriver.Options options = StubDriver.stub(WebDriver.Options.class, "options",
+					(command, args) -> "timeouts".equals(command) ? timeouts : null);
+			WebDriver.Navigation navigation = StubDriver.stub(WebDriver.Navigation.class, "navigation", (command, args) -> {
+				commands.add(activeWindow + ":" + command);
+				return null;
+			});
+			return StubDriver.driver((command, args) -> {
+				switch (command) {
+					case "manage":
+						return options;
+					case "navigate":
+						return navigation;
+					case "executeCdpCommand":
+						return cdp((String) args[0], (Map<?, ?>) args[1]);
+					case "getWindowHandles":
+						return new LinkedHashSet<>(windows);
+					case "switchTo":
+						return targetLocator;
+					case "quit":
+						quit = true;
+						return null;
+					case "getWindowHandle":
+						if (!windows.contains(activeWindow)) {
+							throw new NoSuchWindowException("window closed");
+						}
+						return activeWindow;
+					case "getCurrentUrl":
+						commands.add(activeWindow + ":getCurrentUrl");
+						return "https://first.test";
+					case "findElement":
+						commands.add(activeWindow + ":findElement");
+						return element();
+					default:
+						commands.add(activeWindow + ":" + command);
+						Thread.sleep(commandMillis);
+						return null;
+				}
+			}, HasCdp.class);
+		}
+
+		private WebElement element() {
+			return StubDriver.element("element", (command, args) -> {
+				commands.add(activeWindow + ":" + command);
+				return null;
+			});
+		}
+
+		private Map<String, Object> cdp(final String command, Map<?, ?> parameters) {
+			switch (command) {
+				case "Target.createBrowserContext":
+					if (failContexts) {
+						throw new WebDriverException("browser crashed");
+					}
+					return Collections.singletonMap("browserContextId", "context-" + (targets.get() + 1));
+				case "Target.createTarget":
+					final String target = "target-" + targets.incrementAndGet();
+					windows.add(target);
+					return Collections.singletonMap("targetId", target);
+				case "Target.disposeBrowserContext":
+					windows.remove("target-" + ((String) parameters.get("browserContextId")).substring("context-".length()));
+					return Collections.emptyMap();
+				default:
+					return Collections.emptyMap();
+			}
+		}
+	}
+}
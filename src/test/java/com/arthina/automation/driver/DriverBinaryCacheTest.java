@@ -0,0 +1,67 @@
+package com.arthina.automation.driver;
+
+import com.arthina.automation.TestBase;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class DriverBinaryCacheTest extends TestBase {
+	private Path cacheDir;
+
+	@BeforeMethod
+	public void createCacheDir() throws IOException {
+		cacheDir = Files.createTempDirectory("drivers");
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void deleteCacheDir() throws IOException {
+		try (Stream<Path> paths = Files.walk(cacheDir)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	@Test
+	public void usesCachedBinaryOfTheBrowserVersion() throws IOException {
+		Path binary = cacheDir.resolve("Firefox").resolve("102").resolve(DriverBinaryCache.Browser.Firefox.binaryName());
+		Files.createDirectories(binary.getParent());
+		Files.write(binary, new byte[]{0});
+		binary.toFile().setExecutable(true);
+		final String previous = System.getProperty("webdriver.gecko.driver");
+
+		try {
+			assertEquals(new DriverBinaryCache(cacheDir).resolve(DriverBinaryCache.Browser.Firefox, "102"), binary);
+			assertEquals(System.getProperty("webdriver.gecko.driver"), binary.toString());
+		} finally {
+			if (previous == null) {
+				System.clearProperty("webdriver.gecko.driver");
+			} else {
+				System.setProperty("webdriver.gecko.driver", previous);
+			}
+		}
+	}
+
+	@Test
+	public void readsMajorVersionFromBrowserOutput() {
+		assertEquals(DriverBinaryCache.majorVersion("Google Chrome 103.0.5060.53 "), "103");
+		assertEquals(DriverBinaryCache.majorVersion("Mozilla Firefox 102.0.1"), "102");
+		assertEquals(DriverBinaryCache.majorVersion("Microsoft Edge 103.0.1264.37 "), "103");
+		assertEquals(DriverBinaryCache.majorVersion("    version    REG_SZ    103.0.5060.53"), "103");
+		assertEquals(DriverBinaryCache.majorVersion("no version"), null);
+	}
+
+	@Test
+	public void mapsUnknownBrowsersToChrome() {
+		assertEquals(DriverBinaryCache.Browser.of("Brave"), DriverBinaryCache.Browser.Chrome);
+		assertEquals(DriverBinaryCache.Browser.of("Edge"), DriverBinaryCache.Browser.Edge);
+		assertEquals(DriverBinaryCache.Browser.of("Safari"), null);
+	}
+}
@@ -0,0 +1,120 @@
+package com.arthina.automation.driver;
+
+import com.arthina.automation.StubDriver;
+import com.arthina.automation.TestBase;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class DriverPoolTest extends TestBase {
+
+	@Test
+	public void reusesDriverWithinThreadAndAcrossLeases() {
+		List<AtomicBoolean> created = new CopyOnWriteArrayList<>();
+		DriverPool pool = new DriverPool(() -> stubDriver(created), 2, 0);
+
+		WebDriver first = pool.acquire();
+		assertEquals(pool.acquire(), first);
+		pool.release();
+		assertEquals(pool.acquire(), first);
+		pool.release();
+		assertEquals(created.size(), 1);
+		pool.shutdown();
+	}
+
+	@Test
+	public void recyclesDriverAfterMaxUses() {
+		List<AtomicBoolean> created = new CopyOnWriteArrayList<>();
+		DriverPool pool = new DriverPool(() -> stubDriver(created), 1, 2);
+
+		WebDriver first = pool.acquire();
+		pool.release();
+		assertEquals(pool.acquire(), first);
+		pool.release();
+		assertEquals(created.get(0).get(), true);
+		WebDriver second = pool.acquire();
+		assertEquals(second == first, false);
+		pool.release();
+		pool.shutdown();
+	}
+
+	@Test
+	public void replacesUnhealthyIdleDriver() {
+		List<AtomicBoolean> created = new CopyOnWriteArrayList<>();
+		DriverPool pool = new DriverPool(() -> stubDriver(created), 1, 0);
+
+		WebDriver first = pool.acquire();
+		pool.release();
+		created.get(0).set(true);
+		WebDriver second = pool.acquire();
+		assertEquals(second == first, false);
+		assertEquals(pool.size(), 1);
+		pool.shutdown();
+	}
+
+	@Test
+	public void leasesSeparateDriversPerThread() throws InterruptedException {
+		List<AtomicBoolean> created = new CopyOnWriteArrayList<>();
+		DriverPool pool = new DriverPool(() -> stubDriver(created), 2, 0);
+		WebDriver mainDriver = pool.acquire();
+		WebDriver[] otherDriver = new WebDriver[1];
+
+		Thread other = new Thread(() -> {
+			otherDriver[0] = pool.acquire();
+			pool.release();
+		});
+		other.start();
+		other.join();
+
+		assertEquals(otherDriver[0] == mainDriver, false);
+		pool.release();
+		pool.shutdown();
+		assertEquals(created.stream().allMatch(AtomicBoolean::get), true);
+	}
+
+	@Test
+	public void leasesPrewarmedDriversFirst() throws InterruptedException {
+		List<AtomicBoolean> created = new CopyOnWriteArrayList<>();
+		DriverPool pool = new DriverPool(() -> stubDriver(created), 2, 0);
+		pool.prewarm(5);
+
+		WebDriver mainDriver = pool.acquire();
+		Thread other = new Thread(() -> {
+			pool.acquire();
+			pool.release();
+		});
+		other.start();
+		other.join();
+
+		assertEquals(created.size(), 2);
+		assertEquals(pool.size(), 2);
+		pool.release();
+		assertEquals(pool.acquire(), mainDriver);
+		pool.release();
+		pool.shutdown();
+		assertEquals(created.stream().allMatch(AtomicBoolean::get), true);
+	}
+
+	private static WebDriver stubDriver(List<AtomicBoolean> created) {
+		AtomicBoolean quit = new AtomicBoolean();
+		created.add(quit);
+		return StubDriver.driver((command, args) -> {
+			switch (command) {
+				case "getWindowHandle":
+					if (quit.get()) {
+						throw new NoSuchSessionException("session closed");
+					}
+					return "window";
+				case "quit":
+					quit.set(true);
+					return null;
+				default:
+					return null;
+			}
+		});
+	}
+}
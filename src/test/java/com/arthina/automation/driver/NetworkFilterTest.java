@@ -0,0 +1,78 @@
+package com.arthina.automation.driver;
+
+import com.arthina.automation.StubDriver;
+import com.arthina.automation.TestBase;
+import com.arthina.automation.reporter.ExtentTestManager;
+import com.aventstack.extentreports.model.Log;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class NetworkFilterTest extends TestBase {
+
+	@Test
+	public void parsesBlockListAndStubs() {
+		NetworkFilter filter = NetworkFilter.parse("*google-analytics.com*, *.woff2\n*intercom.io*",
+				"*/chat/widget.js=application/javascript */api/ads*=application/json:{\"ads\":[]}", false);
+
+		assertEquals(filter.getBlockedUrls(), Arrays.asList("*google-analytics.com*", "*.woff2", "*intercom.io*"));
+		assertEquals(filter.stubFor("https://cdn.test/chat/widget.js").getContentType(), "application/javascript");
+		assertEquals(filter.stubFor("https://app.test/api/ads?page=1").getBody(), "{\"ads\":[]}");
+		assertEquals(filter.stubFor("https://app.test/api/orders"), null);
+		assertEquals(NetworkFilter.parse("", "", false).isEmpty(), true);
+	}
+
+	@Test
+	public void pageRulesAdjustTheBlockList() {
+		NetworkFilter suite = NetworkFilter.parse("*.png *.woff2", "", false);
+
+		NetworkFilter page = suite.allow(Collections.singletonList("*.png")).block(Collections.singletonList("*/ads/*"));
+
+		assertEquals(page.getBlockedUrls(), Arrays.asList("*.woff2", "*/ads/*"));
+		assertEquals(suite.getBlockedUrls(), Arrays.asList("*.png", "*.woff2"));
+		assertEquals(suite.block(Collections.singletonList("*.png")), suite);
+	}
+
+	@Test
+	public void sendsFilterOnlyWhenItChanges() {
+		List<String> commands = new ArrayList<>();
+		WebDriver driver = StubDriver.driver((command, args) -> {
+			if ("executeCdpCommand".equals(command)) {
+				commands.add(args[0] + " " + args[1]);
+				return Collections.emptyMap();
+			}
+			return null;
+		}, HasCdp.class);
+		NetworkSession session = NetworkSession.forDriver(driver);
+		NetworkFilter filter = NetworkFilter.parse("*.woff2", "", false);
+
+		session.apply(filter);
+		session.apply(NetworkFilter.parse("*.woff2", "", false));
+
+		assertEquals(NetworkSession.of(driver), session);
+		assertEquals(commands, Arrays.asList("Network.enable {}", "Network.setBlockedURLs {urls=[*.woff2]}",
+				"Network.setCacheDisabled {cacheDisabled=false}"));
+	}
+
+	@Test
+	public void logsTheStatsOfTheDriverOfTheTest() {
+		WebDriver driver = StubDriver.driver((command, args) -> Collections.emptyMap(), HasCdp.class);
+		NetworkSession.forDriver(driver).apply(NetworkFilter.parse("*.woff2", "", false));
+		ITestResult result = Reporter.getCurrentTestResult();
+		result.setAttribute("driver", driver);
+
+		logNetworkStats(result);
+
+		List<Log> logs = ExtentTestManager.getTest().getModel().getLogs();
+		assertEquals(logs.get(logs.size() - 1).getDetails(), "Network filter: 0 of 0 requests avoided (0 blocked, 0 stubbed), 0 KB loaded");
+		result.removeAttribute("driver");
+	}
+}
@@ -0,0 +1,177 @@
+package com.arthina.automation.driver;
+
+import com.arthina.automation.StubDriver;
+import com.arthina.automation.TestBase;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SessionStateCacheTest extends TestBase {
+	private static final String HOME = "https://app.test/home";
+
+	@Test
+	public void logsInOncePerRoleAndInjectsStateElsewhere() {
+		AtomicInteger logins = new AtomicInteger();
+		AtomicReference<String> validSession = new AtomicReference<>();
+		SessionStateCache cache = cacheWithLogin(logins, validSession);
+		StubBrowser first = new StubBrowser();
+		StubBrowser second = new StubBrowser();
+
+		cache.open(first.driver(), "admin", HOME);
+		cache.open(second.driver(), "admin", HOME);
+
+		assertEquals(logins.get(), 1);
+		assertEquals(second.cookies.iterator().next().getValue(), validSession.get());
+		assertEquals(second.localStorage.get("token"), "token-" + validSession.get());
+		assertEquals(second.url, HOME);
+	}
+
+	@Test
+	public void logsInAgainWhenRestoredSessionIsRejected() {
+		AtomicInteger logins = new AtomicInteger();
+		AtomicReference<String> validSession = new AtomicReference<>();
+		SessionStateCache cache = cacheWithLogin(logins, validSession);
+		cache.open(new StubBrowser().driver(), "admin", HOME);
+
+		validSession.set("revoked on the server");
+		StubBrowser browser = new StubBrowser();
+		cache.open(browser.driver(), "admin", HOME);
+
+		assertEquals(logins.get(), 2);
+		assertEquals(browser.cookies.iterator().next().getValue(), validSession.get());
+		assertEquals(browser.url, HOME);
+	}
+
+	@Test
+	public void refreshesExpiredState() {
+		AtomicInteger logins = new AtomicInteger();
+		SessionStateCache cache = cacheWithLogin(logins, new AtomicReference<>());
+		cache.setMaxAge(Duration.ZERO);
+
+		cache.open(new StubBrowser().driver(), "admin", HOME);
+		cache.open(new StubBrowser().driver(), "admin", HOME);
+
+		assertEquals(logins.get(), 2);
+	}
+
+	@Test
+	public void onlyTheSessionCookiesEndTheState() {
+		AtomicInteger logins = new AtomicInteger();
+		final Date soon = new Date(System.currentTimeMillis() + 1000);
+		SessionStateCache cache = new SessionStateCache();
+		cache.register("admin", driver -> {
+			logins.incrementAndGet();
+			driver.get("https://app.test/login");
+			driver.manage().addCookie(new Cookie("sid", "session", "/", new Date(System.currentTimeMillis() + 3_600_000)));
+			driver.manage().addCookie(new Cookie("_csrf", "token", "/", soon));
+		}, driver -> true, "sid");
+
+		cache.open(new StubBrowser().driver(), "admin", HOME);
+
+		assertEquals(cache.get("admin").getExpiresAt().isAfter(soon.toInstant()), true);
+		cache.open(new StubBrowser().driver(), "admin", HOME);
+		assertEquals(logins.get(), 1);
+	}
+
+	@Test
+	public void refreshesStateWithExpiredSessionCookie() {
+		AtomicInteger logins = new AtomicInteger();
+		SessionStateCache cache = new SessionStateCache();
+		cache.register("admin", driver -> {
+			logins.incrementAndGet();
+			driver.get("https://app.test/login");
+			driver.manage().addCookie(new Cookie("sid", "session", "/", new Date(System.currentTimeMillis() - 1000)));
+		}, driver -> true, "sid");
+
+		cache.open(new StubBrowser().driver(), "admin", HOME);
+		cache.open(new StubBrowser().driver(), "admin", HOME);
+
+		assertEquals(logins.get(), 2);
+	}
+
+	private static SessionStateCache cacheWithLogin(AtomicInteger logins, AtomicReference<String> validSession) {
+		SessionStateCache cache = new SessionStateCache();
+		cache.register("admin", driver -> {
+			final String session = "session-" + logins.incrementAndGet();
+			validSession.set(session);
+			driver.get("https://app.test/login");
+			driver.manage().addCookie(new Cookie("sid", session));
+			((JavascriptExecutor) driver).executeScript("login", "token-" + session);
+			driver.get("https://app.test/landing");
+		}, driver -> driver.manage().getCookies().stream().anyMatch(cookie -> cookie.getValue().equals(validSession.get())));
+		return cache;
+	}
+
+	/**
+	 * In-memory browser holding url, cookies and storage.
+	 */
+	private static final class StubBrowser {
+		private String url = "data:,";
+		private final Set<Cookie> cookies = new HashSet<>();
+		private final Map<String, String> localStorage = new HashMap<>();
+		private final Map<String, String> sessionStorage = new HashMap<>();
+
+		WebDriver driver() {
+			WebDriver.Options options = StubDriver.stub(WebDriver.Options.class, "options", (command, args) -> {
+				switch (command) {
+					case "getCookies":
+						return new HashSet<>(cookies);
+					case "addCookie":
+						cookies.add((Cookie) args[0]);
+						return null;
+					case "deleteAllCookies":
+						cookies.clear();
+						return null;
+					default:
+						return null;
+				}
+			});
+			return StubDriver.driver((command, args) -> {
+				switch (command) {
+					case "get":
+						url = (String) args[0];
+						return null;
+					case "getCurrentUrl":
+						return url;
+					case "manage":
+						return options;
+					case "executeScript":
+						return executeScript((String) args[0], (Object[]) args[1]);
+					default:
+						return null;
+				}
+			}, JavascriptExecutor.class);
+		}
+
+		@SuppressWarnings("unchecked")
+		private Object executeScript(final String script, Object[] args) {
+			if ("login".equals(script)) {
+				localStorage.put("token", (String) args[0]);
+				return null;
+			}
+			if (script.contains("dump(")) {
+				Map<String, Object> state = new HashMap<>();
+				state.put("origin", "https://app.test");
+				state.put("local", new HashMap<>(localStorage));
+				state.put("session", new HashMap<>(sessionStorage));
+				return state;
+			}
+			Map<String, Map<String, String>> state = (Map<String, Map<String, String>>) args[0];
+			localStorage.clear();
+			localStorage.putAll(state.get("local"));
+			sessionStorage.clear();
+			sessionStorage.putAll(state.get("session"));
+			return null;
+		}
+	}
+}
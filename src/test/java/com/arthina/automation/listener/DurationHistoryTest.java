@@ -0,0 +1,102 @@
+package com.arthina.automation.listener;
+
+import com.arthina.automation.TestBase;
+import org.testng.IMethodInstance;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class DurationHistoryTest extends TestBase {
+
+	@Test
+	public void keepsDurationsOfAllStatusesAcrossRuns() throws IOException {
+		Path file = Files.createTempDirectory("durations").resolve("durations.tsv");
+		DurationHistory history = new DurationHistory(file);
+		history.record("A.passing", 400, ITestResult.SUCCESS);
+		history.record("A.passing", 600, ITestResult.SUCCESS);
+		history.record("A.failing", 300, ITestResult.FAILURE);
+		history.record("A.skipped", 0, ITestResult.SKIP);
+		history.record("A.flaky", 200, ITestResult.SUCCESS_PERCENTAGE_FAILURE);
+		history.save();
+
+		DurationHistory reloaded = new DurationHistory(file);
+		assertEquals(reloaded.size(), 4);
+		assertEquals(reloaded.get("A.passing").get().getMillis(), 1000L);
+		assertEquals(reloaded.get("A.failing").get().isFailed(), true);
+		assertEquals(reloaded.get("A.flaky").get().getMillis(), 200L);
+		assertEquals(reloaded.get("A.flaky").get().isFailed(), true);
+
+		reloaded.record("A.passing", 2000, ITestResult.SUCCESS);
+		reloaded.record("A.failing", 300, ITestResult.SUCCESS);
+		reloaded.save();
+		assertEquals(reloaded.get("A.passing").get().getMillis(), 1300L);
+		assertEquals(reloaded.get("A.failing").get().isFailed(), false);
+		assertEquals(reloaded.get("A.skipped").isPresent(), true);
+	}
+
+	@Test
+	public void ordersLongestFirstAndFailedFirst() throws IOException {
+		DurationHistory history = new DurationHistory(Files.createTempDirectory("durations").resolve("durations.tsv"));
+		history.record("A.short", 100, ITestResult.SUCCESS);
+		history.record("A.long", 5000, ITestResult.SUCCESS);
+		history.record("B.medium", 1000, ITestResult.FAILURE);
+		history.record("B.tiny", 10, ITestResult.SUCCESS);
+		history.save();
+		List<IMethodInstance> methods = Arrays.asList(method(String.class, "A.short"), method(String.class, "A.long"),
+				method(Integer.class, "B.medium"), method(Integer.class, "B.tiny"), method(Integer.class, "B.new"));
+
+		assertEquals(names(DurationOrderInterceptor.order(methods, history, true, false, false)),
+				Arrays.asList("A.long", "B.medium", "B.new", "A.short", "B.tiny"));
+		assertEquals(names(DurationOrderInterceptor.order(methods, history, true, true, false)),
+				Arrays.asList("B.medium", "A.long", "B.new", "A.short", "B.tiny"));
+		// classes: A = 5100ms, B = 1010ms + median 1000ms, methods keep their order inside the class
+		assertEquals(names(DurationOrderInterceptor.order(methods, history, true, false, true)),
+				Arrays.asList("A.short", "A.long", "B.medium", "B.tiny", "B.new"));
+		assertEquals(names(DurationOrderInterceptor.order(methods, history, true, true, true)),
+				Arrays.asList("B.medium", "B.tiny", "B.new", "A.short", "A.long"));
+	}
+
+	private static List<String> names(List<IMethodInstance> methods) {
+		return methods.stream().map(method -> method.getMethod().getQualifiedName()).collect(Collectors.toList());
+	}
+
+	private static IMethodInstance method(final Class<?> testClass, final String qualifiedName) {
+		ITestNGMethod testMethod = (ITestNGMethod) Proxy.newProxyInstance(ITestNGMethod.class.getClassLoader(), new Class<?>[]{ITestNGMethod.class},
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+						case "getQualifiedName":
+						case "toString":
+							return qualifiedName;
+						case "getRealClass":
+							return testClass;
+						case "hashCode":
+							return System.identityHashCode(proxy);
+						case "equals":
+							return proxy == args[0];
+						default:
+							return null;
+					}
+				});
+		return (IMethodInstance) Proxy.newProxyInstance(IMethodInstance.class.getClassLoader(), new Class<?>[]{IMethodInstance.class},
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+						case "getMethod":
+							return testMethod;
+						case "hashCode":
+							return System.identityHashCode(proxy);
+						case "equals":
+							return proxy == args[0];
+						default:
+							return qualifiedName;
+					}
+				});
+	}
+}
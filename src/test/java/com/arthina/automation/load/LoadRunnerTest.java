@@ -0,0 +1,113 @@
+package com.arthina.automation.load;
+
+import com.arthina.automation.ApiTestBase;
+import com.arthina.automation.UsersServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs load against a local server and checks the iteration counts, the request histograms and the limits.
+ */
+public class LoadRunnerTest extends ApiTestBase {
+	private static final int USERS = 8;
+
+	private final AtomicInteger active = new AtomicInteger();
+	private final AtomicInteger peak = new AtomicInteger();
+	private UsersServer server;
+	private String baseUri;
+
+	@BeforeClass
+	public void startServer() throws IOException {
+		server = UsersServer.start(USERS * 2, users -> exchange -> {
+			peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+			try {
+				users.handle(exchange);
+			} finally {
+				active.decrementAndGet();
+			}
+		});
+		baseUri = server.getBaseUri();
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() {
+		server.stop();
+	}
+
+	@Test
+	public void histogramPercentilesStayWithinTheBucketPrecision() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long micros = 1; micros <= 100_000; micros++) {
+			histogram.recordMicros(micros);
+		}
+
+		assertEquals(histogram.getCount(), 100_000L);
+		assertEquals(Math.abs(histogram.getPercentile(50).toNanos() / 1_000 - 50_000) <= 50_000 / 64, true);
+		assertEquals(Math.abs(histogram.getPercentile(99).toNanos() / 1_000 - 99_000) <= 99_000 / 64, true);
+		assertEquals(histogram.getPercentile(100), Duration.ofMillis(100));
+		assertEquals(histogram.getMax(), Duration.ofMillis(100));
+	}
+
+	@Test
+	public void histogramBucketsCoverTheirValues() {
+		for (long micros : new long[]{0, 127, 128, 255, 256, 1_000, 65_535, 1_000_000, 3_600_000_000L}) {
+			final int index = LatencyHistogram.index(micros);
+			assertEquals(LatencyHistogram.highestInBucket(index) >= micros, true);
+			assertEquals(index == 0 || LatencyHistogram.highestInBucket(index - 1) < micros, true);
+		}
+	}
+
+	@Test
+	public void runsTheIterationsOfEveryUser() throws Exception {
+		LoadProfile profile = new LoadProfile(USERS, Duration.ZERO, Duration.ofMinutes(1), 25, Duration.ZERO, 0);
+
+		LoadRun run = LoadRunner.run("users", profile, () -> given().baseUri(baseUri).get("/users").then().statusCode(200));
+
+		assertEquals(run.getIterations().getCount(), USERS * 25L);
+		assertEquals(run.getRequests().get("GET /users").getCount(), USERS * 25L);
+		assertEquals(run.getErrors(), 0L);
+		assertEquals(run.getThroughput() > 0, true);
+		assertEquals(peak.get() <= USERS, true);
+		assertEquals(profile.check(run).isPresent(), false);
+		assertEquals(LoadRun.current().isPresent(), false);
+	}
+
+	@Test
+	public void rampsUpAndStopsAfterTheDuration() throws Exception {
+		final AtomicInteger started = new AtomicInteger();
+		LoadProfile profile = new LoadProfile(4, Duration.ofMillis(200), Duration.ofMillis(400), 0, Duration.ZERO, 0);
+
+		LoadRun run = LoadRunner.run("sleep", profile, () -> {
+			started.incrementAndGet();
+			Thread.sleep(10);
+			return null;
+		});
+
+		assertEquals(run.getElapsed().compareTo(Duration.ofMillis(400)) >= 0, true);
+		assertEquals(run.getElapsed().compareTo(Duration.ofSeconds(5)) < 0, true);
+		assertEquals(run.getIterations().getCount(), (long) started.get());
+		assertEquals(run.getIterations().getCount() > 4, true);
+	}
+
+	@Test
+	public void failsTheRunAboveTheErrorLimit() throws Exception {
+		final AtomicInteger calls = new AtomicInteger();
+		LoadProfile profile = new LoadProfile(2, Duration.ZERO, Duration.ofMinutes(1), 10, Duration.ZERO, 10);
+
+		LoadRun run = LoadRunner.run("flaky", profile, () -> {
+			if (calls.incrementAndGet() % 2 == 0) {
+				throw new AssertionError("expected 200");
+			}
+			return null;
+		});
+
+		assertEquals(run.getErrors(), 10L);
+		assertEquals(run.getFirstError().getMessage(), "expected 200");
+		assertEquals(profile.check(run).isPresent(), true);
+	}
+}
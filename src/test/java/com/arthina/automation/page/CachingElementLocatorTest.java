@@ -0,0 +1,116 @@
+package com.arthina.automation.page;
+
+import com.arthina.automation.StubDriver;
+import com.arthina.automation.TestBase;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.PageFactory;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts findElement calls of a stub driver behind page fields decorated with the caching locators.
+ */
+public class CachingElementLocatorTest extends TestBase {
+
+	static class StubPage {
+		@FindBy(id = "name")
+		WebElement name;
+
+		@NoCacheLookup
+		@FindBy(id = "live")
+		WebElement live;
+	}
+
+	@NoCacheLookup
+	static class LivePage extends StubPage {
+	}
+
+	@Test
+	public void reusesElementUntilInvalidated() {
+		AtomicInteger lookups = new AtomicInteger();
+		CachingElementLocatorFactory factory = new CachingElementLocatorFactory(stubDriver(lookups, new AtomicInteger()));
+		StubPage page = initPage(factory);
+		final long hits = CachingElementLocatorFactory.getHits();
+
+		for (int i = 0; i < 5; i++) {
+			assertEquals(page.name.getText(), "text");
+		}
+		assertEquals(lookups.get(), 1);
+		assertEquals(CachingElementLocatorFactory.getHits() - hits, 4L);
+
+		factory.invalidateAll();
+		page.name.getText();
+		assertEquals(lookups.get(), 2);
+	}
+
+	@Test
+	public void looksUpAgainWhenElementWentStale() {
+		AtomicInteger lookups = new AtomicInteger();
+		AtomicInteger staleCalls = new AtomicInteger();
+		StubPage page = initPage(new CachingElementLocatorFactory(stubDriver(lookups, staleCalls)));
+		page.name.getText();
+		final long invalidations = CachingElementLocatorFactory.getInvalidations();
+
+		staleCalls.set(1);
+		assertEquals(page.name.getText(), "text");
+		assertEquals(lookups.get(), 2);
+		assertEquals(CachingElementLocatorFactory.getInvalidations() - invalidations, 1L);
+	}
+
+	@Test
+	public void optedOutFieldsAreNeverCached() {
+		AtomicInteger lookups = new AtomicInteger();
+		StubPage page = initPage(new CachingElementLocatorFactory(stubDriver(lookups, new AtomicInteger())));
+
+		page.live.getText();
+		page.live.getText();
+		page.live.getText();
+		assertEquals(lookups.get(), 3);
+	}
+
+	@Test
+	public void optedOutPagesNeverCacheInheritedFields() {
+		AtomicInteger lookups = new AtomicInteger();
+		LivePage page = new LivePage();
+		PageFactory.initElements(new StaleElementRetryDecorator(
+				new CachingElementLocatorFactory(stubDriver(lookups, new AtomicInteger()), LivePage.class)), page);
+
+		page.name.getText();
+		page.name.getText();
+		assertEquals(lookups.get(), 2);
+		assertEquals(PageMetadata.of(LivePage.class).getFields().stream().anyMatch(PageMetadata.ElementField::isCacheable), false);
+	}
+
+	private static StubPage initPage(CachingElementLocatorFactory factory) {
+		StubPage page = new StubPage();
+		PageFactory.initElements(new StaleElementRetryDecorator(factory), page);
+		return page;
+	}
+
+	/**
+	 * Driver whose elements fail the given number of calls (counted over all elements) with a stale reference.
+	 */
+	private static WebDriver stubDriver(AtomicInteger lookups, AtomicInteger staleCalls) {
+		return StubDriver.driver((command, args) -> {
+			if ("findElement".equals(command)) {
+				lookups.incrementAndGet();
+				return stubElement((By) args[0], staleCalls);
+			}
+			return null;
+		});
+	}
+
+	private static WebElement stubElement(By by, AtomicInteger staleCalls) {
+		return StubDriver.element(by.toString(), (command, args) -> {
+			if (staleCalls.getAndUpdate(calls -> Math.max(0, calls - 1)) > 0) {
+				throw new StaleElementReferenceException("stale " + by);
+			}
+			return "getText".equals(command) ? "text" : null;
+		});
+	}
+}
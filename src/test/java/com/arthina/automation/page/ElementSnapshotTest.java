@@ -0,0 +1,176 @@
+package com.arthina.automation.page;
+
+import com.arthina.automation.PageBase;
+import com.arthina.automation.StubDriver;
+import com.arthina.automation.TestBase;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.Select;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares WebDriver round trips of the per-element helpers with the snapshot for a 200 option dropdown, and checks
+ * visibility and stale handling of the snapshot waits, against stub drivers counting every remote command.
+ */
+@Slf4j
+public class ElementSnapshotTest extends TestBase {
+	private static final int OPTIONS = 200;
+
+	@Test
+	public void readsWholeDropdownInOneRoundTrip() {
+		AtomicInteger roundTrips = new AtomicInteger();
+		WebDriver driver = stubDriver(roundTrips);
+		WebElement select = stubElement("select", roundTrips);
+
+		roundTrips.set(0);
+		List<String> legacyTexts = new ArrayList<>();
+		for (WebElement option : new Select(select).getOptions()) {
+			legacyTexts.add(option.getText());
+		}
+		final int legacyRoundTrips = roundTrips.get();
+
+		roundTrips.set(0);
+		ElementSnapshot snapshot = ElementSnapshot.optionsOf(driver, select);
+		final int snapshotRoundTrips = roundTrips.get();
+
+		log.info("Round trips for {} options: per-element={} snapshot={}", OPTIONS, legacyRoundTrips, snapshotRoundTrips);
+		assertEquals(snapshot.texts(), legacyTexts);
+		assertEquals(snapshotRoundTrips, 1);
+		assertEquals(legacyRoundTrips > OPTIONS, true);
+	}
+
+	@Test
+	public void readsTheStateOfTheGivenElementsInOneRoundTrip() {
+		AtomicInteger roundTrips = new AtomicInteger();
+		WebElement shown = StubDriver.element("shown", (command, args) -> null);
+		WebElement hidden = StubDriver.element("hidden", (command, args) -> null);
+		Map<WebElement, Integer> visibleFrom = new HashMap<>();
+		visibleFrom.put(shown, 0);
+		visibleFrom.put(hidden, Integer.MAX_VALUE);
+
+		ElementSnapshot snapshot = ElementSnapshot.of(stateDriver(visibleFrom, roundTrips, new AtomicInteger()), Arrays.asList(shown, hidden), "data-id");
+
+		assertEquals(roundTrips.get(), 1);
+		assertEquals(snapshot.texts(), Arrays.asList("shown", "hidden"));
+		assertEquals(snapshot.get(0).isVisible(), true);
+		assertEquals(snapshot.get(1).isVisible(), false);
+		assertEquals(snapshot.allVisible(), false);
+		assertEquals(snapshot.get(1).getAttribute("data-id"), "hidden-data-id");
+	}
+
+	@Test
+	public void emptyListNeedsNoRoundTripAndIsVisible() {
+		AtomicInteger roundTrips = new AtomicInteger();
+		PageBase page = new PageBase(stateDriver(new HashMap<>(), roundTrips, new AtomicInteger()));
+
+		assertEquals(page.waitTillAllVisible(Collections.emptyList()).size(), 0);
+		page.assertLists(Collections.emptyList(), Collections.emptyList());
+		assertEquals(roundTrips.get(), 0);
+	}
+
+	@Test
+	public void waitsThroughStaleAndHiddenElements() {
+		AtomicInteger roundTrips = new AtomicInteger();
+		WebElement shown = StubDriver.element("shown", (command, args) -> null);
+		WebElement late = StubDriver.element("late", (command, args) -> null);
+		Map<WebElement, Integer> visibleFrom = new HashMap<>();
+		visibleFrom.put(shown, 0);
+		visibleFrom.put(late, 3);
+		PageBase page = new PageBase(stateDriver(visibleFrom, roundTrips, new AtomicInteger(1)));
+
+		ElementSnapshot snapshot = page.waitTillAllVisible(Arrays.asList(shown, late));
+
+		// stale on the first poll, late still hidden on the second
+		assertEquals(roundTrips.get(), 3);
+		assertEquals(snapshot.allVisible(), true);
+		assertEquals(snapshot.texts(), Arrays.asList("shown", "late"));
+	}
+
+	/**
+	 * Driver answering the snapshot script from the passed elements, an element is visible from the given round trip
+	 * on. The first staleCalls snapshots fail with a stale reference; page readiness checks are not counted.
+	 */
+	private static WebDriver stateDriver(Map<WebElement, Integer> visibleFrom, AtomicInteger roundTrips, AtomicInteger staleCalls) {
+		return StubDriver.driver((command, args) -> {
+			if (!"executeScript".equals(command)) {
+				return null;
+			}
+			if ("return document.readyState;".equals(args[0])) {
+				return "complete";
+			}
+			final int roundTrip = roundTrips.incrementAndGet();
+			if (staleCalls.getAndDecrement() > 0) {
+				throw new StaleElementReferenceException("element went stale");
+			}
+			final Object[] scriptArgs = (Object[]) args[1];
+			List<Map<String, Object>> states = new ArrayList<>();
+			for (Object element : (List<?>) scriptArgs[0]) {
+				Map<String, Object> state = new HashMap<>();
+				state.put("text", element.toString());
+				state.put("visible", roundTrip >= visibleFrom.get(element));
+				Map<String, Object> attributes = new HashMap<>();
+				for (Object name : (List<?>) scriptArgs[1]) {
+					attributes.put((String) name, element + "-" + name);
+				}
+				state.put("attributes", attributes);
+				states.add(state);
+			}
+			return states;
+		}, JavascriptExecutor.class);
+	}
+
+	private static WebDriver stubDriver(AtomicInteger roundTrips) {
+		return StubDriver.driver((command, args) -> {
+			if ("executeScript".equals(command)) {
+				roundTrips.incrementAndGet();
+				List<Map<String, Object>> states = new ArrayList<>();
+				for (int i = 0; i < OPTIONS; i++) {
+					Map<String, Object> state = new HashMap<>();
+					state.put("text", "Option " + i);
+					state.put("visible", true);
+					states.add(state);
+				}
+				return states;
+			}
+			return null;
+		}, JavascriptExecutor.class);
+	}
+
+	private static WebElement stubElement(final String tagName, AtomicInteger roundTrips) {
+		return stubElement(tagName, -1, roundTrips);
+	}
+
+	private static WebElement stubElement(final String tagName, final int index, AtomicInteger roundTrips) {
+		return StubDriver.element(tagName + index, (command, args) -> {
+			switch (command) {
+				case "getTagName":
+					roundTrips.incrementAndGet();
+					return tagName;
+				case "getText":
+					roundTrips.incrementAndGet();
+					return "Option " + index;
+				case "findElements":
+					roundTrips.incrementAndGet();
+					List<WebElement> options = new ArrayList<>();
+					for (int i = 0; i < OPTIONS; i++) {
+						options.add(stubElement("option", i, roundTrips));
+					}
+					return options;
+				default:
+					roundTrips.incrementAndGet();
+					return null;
+			}
+		});
+	}
+}
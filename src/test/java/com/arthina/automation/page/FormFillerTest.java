@@ -0,0 +1,157 @@
+package com.arthina.automation.page;
+
+import com.arthina.automation.StubDriver;
+import com.arthina.automation.TestBase;
+import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidArgumentException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills forms against a stub driver that records the fill script arguments and answers with canned field results.
+ */
+public class FormFillerTest extends TestBase {
+
+	@Test
+	public void fillsAllScriptedFieldsInOneRoundTrip() {
+		List<String> commands = new ArrayList<>();
+		List<Object> scriptArguments = new ArrayList<>();
+		WebElement found = StubDriver.element("found", (command, args) -> null);
+		WebDriver driver = stubDriver(commands, scriptArguments, found, Arrays.asList(
+				result(true, "ann", null), result(false, null, "element not found"), result(true, "true", null),
+				result(true, "red,blue", null)));
+		WebElement name = StubDriver.element("name", (command, args) -> null);
+		WebElement comment = StubDriver.element("comment", (command, args) -> null);
+
+		List<FormFiller.FieldResult> results = new FormFiller(driver).fill(new FormData()
+				.set(name, "ann")
+				.set(By.cssSelector("#city"), "Rome")
+				.type(comment, "typed")
+				.check(By.xpath("//input[@name='terms']"), true)
+				.select(By.id("colors"), Arrays.asList("red", "blue")));
+
+		assertEquals(commands, Arrays.asList("findElement", "executeScript"));
+		List<?> fields = (List<?>) scriptArguments.get(0);
+		assertEquals(fields.size(), 4);
+		assertEquals(argument(fields, 0).get("element"), name);
+		assertEquals(argument(fields, 1).get("using"), "css selector");
+		assertEquals(argument(fields, 1).get("value"), "#city");
+		assertEquals(argument(fields, 2).get("using"), "xpath");
+		assertEquals(argument(fields, 2).get("values"), Collections.singletonList("true"));
+		assertEquals(argument(fields, 3).get("element"), found);
+		assertEquals(argument(fields, 3).get("values"), Arrays.asList("red", "blue"));
+
+		assertEquals(results.size(), 4);
+		assertEquals(results.get(0).isOk(), true);
+		assertEquals(results.get(1).isOk(), false);
+		assertEquals(results.get(1).getError(), "element not found");
+		assertEquals(results.get(1).toString(), "By.cssSelector: #city=[Rome] FAILED (actual: null, element not found)");
+		assertEquals(results.get(3).getActual(), "red,blue");
+	}
+
+	@Test
+	public void sendsFilePathsToTheFileInputsHandedBackByTheScript() {
+		List<Object> sentKeys = new ArrayList<>();
+		WebElement fileInput = StubDriver.element("upload", (command, args) -> {
+			sentKeys.add(((Object[]) args[0])[0]);
+			return null;
+		});
+		WebElement brokenInput = StubDriver.element("broken", (command, args) -> {
+			throw new InvalidArgumentException("File not found : /missing.txt");
+		});
+		Map<String, Object> upload = result(false, null, null);
+		upload.put("file", fileInput);
+		Map<String, Object> broken = result(false, null, null);
+		broken.put("file", brokenInput);
+		WebDriver driver = stubDriver(new ArrayList<>(), new ArrayList<>(), null, Arrays.asList(upload, broken,
+				result(false, null, "InvalidStateError: the value cannot be set")));
+
+		List<FormFiller.FieldResult> results = new FormFiller(driver).fill(new FormData()
+				.set(By.id("upload"), "/data/a.txt")
+				.set(By.id("broken"), "/missing.txt")
+				.set(By.id("other"), "x"));
+
+		assertEquals(sentKeys, Collections.singletonList("/data/a.txt"));
+		assertEquals(results.get(0).isOk(), true);
+		assertEquals(results.get(0).getActual(), "/data/a.txt");
+		assertEquals(results.get(1).isOk(), false);
+		assertEquals(results.get(1).getError().startsWith("File not found"), true);
+		assertEquals(results.get(2).getError(), "InvalidStateError: the value cannot be set");
+	}
+
+	@Test
+	public void typedFieldsOnlyNeedNoRoundTrip() {
+		List<String> commands = new ArrayList<>();
+		WebDriver driver = stubDriver(commands, new ArrayList<>(), null, Collections.emptyList());
+		WebElement comment = StubDriver.element("comment", (command, args) -> null);
+
+		assertEquals(new FormFiller(driver).fill(new FormData().type(comment, "typed")).isEmpty(), true);
+		assertEquals(commands.isEmpty(), true);
+	}
+
+	@Test
+	public void trimsValuesLikeWriteText() {
+		WebElement name = StubDriver.element("name", (command, args) -> null);
+		Map<Object, Object> values = new LinkedHashMap<>();
+		values.put(By.id("city"), "  Rome ");
+		values.put(By.id("colors"), Arrays.asList(" red", "blue "));
+		values.put(By.id("terms"), Boolean.FALSE);
+		values.put(By.id("empty"), null);
+
+		FormData formData = FormData.of(values).set(name, " ann\t").type(name, " typed ");
+
+		assertEquals(formData.getFields().get(0).getValues(), Collections.singletonList("Rome"));
+		assertEquals(formData.getFields().get(1).getValues(), Arrays.asList("red", "blue"));
+		assertEquals(formData.getFields().get(2).getValues(), Collections.singletonList("false"));
+		assertEquals(formData.getFields().get(3).getValues(), Collections.singletonList(""));
+		assertEquals(formData.getFields().get(4).getValues(), Collections.singletonList("ann"));
+		assertEquals(formData.getFields().get(5).getValues(), Collections.singletonList("typed"));
+		assertEquals(formData.getFields().get(5).isTyped(), true);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void rejectsFieldsThatAreNoElementOrLocator() {
+		FormData.of(Collections.singletonMap("#city", "Rome"));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> argument(List<?> fields, final int index) {
+		return (Map<String, Object>) fields.get(index);
+	}
+
+	private static Map<String, Object> result(final boolean ok, final String actual, final String error) {
+		Map<String, Object> result = new HashMap<>();
+		result.put("ok", ok);
+		result.put("actual", actual);
+		result.put("error", error);
+		return result;
+	}
+
+	/**
+	 * Driver recording its commands and the script arguments, findElement answers with the given element.
+	 */
+	private static WebDriver stubDriver(List<String> commands, List<Object> scriptArguments, WebElement found, List<Map<String, Object>> outcome) {
+		return StubDriver.driver((command, args) -> {
+			commands.add(command);
+			switch (command) {
+				case "findElement":
+					return found;
+				case "executeScript":
+					scriptArguments.add(((Object[]) args[1])[0]);
+					return outcome;
+				default:
+					return null;
+			}
+		}, JavascriptExecutor.class);
+	}
+}
@@ -0,0 +1,72 @@
+package com.arthina.automation.page;
+
+import com.arthina.automation.StubDriver;
+import com.sun.management.ThreadMXBean;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.PageFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Page construction cost of {@code PageFactory.initElements} against binding the cached {@link PageMetadata},
+ * for a page with 30 element fields and a stub driver (no element is looked up while binding).
+ * Prints ns per page and allocated bytes per page of the benchmark thread for both variants.
+ *
+ * Run the main method from the test classpath (e.g. from the IDE) after mvn test-compile.
+ */
+public class PageConstructionBenchmark {
+	private static final int PAGES = 200_000;
+	private static final int ROUNDS = 5;
+
+	static class WidePage {
+		@FindBy(id = "f00") WebElement f00; @FindBy(id = "f01") WebElement f01; @FindBy(id = "f02") WebElement f02;
+		@FindBy(id = "f03") WebElement f03; @FindBy(id = "f04") WebElement f04; @FindBy(id = "f05") WebElement f05;
+		@FindBy(id = "f06") WebElement f06; @FindBy(id = "f07") WebElement f07; @FindBy(id = "f08") WebElement f08;
+		@FindBy(id = "f09") WebElement f09; @FindBy(css = "#f10") WebElement f10; @FindBy(css = "#f11") WebElement f11;
+		@FindBy(css = "#f12") WebElement f12; @FindBy(css = "#f13") WebElement f13; @FindBy(css = "#f14") WebElement f14;
+		@FindBy(css = "#f15") WebElement f15; @FindBy(css = "#f16") WebElement f16; @FindBy(css = "#f17") WebElement f17;
+		@FindBy(css = "#f18") WebElement f18; @FindBy(css = "#f19") WebElement f19;
+		@FindBy(xpath = "//div[@id='f20']") WebElement f20; @FindBy(xpath = "//div[@id='f21']") WebElement f21;
+		@FindBy(xpath = "//div[@id='f22']") WebElement f22; @FindBy(xpath = "//div[@id='f23']") WebElement f23;
+		@FindBy(xpath = "//div[@id='f24']") WebElement f24; @FindBy(xpath = "//div[@id='f25']") WebElement f25;
+		@FindBy(css = "li.a") List<WebElement> l26; @FindBy(css = "li.b") List<WebElement> l27;
+		@FindBy(css = "li.c") List<WebElement> l28; @FindBy(css = "li.d") List<WebElement> l29;
+	}
+
+	public static void main(String[] args) {
+		final WebDriver driver = StubDriver.driver();
+
+		for (int round = 0; round < ROUNDS; round++) {
+			measure("PageFactory.initElements", () -> {
+				WidePage page = new WidePage();
+				PageFactory.initElements(new StaleElementRetryDecorator(new CachingElementLocatorFactory(driver)), page);
+				return page;
+			});
+			measure("PageMetadata.bind", () -> {
+				WidePage page = new WidePage();
+				PageMetadata.of(WidePage.class).bind(page, new CachingElementLocatorFactory(driver));
+				return page;
+			});
+		}
+	}
+
+	private static void measure(final String name, Supplier<WidePage> construction) {
+		final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		final long threadId = Thread.currentThread().getId();
+		final long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+		final long begin = System.nanoTime();
+		int checksum = 0;
+		for (int i = 0; i < PAGES; i++) {
+			checksum += construction.get().f00 != null ? 1 : 0;
+		}
+		final long elapsed = System.nanoTime() - begin;
+		final long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+		System.out.printf("%-26s pages=%d elapsed=%dms %dns/page %dB/page (%d)%n", name, PAGES,
+				TimeUnit.NANOSECONDS.toMillis(elapsed), elapsed / PAGES, allocated / PAGES, checksum);
+	}
+}
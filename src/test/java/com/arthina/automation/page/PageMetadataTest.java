@@ -0,0 +1,58 @@
+package com.arthina.automation.page;
+
+import com.arthina.automation.StubDriver;
+import com.arthina.automation.TestBase;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindBy;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+public class PageMetadataTest extends TestBase {
+
+	static class BasePage {
+		@FindBy(css = "h1")
+		WebElement title;
+	}
+
+	static class ListPage extends BasePage {
+		@FindBy(css = "li")
+		List<WebElement> items;
+
+		@NoCacheLookup
+		WebElement search;
+
+		List<WebElement> notAnnotated;
+
+		String name;
+	}
+
+	@Test
+	public void computesFieldLocatorsOncePerClass() {
+		PageMetadata metadata = PageMetadata.of(ListPage.class);
+
+		assertEquals(PageMetadata.of(ListPage.class) == metadata, true);
+		assertEquals(metadata.getFields().size(), 3);
+		assertEquals(metadata.getFields().get(0).getBy(), By.cssSelector("li"));
+		assertEquals(metadata.getFields().get(0).isList(), true);
+		assertEquals(metadata.getFields().get(1).getBy(), new org.openqa.selenium.support.ByIdOrName("search"));
+		assertEquals(metadata.getFields().get(1).isCacheable(), false);
+		assertEquals(metadata.getFields().get(2).getBy(), By.cssSelector("h1"));
+	}
+
+	@Test
+	public void bindsProxiesToEveryInstance() {
+		CachingElementLocatorFactory factory = new CachingElementLocatorFactory(StubDriver.driver());
+		ListPage first = new ListPage();
+		ListPage second = new ListPage();
+
+		PageMetadata.of(ListPage.class).bind(first, factory);
+		PageMetadata.of(ListPage.class).bind(second, factory);
+
+		assertEquals(first.title != null && first.items != null && first.search != null, true);
+		assertEquals(first.title != second.title, true);
+		assertEquals(first.notAnnotated == null && first.name == null, true);
+	}
+}
@@ -0,0 +1,63 @@
+package com.arthina.automation.page;
+
+import com.arthina.automation.StubDriver;
+import com.arthina.automation.TestBase;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks the tracking registration and the probe of the settle engine against stub drivers.
+ */
+public class PageSettleEngineTest extends TestBase {
+
+	@Test
+	public void registersTheTrackingOnceForEveryNewDocument() {
+		List<String> cdpCommands = new ArrayList<>();
+		List<String> sources = new ArrayList<>();
+		WebDriver driver = StubDriver.driver((command, args) -> {
+			if ("executeCdpCommand".equals(command)) {
+				cdpCommands.add((String) args[0]);
+				sources.add((String) ((Map<?, ?>) args[1]).get("source"));
+				return Collections.emptyMap();
+			}
+			return null;
+		}, HasCdp.class);
+
+		assertEquals(PageSettleEngine.instrumentNewDocuments(driver), driver);
+		PageSettleEngine.instrumentNewDocuments(driver);
+		assertEquals(cdpCommands, Collections.singletonList("Page.addScriptToEvaluateOnNewDocument"));
+		assertEquals(sources.get(0).contains("XMLHttpRequest.prototype.send"), true);
+	}
+
+	@Test
+	public void driversWithoutDevToolsAreLeftAlone() {
+		List<String> commands = new ArrayList<>();
+		WebDriver driver = StubDriver.driver((command, args) -> {
+			commands.add(command);
+			return null;
+		}, JavascriptExecutor.class);
+
+		assertEquals(PageSettleEngine.instrumentNewDocuments(driver), driver);
+		assertEquals(commands.isEmpty(), true);
+	}
+
+	@Test
+	public void probeCountsTheIdleTimeFromTheLastFinishedResource() {
+		List<String> scripts = new ArrayList<>();
+		WebDriver driver = StubDriver.driver((command, args) -> {
+			scripts.add((String) args[0]);
+			return Arrays.asList("complete", 0L, 500L, 0L);
+		}, JavascriptExecutor.class);
+
+		assertEquals(ReadinessProbe.networkIdle().isReady(driver), true);
+		assertEquals(scripts.get(0).contains("performance.getEntriesByType('resource')"), true);
+	}
+}
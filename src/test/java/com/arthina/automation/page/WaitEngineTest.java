@@ -0,0 +1,58 @@
+package com.arthina.automation.page;
+
+import com.arthina.automation.TestBase;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.TimeoutException;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WaitEngineTest extends TestBase {
+
+	@Test
+	public void pollsUntilConditionReturnsValue() {
+		AtomicInteger calls = new AtomicInteger();
+		WaitEngine waitEngine = new WaitEngine(null);
+
+		String value = waitEngine.until("test-value", driver -> calls.incrementAndGet() < 3 ? null : "ready", Duration.ofSeconds(5));
+
+		assertEquals(value, "ready");
+		assertEquals(calls.get(), 3);
+	}
+
+	@Test
+	public void treatsFalseAndMissingElementsAsNotMet() {
+		AtomicInteger calls = new AtomicInteger();
+		WaitEngine waitEngine = new WaitEngine(null);
+
+		Boolean met = waitEngine.until("test-boolean", driver -> {
+			switch (calls.incrementAndGet()) {
+				case 1:
+					throw new NoSuchElementException("not yet");
+				case 2:
+					return Boolean.FALSE;
+				default:
+					return Boolean.TRUE;
+			}
+		}, Duration.ofSeconds(5));
+
+		assertEquals(met, Boolean.TRUE);
+		assertEquals(calls.get(), 3);
+	}
+
+	@Test(expectedExceptions = TimeoutException.class)
+	public void failsWhenConditionIsNeverMet() {
+		new WaitEngine(null).until("test-timeout", driver -> null, Duration.ofMillis(100));
+	}
+
+	@Test
+	public void answersFalseForNegativeChecks() {
+		final long start = System.nanoTime();
+		boolean met = new WaitEngine(null).isMet("test-negative", driver -> false, Duration.ofMillis(200));
+
+		assertEquals(met, false);
+		assertEquals(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000, true);
+		assertEquals(LatencyStats.of("wait-test-negative").getTimeouts(), 1L);
+	}
+}
@@ -0,0 +1,66 @@
+package com.arthina.automation.reporter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention benchmark for {@link ExtentTestManager} step logging.
+ * Each thread runs its own test node and logs the same number of INFO steps, the throughput
+ * (steps/sec across all threads) is printed for increasing thread counts.
+ *
+ * Run the main method from the test classpath (e.g. from the IDE) after mvn test-compile.
+ */
+public class ExtentTestManagerBenchmark {
+	private static final int STEPS_PER_THREAD = 20_000;
+	private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+
+	public static void main(String[] args) throws Exception {
+		ExtentTestManager.startReport("ExtentTestManagerBenchmark");
+		ExtentTestManager.createTest(ExtentTestManagerBenchmark.class.getSimpleName());
+
+		// warm up
+		run(2, STEPS_PER_THREAD / 4);
+
+		for (int threads : THREAD_COUNTS) {
+			final long elapsedNanos = run(threads, STEPS_PER_THREAD);
+			final double stepsPerSecond = (double) threads * STEPS_PER_THREAD / (elapsedNanos / 1_000_000_000d);
+			System.out.printf("threads=%d steps=%d elapsed=%dms throughput=%.0f steps/s%n",
+					threads, threads * STEPS_PER_THREAD, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), stepsPerSecond);
+		}
+	}
+
+	private static long run(final int threads, final int steps) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch ready = new CountDownLatch(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(threads);
+
+		for (int t = 0; t < threads; t++) {
+			final String testName = "thread-" + threads + "-" + t;
+			executor.execute(() -> {
+				ExtentTestManager.startTest(ExtentTestManagerBenchmark.class.getSimpleName(), testName, "");
+				ready.countDown();
+				try {
+					start.await();
+					for (int i = 0; i < steps; i++) {
+						ExtentTestManager.logInfo("step");
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+
+		ready.await();
+		final long begin = System.nanoTime();
+		start.countDown();
+		done.await();
+		final long elapsed = System.nanoTime() - begin;
+		executor.shutdown();
+		return elapsed;
+	}
+}
@@ -0,0 +1,98 @@
+package com.arthina.automation.reporter;
+
+import com.arthina.automation.TestBase;
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Report;
+import com.aventstack.extentreports.observer.ReportObserver;
+import com.aventstack.extentreports.observer.entity.ReportEntity;
+import io.reactivex.rxjava3.core.Observer;
+import io.reactivex.rxjava3.disposables.Disposable;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Flushes a report with a reporter that renders slowly and checks how long a logging thread waits meanwhile.
+ */
+public class ExtentTestManagerTest extends TestBase {
+	private static final int TESTS = 200;
+	private static final int STEPS_PER_TEST = 50;
+	private static final long RENDER_MILLIS = 1_000;
+
+	@Test
+	public void loggingDoesNotWaitForTheRender() throws Exception {
+		ExtentReports report = new ExtentReports();
+		SlowReporter reporter = new SlowReporter();
+		report.attachReporter(reporter);
+		ExtentTest parent = report.createTest("suite");
+		for (int t = 0; t < TESTS; t++) {
+			ExtentTest test = parent.createNode("test-" + t).assignAuthor("ann");
+			for (int s = 0; s < STEPS_PER_TEST; s++) {
+				test.info("step " + s);
+			}
+		}
+		ExtentTest logging = parent.createNode("logging");
+
+		final long flushStart = System.nanoTime();
+		Thread flusher = new Thread(() -> ExtentTestManager.flushModel(report), "slow-flush");
+		flusher.start();
+		assertEquals(reporter.rendering.await(10, TimeUnit.SECONDS), true);
+		final long copyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - flushStart);
+
+		final long logStart = System.nanoTime();
+		ExtentTestManager.updateModel(() -> logging.log(Status.INFO, "logged while rendering"));
+		final long stallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - logStart);
+		flusher.join();
+		System.out.printf("report of %d steps: copy + hand-off %d ms, log during render waited %d ms, render %d ms%n",
+				TESTS * STEPS_PER_TEST, copyMillis, stallMillis, RENDER_MILLIS);
+
+		assertEquals(stallMillis < RENDER_MILLIS / 4, true);
+		Report rendered = reporter.rendered.get();
+		assertEquals(rendered == report.getReport(), false);
+		assertEquals(rendered.getTestList().get(0).getChildren().size(), TESTS + 1);
+		assertEquals(rendered.getTestList().get(0).getChildren().get(TESTS).getLogs().isEmpty(), true);
+		assertEquals(logging.getModel().getLogs().size(), 1);
+		assertEquals(rendered.getAuthorCtx().getSet().iterator().next().getTestList().size(), TESTS);
+		assertEquals(rendered.getStats().getParent().get(Status.PASS).longValue(), 1L);
+	}
+
+	/**
+	 * Reporter that holds the render until the test has logged, like a Spark render of a large report would.
+	 */
+	private static class SlowReporter implements ReportObserver<ReportEntity> {
+		private final CountDownLatch rendering = new CountDownLatch(1);
+		private final AtomicReference<Report> rendered = new AtomicReference<>();
+
+		@Override
+		public Observer<ReportEntity> getReportObserver() {
+			return new Observer<ReportEntity>() {
+				@Override
+				public void onSubscribe(Disposable disposable) {
+				}
+
+				@Override
+				public void onNext(ReportEntity entity) {
+					rendered.set(entity.getReport());
+					rendering.countDown();
+					try {
+						Thread.sleep(RENDER_MILLIS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+
+				@Override
+				public void onError(Throwable throwable) {
+				}
+
+				@Override
+				public void onComplete() {
+				}
+			};
+		}
+	}
+}
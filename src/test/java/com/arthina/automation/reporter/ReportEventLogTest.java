@@ -0,0 +1,77 @@
+package com.arthina.automation.reporter;
+
+import com.arthina.automation.TestBase;
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ReportEventLogTest extends TestBase {
+
+	@org.testng.annotations.Test
+	public void replaysEventLogIntoReportModel() throws IOException {
+		Path file = Files.createTempFile("report", ReportRenderer.EVENT_LOG_EXTENSION);
+		try (ReportEventLog eventLog = new ReportEventLog(file)) {
+			eventLog.suiteStarted("suite");
+			eventLog.classStarted("SampleTest");
+			eventLog.testStarted(1, "SampleTest", "first", "");
+			eventLog.testStarted(2, "SampleTest", "second", "");
+			eventLog.log(1, Status.INFO, "step one", null, null);
+			eventLog.log(2, Status.FAIL, "boom", new IllegalStateException("boom"), null);
+			eventLog.testEnded(1);
+			eventLog.testEnded(2);
+		}
+
+		ExtentReports extent = new ExtentReports();
+		new ReportRenderer(extent).replay(file);
+
+		Test parent = extent.getReport().getTestList().get(0);
+		assertEquals(extent.getReport().getTestList().size(), 1);
+		assertEquals(parent.getName(), "SampleTest");
+		assertEquals(parent.getChildren().size(), 2);
+		assertEquals(parent.getChildren().get(1).getStatus(), Status.FAIL);
+		Files.delete(file);
+	}
+
+	@org.testng.annotations.Test
+	public void skipsTruncatedTrailingEvent() throws IOException {
+		Path file = Files.createTempFile("report", ReportRenderer.EVENT_LOG_EXTENSION);
+		try (ReportEventLog eventLog = new ReportEventLog(file)) {
+			eventLog.classStarted("CrashedTest");
+			eventLog.testStarted(1, "CrashedTest", "interrupted", "");
+			eventLog.log(1, Status.INFO, "last step", null, null);
+		}
+		Files.write(file, "{\"type\":\"log\",\"ts\":1,\"id\":1,\"mess".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+		ExtentReports extent = new ExtentReports();
+		assertEquals(new ReportRenderer(extent).replay(file), 3);
+		assertEquals(extent.getReport().getTestList().get(0).getChildren().get(0).getLogs().size(), 1);
+		Files.delete(file);
+	}
+
+	@org.testng.annotations.Test
+	public void startsOverTheLogOfAPreviousRun() throws IOException {
+		Path file = Files.createTempFile("report", ReportRenderer.EVENT_LOG_EXTENSION);
+		try (ReportEventLog eventLog = new ReportEventLog(file)) {
+			eventLog.classStarted("PreviousRun");
+			eventLog.testStarted(1, "PreviousRun", "old", "");
+			eventLog.testEnded(1);
+		}
+		try (ReportEventLog eventLog = new ReportEventLog(file)) {
+			eventLog.classStarted("ThisRun");
+			eventLog.testStarted(1, "ThisRun", "new", "");
+			eventLog.testEnded(1);
+		}
+
+		ExtentReports extent = new ExtentReports();
+		assertEquals(new ReportRenderer(extent).replay(file), 3);
+		assertEquals(extent.getReport().getTestList().size(), 1);
+		assertEquals(extent.getReport().getTestList().get(0).getChildren().get(0).getName(), "new");
+		Files.delete(file);
+	}
+}
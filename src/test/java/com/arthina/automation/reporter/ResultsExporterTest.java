@@ -0,0 +1,79 @@
+package com.arthina.automation.reporter;
+
+import com.arthina.automation.TestBase;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.testng.IClass;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ResultsExporterTest extends TestBase {
+	private static final int RESULTS = 5000;
+
+	@Test
+	public void streamsResultsOverSeveralSheets() throws IOException {
+		Path file = Files.createTempDirectory("results").resolve("results.xlsx");
+		ResultsExporter exporter = new ResultsExporter(file, 50, 3000);
+		for (int i = 0; i < RESULTS; i++) {
+			exporter.write(result(i));
+		}
+		exporter.close();
+		exporter.write(result(RESULTS));
+
+		assertEquals(exporter.getRows(), RESULTS);
+		try (InputStream in = Files.newInputStream(file); XSSFWorkbook workbook = new XSSFWorkbook(in)) {
+			assertEquals(workbook.getNumberOfSheets(), 2);
+			Sheet first = workbook.getSheetAt(0);
+			Sheet second = workbook.getSheetAt(1);
+			assertEquals(first.getLastRowNum() + second.getLastRowNum(), RESULTS);
+			assertEquals(second.getRow(0).getCell(0).getStringCellValue(), "Class");
+
+			Row failed = first.getRow(8);
+			assertEquals(failed.getCell(0).getStringCellValue(), "com.example.SampleTest");
+			assertEquals(failed.getCell(1).getStringCellValue(), "test7");
+			assertEquals(failed.getCell(2).getStringCellValue(), "[7, user7]");
+			assertEquals(failed.getCell(3).getStringCellValue(), "FAIL");
+			assertEquals(failed.getCell(5).getNumericCellValue(), 7.0);
+			assertEquals(failed.getCell(6).getStringCellValue(), "java.lang.AssertionError: expected [7] but found [8]");
+			assertEquals(first.getRow(2).getCell(3).getStringCellValue(), "PASS");
+		}
+	}
+
+	private static ITestResult result(final int i) {
+		IClass testClass = (IClass) Proxy.newProxyInstance(IClass.class.getClassLoader(), new Class<?>[]{IClass.class},
+				(proxy, method, args) -> "com.example.SampleTest");
+		ITestNGMethod testMethod = (ITestNGMethod) Proxy.newProxyInstance(ITestNGMethod.class.getClassLoader(), new Class<?>[]{ITestNGMethod.class},
+				(proxy, method, args) -> "test" + i);
+		return (ITestResult) Proxy.newProxyInstance(ITestResult.class.getClassLoader(), new Class<?>[]{ITestResult.class},
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+						case "getTestClass":
+							return testClass;
+						case "getMethod":
+							return testMethod;
+						case "getName":
+							return "test" + i;
+						case "getParameters":
+							return new Object[]{i, "user" + i};
+						case "getStatus":
+							return i % 10 == 7 ? ITestResult.FAILURE : ITestResult.SUCCESS;
+						case "getStartMillis":
+							return 1_600_000_000_000L;
+						case "getEndMillis":
+							return 1_600_000_000_000L + i;
+						case "getThrowable":
+							return i % 10 == 7 ? new AssertionError("expected [" + i + "] but found [" + (i + 1) + "]") : null;
+						default:
+							return null;
+					}
+				});
+	}
+}
@@ -0,0 +1,115 @@
+package com.arthina.automation.reporter;
+
+import com.arthina.automation.TestBase;
+import com.aventstack.extentreports.model.Media;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ScreenshotPipelineTest extends TestBase {
+
+	@org.testng.annotations.Test
+	public void storesDownscaledScreenshotOncePerContent() throws IOException {
+		Path reportDir = Files.createTempDirectory("report");
+		List<Media> attached = new CopyOnWriteArrayList<Media>();
+		ScreenshotPipeline pipeline = new ScreenshotPipeline(reportDir, 800, 0.75f, 4, false);
+		final byte[] png = screenshot(1920, 1080, Color.BLUE);
+
+		pipeline.submit(png, "first", (status, message, media) -> attached.add(media));
+		pipeline.submit(png, "second", (status, message, media) -> attached.add(media));
+		pipeline.submit(screenshot(1920, 1080, Color.RED), "third", (status, message, media) -> attached.add(media));
+		pipeline.close();
+
+		List<Path> files;
+		try (Stream<Path> stored = Files.list(reportDir.resolve(ScreenshotPipeline.SCREENSHOT_DIR))) {
+			files = stored.collect(Collectors.toList());
+		}
+		assertEquals(files.size(), 2);
+		assertEquals(pipeline.getDuplicateCount(), 1);
+		assertEquals(attached.size(), 3);
+		assertEquals(attached.get(0).getPath(), attached.get(1).getPath());
+		assertEquals(attached.get(0).getPath().startsWith(ScreenshotPipeline.SCREENSHOT_DIR + "/"), true);
+
+		BufferedImage stored = ImageIO.read(files.get(0).toFile());
+		assertEquals(stored.getWidth(), 800);
+		assertEquals(stored.getHeight(), 450);
+	}
+
+	@org.testng.annotations.Test
+	public void keepsSmallScreenshotsAtTheirSize() throws IOException {
+		ScreenshotPipeline pipeline = new ScreenshotPipeline(Files.createTempDirectory("report"), 1280, 0.75f, 4, false);
+		BufferedImage encoded = ImageIO.read(new ByteArrayInputStream(pipeline.encode(screenshot(640, 480, Color.GREEN))));
+		pipeline.close();
+
+		assertEquals(encoded.getWidth(), 640);
+		assertEquals(encoded.getHeight(), 480);
+	}
+
+	@org.testng.annotations.Test
+	public void dropsScreenshotsWhenTheQueueIsFull() throws Exception {
+		ScreenshotPipeline pipeline = new ScreenshotPipeline(Files.createTempDirectory("report"), 800, 0.75f, 1, false);
+		CountDownLatch attaching = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> warnings = new CopyOnWriteArrayList<String>();
+		final byte[] png = screenshot(320, 200, Color.BLUE);
+
+		CompletableFuture<Path> running = pipeline.submit(png, "running", (status, message, media) -> {
+			attaching.countDown();
+			awaitQuietly(release);
+		});
+		attaching.await(10, TimeUnit.SECONDS);
+		CompletableFuture<Path> queued = pipeline.submit(png, "queued", (status, message, media) -> { });
+		CompletableFuture<Path> rejected = pipeline.submit(png, "rejected", (status, message, media) -> warnings.add(status + " " + message));
+
+		assertEquals(rejected.isCompletedExceptionally(), true);
+		assertEquals(warnings, Collections.singletonList("Warning rejected dropped, the queue is full"));
+		assertEquals(pipeline.getDroppedCount(), 1);
+		release.countDown();
+		pipeline.close();
+		assertEquals(running.get(), queued.get());
+	}
+
+	@org.testng.annotations.Test
+	public void completesScreenshotsSubmittedAfterClose() throws IOException {
+		ScreenshotPipeline pipeline = new ScreenshotPipeline(Files.createTempDirectory("report"), 800, 0.75f, 4, false);
+		pipeline.close();
+
+		CompletableFuture<Path> late = pipeline.submit(screenshot(320, 200, Color.RED), "late", (status, message, media) -> { });
+		assertEquals(late.isCompletedExceptionally(), true);
+		assertEquals(pipeline.getStoredCount(), 0);
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static byte[] screenshot(final int width, final int height, Color color) throws IOException {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(color);
+		graphics.fillRect(0, 0, width, height / 2);
+		graphics.dispose();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+}
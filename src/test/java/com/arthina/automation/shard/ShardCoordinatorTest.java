@@ -0,0 +1,101 @@
+package com.arthina.automation.shard;
+
+import com.arthina.automation.FirstTest;
+import com.arthina.automation.TestBase;
+import com.arthina.automation.listener.DurationHistory;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Plans shards from the duration history and runs a small suite on two local worker JVMs, one of which dies.
+ */
+public class ShardCoordinatorTest extends TestBase {
+
+	@Test
+	public void balancesShardsByHistory() throws IOException {
+		Path historyFile = Files.createTempDirectory("durations").resolve("durations.tsv");
+		final long lastRun = Instant.now().getEpochSecond();
+		Files.write(historyFile, Arrays.asList(
+				FirstTest.class.getName() + ".firstTest\t900\t0\t" + lastRun,
+				FirstTest.class.getName() + ".secondTest\t500\t0\t" + lastRun,
+				FirstTest.class.getName() + ".thirdTest\t400\t0\t" + lastRun), StandardCharsets.UTF_8);
+		DurationHistory history = DurationHistory.forFile(historyFile);
+		XmlSuite suite = new XmlSuite();
+		suite.setName("suite");
+		XmlTest test = new XmlTest(suite);
+		test.setName("test");
+		test.setXmlClasses(Arrays.asList(new XmlClass(FirstTest.class.getName(), false), new XmlClass(ShardFixture.class.getName(), false)));
+
+		ShardPlan plan = ShardPlan.of(Collections.singletonList(suite), history, 3);
+
+		assertEquals(plan.size(), 3);
+		// the fixture methods depend on each other and stay together, 2 x median 500ms
+		assertEquals(names(plan.getShards().get(0)), Arrays.asList(ShardFixture.class.getName() + ".crashesFirstWorker",
+				ShardFixture.class.getName() + ".runsAfterCrash"));
+		assertEquals(names(plan.getShards().get(1)), Collections.singletonList(FirstTest.class.getName() + ".firstTest"));
+		assertEquals(names(plan.getShards().get(2)), Arrays.asList(FirstTest.class.getName() + ".secondTest",
+				FirstTest.class.getName() + ".thirdTest"));
+	}
+
+	@Test
+	public void retriesTheShardOfADeadWorker() throws IOException, InterruptedException {
+		Path directory = Files.createTempDirectory("shards");
+		Path suiteFile = directory.resolve("suite.xml");
+		Files.write(suiteFile, Arrays.asList(
+				"<!DOCTYPE suite SYSTEM \"https://testng.org/testng-1.0.dtd\" >",
+				"<suite name=\"ShardCoordinatorTest\">",
+				"  <parameter name=\"isWebAutomation\" value=\"false\"/>",
+				"  <parameter name=\"durationHistoryFile\" value=\"" + directory.resolve("durations.tsv") + "\"/>",
+				"  <parameter name=\"crashMarker\" value=\"" + directory.resolve("crashed") + "\"/>",
+				"  <test name=\"sharded\">",
+				"    <classes>",
+				"      <class name=\"" + FirstTest.class.getName() + "\"/>",
+				"      <class name=\"" + ShardFixture.class.getName() + "\"/>",
+				"    </classes>",
+				"  </test>",
+				"</suite>"), StandardCharsets.UTF_8);
+
+		try {
+			List<ShardResult> results = new ShardCoordinator(suiteFile, 2, 2, directory.resolve("work"), directory.resolve("reports")).run(1);
+
+			Map<String, ShardResult.Status> statuses = results.stream().collect(Collectors.toMap(ShardResult::getMethod, ShardResult::getStatus));
+			assertEquals(results.size(), 5);
+			assertEquals(statuses.values().stream().allMatch(status -> status == ShardResult.Status.PASS), true);
+			assertEquals(statuses.containsKey(ShardFixture.class.getName() + ".runsAfterCrash"), true);
+			assertEquals(Files.exists(directory.resolve("crashed")), true);
+			assertEquals(Files.exists(directory.resolve("work").resolve("worker-1.log")), true);
+			try (Stream<Path> reports = Files.list(directory.resolve("reports"))) {
+				assertEquals(reports.anyMatch(report -> report.getFileName().toString().startsWith("ShardCoordinatorTest.fork-")), true);
+			}
+		} finally {
+			delete(directory);
+		}
+	}
+
+	private static void delete(Path directory) throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	private static List<String> names(Shard shard) {
+		return shard.getMethods().stream().map(Shard.TestMethod::getQualifiedName).collect(Collectors.toList());
+	}
+}
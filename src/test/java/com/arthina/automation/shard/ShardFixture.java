@@ -0,0 +1,30 @@
+package com.arthina.automation.shard;
+
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Test class run by the workers of {@link ShardCoordinatorTest}, not part of the suite:
+ * the first run halts its worker JVM to exercise the retry of the coordinator.
+ */
+public class ShardFixture {
+
+	@Test
+	@Parameters("crashMarker")
+	public void crashesFirstWorker(final String crashMarker) throws IOException {
+		Path marker = Paths.get(crashMarker);
+		if (!Files.exists(marker)) {
+			Files.createFile(marker);
+			Runtime.getRuntime().halt(1);
+		}
+	}
+
+	@Test(dependsOnMethods = "crashesFirstWorker")
+	public void runsAfterCrash() {
+	}
+}